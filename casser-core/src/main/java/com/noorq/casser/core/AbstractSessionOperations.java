@@ -22,15 +22,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.policies.RetryPolicy;
 import com.datastax.driver.core.querybuilder.BuiltStatement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.noorq.casser.core.metrics.CasserMetrics;
+import com.noorq.casser.core.metrics.OperationStats;
 import com.noorq.casser.mapping.value.ColumnValuePreparer;
 import com.noorq.casser.mapping.value.ColumnValueProvider;
+import com.noorq.casser.mapping.value.Materialization;
 import com.noorq.casser.support.CasserException;
 
 public abstract class AbstractSessionOperations {
@@ -52,7 +60,25 @@ public abstract class AbstractSessionOperations {
 	abstract public ColumnValueProvider getValueProvider();
 	
 	abstract public ColumnValuePreparer getValuePreparer();
+	
+	abstract public PreparedStatementCache getStatementCache();
+	
+	abstract public HedgingPolicy getHedgingPolicy();
+	
+	abstract public CasserMetrics getMetrics();
+	
+	abstract public SlowQueryLog getSlowQueryLog();
+	
+	abstract public Materialization getMaterialization();
+	
+	abstract public boolean isClientTimestamps();
+	
+	abstract public RetryPolicy getIdempotentRetryPolicy();
 
+	public ProtocolVersion getProtocolVersion() {
+		return currentSession().getCluster().getConfiguration().getProtocolOptions().getProtocolVersionEnum();
+	}
+	
 	public PreparedStatement prepare(RegularStatement statement) {
 		
 		try {
@@ -90,13 +116,66 @@ public abstract class AbstractSessionOperations {
 	}
 	
 	public ResultSetFuture executeAsync(Statement statement, boolean showValues) {
+		return executeAsync(statement, showValues, null);
+	}
+	
+	/**
+	 * Executes the statement and records the execution time in the given statistics and in the 
+	 * slow query log, cancelled executions like the hedged attempts that lost are not recorded
+	 */
+	
+	public ResultSetFuture executeAsync(Statement statement, boolean showValues, OperationStats stats) {
 		
 		try {
 			
 			log(statement, showValues);
 			
-			return currentSession().executeAsync(statement);
+			long submitNanos = System.nanoTime();
+			
+			ResultSetFuture future = currentSession().executeAsync(statement);
+			
+			SlowQueryLog slowQueryLog = getSlowQueryLog();
+			
+			if (stats != null || slowQueryLog != null) {
+				
+				Futures.addCallback(future, new FutureCallback<ResultSet>() {
+
+					@Override
+					public void onSuccess(ResultSet result) {
+						
+						long elapsedNanos = System.nanoTime() - submitNanos;
+						
+						if (stats != null) {
+							stats.recordExecution(elapsedNanos);
+						}
+						
+						if (slowQueryLog != null) {
+							slowQueryLog.record(statement, elapsedNanos);
+						}
+					}
+
+					@Override
+					public void onFailure(Throwable t) {
+						
+						if (future.isCancelled()) {
+							return;
+						}
+						
+						long elapsedNanos = System.nanoTime() - submitNanos;
+						
+						if (stats != null) {
+							stats.recordError(elapsedNanos);
+						}
+						
+						if (slowQueryLog != null) {
+							slowQueryLog.record(statement, elapsedNanos);
+						}
+					}
+					
+				}, MoreExecutors.sameThreadExecutor());
+			}
 			
+			return future;
 		}
 		catch(RuntimeException e) {
 			throw translateException(e);
@@ -106,8 +185,8 @@ public abstract class AbstractSessionOperations {
 
 	void log(Statement statement, boolean showValues) {
 		
-		if (logger.isInfoEnabled()) {
-			logger.info("Execute statement " + statement);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Execute statement " + statement);
 		}
 		
 		if (isShowCql()) {
@@ -0,0 +1,90 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *  Writes lines from the background daemon thread through a bounded buffer,
+ *  lines are dropped instead of blocking the caller when the buffer is full
+ *
+ */
+
+final class AsyncLineWriter {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	private final BlockingQueue<String> buffer;
+	private final Consumer<String> target;
+	private final AtomicLong dropped = new AtomicLong();
+	private final Thread thread;
+	
+	private volatile boolean closed = false;
+	
+	AsyncLineWriter(String name, int capacity, Consumer<String> target) {
+		this.buffer = new ArrayBlockingQueue<String>(capacity);
+		this.target = target;
+		this.thread = new Thread(this::run, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	void write(String line) {
+		if (closed || !buffer.offer(line)) {
+			dropped.incrementAndGet();
+		}
+	}
+	
+	long getDroppedCount() {
+		return dropped.get();
+	}
+	
+	void close() {
+		closed = true;
+		thread.interrupt();
+	}
+	
+	private void run() {
+		
+		while (!closed || !buffer.isEmpty()) {
+			
+			String line;
+			try {
+				line = buffer.take();
+			} catch (InterruptedException e) {
+				line = buffer.poll();
+				if (line == null) {
+					continue;
+				}
+			}
+			
+			try {
+				target.accept(line);
+			}
+			catch(RuntimeException e) {
+				logger.error("fail to write " + line, e);
+			}
+		}
+		
+	}
+	
+}
@@ -20,21 +20,37 @@ import java.io.PrintStream;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import com.datastax.driver.core.CloseFuture;
+import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.policies.RetryPolicy;
+import com.noorq.casser.core.metrics.CasserMetrics;
+import com.noorq.casser.core.operation.AbstractOperation;
+import com.noorq.casser.core.operation.BatchOperation;
+import com.noorq.casser.core.operation.BulkExecution;
 import com.noorq.casser.core.operation.CountOperation;
 import com.noorq.casser.core.operation.DeleteOperation;
 import com.noorq.casser.core.operation.InsertOperation;
+import com.noorq.casser.core.operation.ScanOperation;
 import com.noorq.casser.core.operation.SelectOperation;
+import com.noorq.casser.core.operation.SelectPrimitiveOperation;
+import com.noorq.casser.core.operation.SelectPrimitiveOperation.DoubleChunks;
+import com.noorq.casser.core.operation.SelectPrimitiveOperation.LongChunks;
 import com.noorq.casser.core.operation.UpdateOperation;
 import com.noorq.casser.core.reflect.CasserPropertyNode;
 import com.noorq.casser.mapping.CasserEntity;
 import com.noorq.casser.mapping.MappingUtil;
 import com.noorq.casser.mapping.value.ColumnValuePreparer;
 import com.noorq.casser.mapping.value.ColumnValueProvider;
+import com.noorq.casser.mapping.value.Materialization;
 import com.noorq.casser.mapping.value.RowColumnValueProvider;
 import com.noorq.casser.mapping.value.StatementColumnValuePreparer;
 import com.noorq.casser.mapping.value.ValueProviderMap;
@@ -56,13 +72,28 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 	private final RowColumnValueProvider valueProvider;
 	private final StatementColumnValuePreparer valuePreparer;
 	
+	private volatile PreparedStatementCache statementCache;
+	private volatile HedgingPolicy hedgingPolicy;
+	
+	private static final AtomicInteger sessionCounter = new AtomicInteger();
+	private final String sessionName;
+	private final CasserMetrics metrics = new CasserMetrics();
+	private volatile boolean metricsEnabled;
+	private volatile SlowQueryLog slowQueryLog;
+	private volatile AsyncLineWriter cqlWriter;
+	private volatile Materialization materialization = Materialization.LAZY;
+	private volatile boolean clientTimestamps;
+	private volatile RetryPolicy idempotentRetryPolicy;
+	
 	CasserSession(Session session,
 			String usingKeyspace,
 			boolean showCql, 
 			PrintStream printStream,
 			SessionRepositoryBuilder sessionRepositoryBuilder, 
 			Executor executor,
-			boolean dropSchemaOnClose) {
+			boolean dropSchemaOnClose,
+			int statementCacheSize,
+			boolean metricsEnabled) {
 		this.session = session;
 		this.usingKeyspace = Objects.requireNonNull(usingKeyspace, "keyspace needs to be selected before creating session");
 		this.showCql = showCql;
@@ -73,6 +104,13 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 		
 		this.valueProvider = new RowColumnValueProvider(this.sessionRepository);
 		this.valuePreparer = new StatementColumnValuePreparer(this.sessionRepository);
+		
+		if (statementCacheSize > 0) {
+			this.statementCache = new PreparedStatementCache(this, statementCacheSize);
+		}
+		
+		this.sessionName = usingKeyspace + "-" + sessionCounter.incrementAndGet();
+		metrics(metricsEnabled);
 	}
 	
 	@Override
@@ -88,6 +126,12 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 	public CasserSession useKeyspace(String keyspace) {
 		session.execute(SchemaUtil.use(keyspace, false));
 		this.usingKeyspace = keyspace;
+		
+		PreparedStatementCache cache = this.statementCache;
+		if (cache != null) {
+			cache.invalidateAll();
+		}
+		
 		return this;
 	}
 	
@@ -111,6 +155,130 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 		return this;
 	}
 	
+	@Override
+	public PreparedStatementCache getStatementCache() {
+		return statementCache;
+	}
+	
+	@Override
+	public CasserMetrics getMetrics() {
+		return metricsEnabled ? metrics : null;
+	}
+	
+	public CasserMetrics metrics() {
+		return metrics;
+	}
+	
+	public CasserSession metrics(boolean enabled) {
+		
+		this.metricsEnabled = enabled;
+		
+		if (enabled) {
+			metrics.registerJmx(sessionName);
+		}
+		else {
+			metrics.unregisterJmx();
+		}
+		
+		return this;
+	}
+	
+	@Override
+	public SlowQueryLog getSlowQueryLog() {
+		return slowQueryLog;
+	}
+	
+	/**
+	 * Slow query log of the session, null disables it. The previous slow query log is closed
+	 */
+	
+	public CasserSession slowQueryLog(SlowQueryLog slowQueryLog) {
+		
+		SlowQueryLog previous = this.slowQueryLog;
+		this.slowQueryLog = slowQueryLog;
+		
+		if (previous != null && previous != slowQueryLog) {
+			previous.close();
+		}
+		
+		return this;
+	}
+	
+	@Override
+	public Materialization getMaterialization() {
+		return materialization;
+	}
+	
+	public CasserSession materialization(Materialization materialization) {
+		this.materialization = Objects.requireNonNull(materialization, "empty materialization");
+		return this;
+	}
+	
+	@Override
+	public boolean isClientTimestamps() {
+		return clientTimestamps;
+	}
+	
+	/**
+	 * Stamps the statements without the explicit default timestamp by the monotonic clock of TimeuuidGenerator
+	 */
+	
+	public CasserSession clientTimestamps(boolean enabled) {
+		this.clientTimestamps = enabled;
+		return this;
+	}
+	
+	@Override
+	public RetryPolicy getIdempotentRetryPolicy() {
+		return idempotentRetryPolicy;
+	}
+	
+	/**
+	 * Retry policy of the idempotent operations without the explicit retry policy, null keeps the cluster policy 
+	 */
+	
+	public CasserSession idempotentRetryPolicy(RetryPolicy retryPolicy) {
+		this.idempotentRetryPolicy = retryPolicy;
+		return this;
+	}
+	
+	@Override
+	void printCql(String cql) {
+		
+		AsyncLineWriter writer = cqlWriter;
+		
+		if (writer == null) {
+			synchronized (this) {
+				writer = cqlWriter;
+				if (writer == null) {
+					writer = new AsyncLineWriter("casser-cql-printer", 4096, printStream::println);
+					cqlWriter = writer;
+				}
+			}
+		}
+		
+		writer.write(cql);
+	}
+	
+	@Override
+	public HedgingPolicy getHedgingPolicy() {
+		return hedgingPolicy;
+	}
+	
+	/**
+	 * Default hedging policy of the select and count operations, null disables hedging 
+	 */
+	
+	public CasserSession hedging(HedgingPolicy hedgingPolicy) {
+		this.hedgingPolicy = hedgingPolicy;
+		return this;
+	}
+	
+	public CasserSession statementCache(int maximumSize) {
+		this.statementCache = maximumSize > 0 ? new PreparedStatementCache(this, maximumSize) : null;
+		return this;
+	}
+	
 	@Override
 	public Executor getExecutor() {
 		return executor;
@@ -134,15 +302,7 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 	public <E> SelectOperation<E> select(Class<E> entityClass) {
 		
 		Objects.requireNonNull(entityClass, "entityClass is empty");		
-		ColumnValueProvider valueProvider = getValueProvider();
-		CasserEntity entity = Casser.entity(entityClass);
-		
-		return new SelectOperation<E>(this, entity, (r) -> {
-			
-			Map<String, Object> map = new ValueProviderMap(r, valueProvider, entity);
-			return (E) Casser.map(entityClass, map);
-			
-		});
+		return new SelectOperation<E>(this, Casser.entity(entityClass), entityClass);
 	}
 	
 	public SelectOperation<Fun.ArrayTuple> select() {
@@ -154,6 +314,22 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 		return new SelectOperation<Row>(this, Casser.entity(entityClass));
 	}
 	
+	public <E> ScanOperation<E> scan(Class<E> entityClass) {
+		
+		Objects.requireNonNull(entityClass, "entityClass is empty");		
+		ColumnValueProvider valueProvider = getValueProvider();
+		CasserEntity entity = Casser.entity(entityClass);
+		
+		Materialization materialization = getMaterialization();
+		
+		return new ScanOperation<E>(this, entity, (r) -> {
+			
+			Map<String, Object> map = new ValueProviderMap(r, valueProvider, entity, materialization);
+			return (E) Casser.map(entityClass, map);
+			
+		});
+	}
+	
 	public <E> SelectOperation<E> selectAll(Class<E> entityClass, Function<Row, E> rowMapper) {
 		Objects.requireNonNull(entityClass, "entityClass is empty");
 		Objects.requireNonNull(rowMapper, "rowMapper is empty");
@@ -266,6 +442,59 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 				p1, p2, p3, p4, p5, p6, p7);
 	}
 	
+	public SelectPrimitiveOperation<LongStream> selectLong(Getter<Long> getter) {
+		Objects.requireNonNull(getter, "field is empty");
+		
+		CasserPropertyNode p = MappingUtil.resolveMappingProperty(getter);
+		return new SelectPrimitiveOperation<LongStream>(this, SelectPrimitiveOperation::longStream, p);
+	}
+	
+	public SelectPrimitiveOperation<IntStream> selectInt(Getter<Integer> getter) {
+		Objects.requireNonNull(getter, "field is empty");
+		
+		CasserPropertyNode p = MappingUtil.resolveMappingProperty(getter);
+		return new SelectPrimitiveOperation<IntStream>(this, SelectPrimitiveOperation::intStream, p);
+	}
+	
+	public SelectPrimitiveOperation<DoubleStream> selectDouble(Getter<Double> getter) {
+		Objects.requireNonNull(getter, "field is empty");
+		
+		CasserPropertyNode p = MappingUtil.resolveMappingProperty(getter);
+		return new SelectPrimitiveOperation<DoubleStream>(this, SelectPrimitiveOperation::doubleStream, p);
+	}
+	
+	@SafeVarargs
+	public final SelectPrimitiveOperation<LongChunks> selectLongs(Getter<Long>... getters) {
+		
+		CasserPropertyNode[] props = resolveMappingProperties(getters);
+		return new SelectPrimitiveOperation<LongChunks>(this, rows -> new LongChunks(rows, props.length), props);
+	}
+	
+	@SafeVarargs
+	public final SelectPrimitiveOperation<DoubleChunks> selectDoubles(Getter<Double>... getters) {
+		
+		CasserPropertyNode[] props = resolveMappingProperties(getters);
+		return new SelectPrimitiveOperation<DoubleChunks>(this, rows -> new DoubleChunks(rows, props.length), props);
+	}
+	
+	private static CasserPropertyNode[] resolveMappingProperties(Getter<?>[] getters) {
+		
+		Objects.requireNonNull(getters, "fields are empty");
+		
+		if (getters.length == 0) {
+			throw new IllegalArgumentException("fields are empty");
+		}
+		
+		CasserPropertyNode[] props = new CasserPropertyNode[getters.length];
+		
+		for (int i = 0; i != getters.length; ++i) {
+			Objects.requireNonNull(getters[i], "field " + (i + 1) + " is empty");
+			props[i] = MappingUtil.resolveMappingProperty(getters[i]);
+		}
+		
+		return props;
+	}
+	
 	public CountOperation count() {
 		return new CountOperation(this);
 	}
@@ -323,6 +552,33 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 		return new DeleteOperation(this, Casser.resolve(dsl));
 	}
 	
+	public BatchOperation batch() {
+		return new BatchOperation(this);
+	}
+	
+	@SafeVarargs
+	public final BatchOperation batch(AbstractOperation<ResultSet, ?>... operations) {
+		return new BatchOperation(this).add(operations);
+	}
+	
+	public BulkExecution bulk(int maxInFlight) {
+		return new BulkExecution(maxInFlight);
+	}
+	
+	public BulkExecution executeAll(Stream<? extends AbstractOperation<?, ?>> operations, int maxInFlight) {
+		Objects.requireNonNull(operations, "operations is empty");
+		return new BulkExecution(maxInFlight).execute(operations);
+	}
+	
+	public BulkExecution upsertAll(Stream<?> pojos) {
+		return upsertAll(pojos, BulkExecution.DEFAULT_MAX_IN_FLIGHT);
+	}
+	
+	public BulkExecution upsertAll(Stream<?> pojos, int maxInFlight) {
+		Objects.requireNonNull(pojos, "pojos is empty");
+		return executeAll(pojos.map(this::upsert), maxInFlight);
+	}
+	
 	public Session getSession() {
 		return session;
 	}
@@ -337,6 +593,8 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 			dropSchema();
 		}
 		
+		metrics.unregisterJmx();
+		closeWriters();
 		session.close();
 	}
 	
@@ -345,10 +603,26 @@ public final class CasserSession extends AbstractSessionOperations implements Cl
 		if (!session.isClosed() && dropSchemaOnClose) {
 			dropSchema();
 		}
+		
+		metrics.unregisterJmx();
+		closeWriters();
 
 		return session.closeAsync();
 	}
 	
+	private void closeWriters() {
+		
+		AsyncLineWriter writer = cqlWriter;
+		if (writer != null) {
+			writer.close();
+		}
+		
+		SlowQueryLog log = slowQueryLog;
+		if (log != null) {
+			log.close();
+		}
+	}
+	
 	private void dropSchema() {
 		
 		sessionRepository.entities().forEach(e -> dropEntity(e));
@@ -15,14 +15,25 @@
  */
 package com.noorq.casser.core;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import com.datastax.driver.core.querybuilder.Clause;
 import com.noorq.casser.core.reflect.CasserPropertyNode;
+import com.noorq.casser.mapping.CasserProperty;
 import com.noorq.casser.mapping.MappingUtil;
 import com.noorq.casser.mapping.value.ColumnValuePreparer;
+import com.noorq.casser.support.CasserMappingException;
 
-public final class Filter<V> {
+/**
+ *  Restriction of the column, it is also the predicate of the entities so that 
+ *  the filters of the select stream are pushed down to the query.
+ *
+ */
+
+public final class Filter<V> implements Predicate<Object> {
 
 	private final CasserPropertyNode node;
 	private final Postulate<V> postulate;
@@ -36,10 +47,25 @@ public final class Filter<V> {
 		return node;
 	}
 
+	public Postulate<V> getPostulate() {
+		return postulate;
+	}
+
+	public List<Filter<V>> split() {
+		return postulate.split()
+				.stream()
+				.map(p -> new Filter<V>(node, p))
+				.collect(Collectors.toList());
+	}
+	
 	public Clause getClause(ColumnValuePreparer valuePreparer) {
 		return postulate.getClause(node, valuePreparer);
 	}
 	
+	public Clause getBindClause() {
+		return postulate.getBindClause(node);
+	}
+	
 	public static <V> Filter<V> equal(Getter<V> getter, V val) {
 		return create(getter, Operator.EQ, val);
 	}
@@ -104,6 +130,26 @@ public final class Filter<V> {
 		return new Filter<V>(node, postulate);
 	}
 
+	/**
+	 * Evaluates the filter on the entity in memory
+	 */
+	
+	@Override
+	public boolean test(Object entity) {
+		
+		CasserProperty prop = node.getProperty();
+		
+		if (node.getNext().isPresent() || !prop.getEntity().getMappingInterface().isInstance(entity)) {
+			throw new CasserMappingException("filter " + this + " can not be evaluated on " + entity);
+		}
+		
+		try {
+			return postulate.test(prop.getGetterMethod().invoke(entity));
+		} catch (ReflectiveOperationException e) {
+			throw new CasserMappingException("fail to evaluate filter " + this, e);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		return node.getColumnName() + postulate.toString();
@@ -0,0 +1,157 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ *  Policy of speculative reads.
+ *
+ *  Keeps a window of recent latencies and sends a duplicate request when the first
+ *  attempt has not answered within the configured percentile of the window.
+ *  Until the window has enough samples no duplicates are sent.
+ *
+ */
+
+public final class HedgingPolicy {
+
+	public static final double DEFAULT_PERCENTILE = 0.99;
+
+	private static final int WINDOW = 1024;
+	private static final int MIN_SAMPLES = 100;
+	private static final int RECALCULATE_EVERY = 64;
+
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("casser-hedging-%d").build());
+
+	private final double percentile;
+	private final long minDelayNanos;
+	private final int maxAttempts;
+
+	private final AtomicLongArray window = new AtomicLongArray(WINDOW);
+	private final AtomicLong samples = new AtomicLong();
+	private volatile long delayNanos = -1L;
+
+	private final AtomicLong hedged = new AtomicLong();
+	private final AtomicLong hedgeWins = new AtomicLong();
+
+	public HedgingPolicy() {
+		this(DEFAULT_PERCENTILE, 0L, TimeUnit.MILLISECONDS, 2);
+	}
+
+	public HedgingPolicy(double percentile, long minDelay, TimeUnit unit, int maxAttempts) {
+
+		if (percentile <= 0.0 || percentile >= 1.0) {
+			throw new IllegalArgumentException("invalid percentile " + percentile);
+		}
+
+		if (minDelay < 0) {
+			throw new IllegalArgumentException("invalid minDelay " + minDelay);
+		}
+
+		if (maxAttempts < 2) {
+			throw new IllegalArgumentException("invalid maxAttempts " + maxAttempts);
+		}
+
+		this.percentile = percentile;
+		this.minDelayNanos = unit.toNanos(minDelay);
+		this.maxAttempts = maxAttempts;
+	}
+
+	public static HedgingPolicy percentile(double percentile) {
+		return new HedgingPolicy(percentile, 0L, TimeUnit.MILLISECONDS, 2);
+	}
+
+	public double getPercentile() {
+		return percentile;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Returns the delay before the next attempt in nanoseconds or -1 if the attempt should not be sent
+	 */
+
+	public long getDelayNanos() {
+
+		long delay = delayNanos;
+
+		if (delay < 0) {
+			return -1L;
+		}
+
+		return Math.max(delay, minDelayNanos);
+	}
+
+	public void record(long latencyNanos) {
+
+		long n = samples.getAndIncrement();
+		window.set((int) (n % WINDOW), latencyNanos);
+
+		if (n + 1 >= MIN_SAMPLES && (n + 1) % RECALCULATE_EVERY == 0) {
+			delayNanos = calculate(Math.min(n + 1, WINDOW));
+		}
+	}
+
+	private long calculate(long size) {
+
+		long[] snapshot = new long[(int) size];
+		for (int i = 0; i != snapshot.length; ++i) {
+			snapshot[i] = window.get(i);
+		}
+
+		Arrays.sort(snapshot);
+
+		int index = (int) Math.ceil(percentile * snapshot.length) - 1;
+		return snapshot[Math.max(0, Math.min(index, snapshot.length - 1))];
+	}
+
+	public void hedged() {
+		hedged.incrementAndGet();
+	}
+
+	public void hedgeWon() {
+		hedgeWins.incrementAndGet();
+	}
+
+	public long getHedgedCount() {
+		return hedged.get();
+	}
+
+	public long getHedgeWinCount() {
+		return hedgeWins.get();
+	}
+
+	public ScheduledExecutorService getScheduler() {
+		return scheduler;
+	}
+
+	@Override
+	public String toString() {
+		return "HedgingPolicy [percentile=" + percentile + ", delayNanos=" + getDelayNanos()
+				+ ", hedged=" + getHedgedCount() + ", hedgeWins=" + getHedgeWinCount() + "]";
+	}
+
+}
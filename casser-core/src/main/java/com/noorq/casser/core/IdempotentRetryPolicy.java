@@ -0,0 +1,84 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.policies.RetryPolicy;
+
+/**
+ *  Retry policy of the idempotent operations.
+ *  
+ *  The session sets it only on the statements that the operation infers as idempotent, 
+ *  so read and write timeouts are retried at the same consistency level without the checks 
+ *  of the default policy. Counter and CAS writes are never retried.
+ *
+ */
+
+public final class IdempotentRetryPolicy implements RetryPolicy {
+
+	public static final int DEFAULT_MAX_RETRIES = 3;
+	
+	public static final IdempotentRetryPolicy INSTANCE = new IdempotentRetryPolicy(DEFAULT_MAX_RETRIES);
+	
+	private final int maxRetries;
+	
+	public IdempotentRetryPolicy(int maxRetries) {
+		
+		if (maxRetries < 0) {
+			throw new IllegalArgumentException("invalid maxRetries " + maxRetries);
+		}
+		
+		this.maxRetries = maxRetries;
+	}
+	
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+	
+	@Override
+	public RetryDecision onReadTimeout(Statement statement, ConsistencyLevel cl,
+			int requiredResponses, int receivedResponses, boolean dataRetrieved,
+			int nbRetry) {
+		
+		return nbRetry < maxRetries ? RetryDecision.retry(cl) : RetryDecision.rethrow();
+	}
+
+	@Override
+	public RetryDecision onWriteTimeout(Statement statement, ConsistencyLevel cl,
+			WriteType writeType, int requiredAcks, int receivedAcks, int nbRetry) {
+		
+		if (writeType == WriteType.COUNTER || writeType == WriteType.CAS) {
+			return RetryDecision.rethrow();
+		}
+		
+		return nbRetry < maxRetries ? RetryDecision.retry(cl) : RetryDecision.rethrow();
+	}
+
+	@Override
+	public RetryDecision onUnavailable(Statement statement, ConsistencyLevel cl,
+			int requiredReplica, int aliveReplica, int nbRetry) {
+		
+		return nbRetry == 0 && maxRetries > 0 ? RetryDecision.retry(cl) : RetryDecision.rethrow();
+	}
+	
+	@Override
+	public String toString() {
+		return "IdempotentRetryPolicy [maxRetries=" + maxRetries + "]";
+	}
+
+}
@@ -20,16 +20,19 @@ public final class Ordered {
 		this.direction = direction;
 	}
 	
+	public OrderingDirection getDirection() {
+		return direction;
+	}
+	
+	public String getColumnName() {
+		return resolvePropertyNode().getColumnName();
+	}
+	
 	public Ordering getOrdering() {
 		
-		Objects.requireNonNull(getter, "property is null");
 		Objects.requireNonNull(direction, "direction is null");
 		
-		CasserPropertyNode propNode = MappingUtil.resolveMappingProperty(getter);
-		
-		if (propNode.getProperty().getColumnType() != ColumnType.CLUSTERING_COLUMN) {
-			throw new CasserMappingException("property must be a clustering column " + propNode.getProperty().getPropertyName());
-		}
+		CasserPropertyNode propNode = resolvePropertyNode();
 		
 		switch(direction) {
 		
@@ -44,4 +47,17 @@ public final class Ordered {
 		throw new CasserMappingException("invalid direction " + direction);
 	}
 	
+	private CasserPropertyNode resolvePropertyNode() {
+		
+		Objects.requireNonNull(getter, "property is null");
+		
+		CasserPropertyNode propNode = MappingUtil.resolveMappingProperty(getter);
+		
+		if (propNode.getProperty().getColumnType() != ColumnType.CLUSTERING_COLUMN) {
+			throw new CasserMappingException("property must be a clustering column " + propNode.getProperty().getPropertyName());
+		}
+		
+		return propNode;
+	}
+	
 }
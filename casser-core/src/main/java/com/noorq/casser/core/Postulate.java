@@ -15,7 +15,11 @@
  */
 package com.noorq.casser.core;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 
 import com.datastax.driver.core.querybuilder.Clause;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
@@ -37,6 +41,72 @@ public final class Postulate<V> {
 		return new Postulate<V>(op, values);
 	}
 	
+	public Operator getOperator() {
+		return operator;
+	}
+	
+	public int size() {
+		return values.length;
+	}
+	
+	/**
+	 * Splits the 'in' postulate into equality postulates, one per value 
+	 */
+	
+	public List<Postulate<V>> split() {
+		
+		if (operator != Operator.IN) {
+			return Collections.singletonList(this);
+		}
+		
+		List<Postulate<V>> list = new ArrayList<Postulate<V>>(values.length);
+		for (int i = 0; i != values.length; ++i) {
+			list.add(new Postulate<V>(Operator.EQ, Arrays.copyOfRange(values, i, i + 1)));
+		}
+		return list;
+	}
+	
+	public Object[] prepareValues(CasserPropertyNode node, ColumnValuePreparer valuePreparer) {
+		
+		Object[] preparedValues = new Object[values.length];
+		for (int i = 0; i != values.length; ++i) {
+			preparedValues[i] = valuePreparer.prepareColumnValue(values[i], node.getProperty());
+		}
+		return preparedValues;
+	}
+	
+	public Clause getBindClause(CasserPropertyNode node) {
+		
+		switch(operator) {
+		
+		case EQ:
+			return QueryBuilder.eq(node.getColumnName(), QueryBuilder.bindMarker());
+		
+		case IN:
+			Object[] markers = new Object[values.length];
+			for (int i = 0; i != values.length; ++i) {
+				markers[i] = QueryBuilder.bindMarker();
+			}
+			return QueryBuilder.in(node.getColumnName(), markers);
+			
+		case LT:
+			return QueryBuilder.lt(node.getColumnName(), QueryBuilder.bindMarker());
+
+		case LTE:
+			return QueryBuilder.lte(node.getColumnName(), QueryBuilder.bindMarker());
+
+		case GT:
+			return QueryBuilder.gt(node.getColumnName(), QueryBuilder.bindMarker());
+
+		case GTE:
+			return QueryBuilder.gte(node.getColumnName(), QueryBuilder.bindMarker());
+
+		default:
+			throw new CasserMappingException("unknown filter operation " + operator);
+		}
+		
+	}
+	
 	public Clause getClause(CasserPropertyNode node, ColumnValuePreparer valuePreparer) {
 		
 		switch(operator) {
@@ -74,6 +144,43 @@ public final class Postulate<V> {
 		
 	}
 
+	/**
+	 * Evaluates the postulate on the value in memory
+	 */
+	
+	@SuppressWarnings("unchecked")
+	public boolean test(Object value) {
+		
+		switch(operator) {
+		
+		case EQ:
+			return Objects.equals(values[0], value);
+			
+		case IN:
+			for (V v : values) {
+				if (Objects.equals(v, value)) {
+					return true;
+				}
+			}
+			return false;
+			
+		case LT:
+			return value != null && ((Comparable<Object>) value).compareTo(values[0]) < 0;
+
+		case LTE:
+			return value != null && ((Comparable<Object>) value).compareTo(values[0]) <= 0;
+
+		case GT:
+			return value != null && ((Comparable<Object>) value).compareTo(values[0]) > 0;
+
+		case GTE:
+			return value != null && ((Comparable<Object>) value).compareTo(values[0]) >= 0;
+
+		default:
+			throw new CasserMappingException("unknown filter operation " + operator);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		
@@ -0,0 +1,170 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ *  Bounded LRU cache of prepared statements keyed by the normalized statement shape.
+ *  
+ *  The first time a shape is seen the bind-marker template is prepared asynchronously
+ *  and the operation goes out as a regular statement, afterwards the values are bound
+ *  directly into a BoundStatement.
+ *
+ */
+
+public final class PreparedStatementCache {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	private final AbstractSessionOperations sessionOps;
+	private final int maximumSize;
+	private final Cache<List<Object>, ListenableFuture<PreparedStatement>> cache;
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
+	public PreparedStatementCache(AbstractSessionOperations sessionOps, int maximumSize) {
+		
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("invalid maximumSize " + maximumSize);
+		}
+		
+		this.sessionOps = sessionOps;
+		this.maximumSize = maximumSize;
+		this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+	}
+	
+	/**
+	 * Returns the bound statement for the shape or null if the prepared statement 
+	 * is not ready yet and the operation needs to be executed as a regular statement 
+	 */
+	
+	public BoundStatement bind(List<Object> shape, Object[] values, Supplier<RegularStatement> template) {
+		
+		ListenableFuture<PreparedStatement> future = cache.getIfPresent(shape);
+		
+		if (future == null) {
+			misses.incrementAndGet();
+			prepare(shape, template);
+			return null;
+		}
+		
+		if (!future.isDone()) {
+			misses.incrementAndGet();
+			return null;
+		}
+		
+		PreparedStatement preparedStatement;
+		try {
+			preparedStatement = Futures.getUnchecked(future);
+		}
+		catch(RuntimeException e) {
+			cache.asMap().remove(shape, future);
+			misses.incrementAndGet();
+			return null;
+		}
+		
+		try {
+			BoundStatement boundStatement = preparedStatement.bind(values);
+			hits.incrementAndGet();
+			return boundStatement;
+		}
+		catch(RuntimeException e) {
+			
+			if (logger.isDebugEnabled()) {
+				logger.debug("fail to bind values to the prepared statement " + preparedStatement.getQueryString(), e);
+			}
+			
+			misses.incrementAndGet();
+			return null;
+		}
+		
+	}
+	
+	private void prepare(List<Object> shape, Supplier<RegularStatement> template) {
+		
+		ListenableFuture<PreparedStatement> future;
+		
+		try {
+			future = sessionOps.prepareAsync(template.get());
+		}
+		catch(RuntimeException e) {
+			logger.warn("fail to prepare statement for the shape " + shape, e);
+			return;
+		}
+		
+		if (cache.asMap().putIfAbsent(shape, future) != null) {
+			return;
+		}
+		
+		// the failed statement is prepared again by the next operation of the shape
+		Futures.addCallback(future, new FutureCallback<PreparedStatement>() {
+			
+			@Override 
+			public void onSuccess(PreparedStatement result) {
+			}
+			
+			@Override 
+			public void onFailure(Throwable t) {
+				logger.warn("fail to prepare statement for the shape " + shape, t);
+				cache.asMap().remove(shape, future);
+			}
+			
+		});
+	}
+	
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+	
+	public long size() {
+		return cache.size();
+	}
+	
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+	
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	@Override
+	public String toString() {
+		return "PreparedStatementCache [size=" + cache.size() + ", maximumSize=" + maximumSize 
+				+ ", hits=" + hits.get() + ", misses=" + misses.get() + "]";
+	}
+	
+}
@@ -80,7 +80,8 @@ public final class Query {
 
 			@Override
 			public V get() {
-				return listGetter.get().get(index);
+				List<V> list = listGetter.get();
+				return list != null ? list.get(index) : null;
 			}
     		
     	};
@@ -94,7 +95,8 @@ public final class Query {
 
 			@Override
 			public V get() {
-				return mapGetter.get().get(k);
+				Map<K, V> map = mapGetter.get();
+				return map != null ? map.get(k) : null;
 			}
     		
     	};
@@ -0,0 +1,161 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.UserType;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.schemabuilder.Create;
+import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserEntityType;
+
+/**
+ *  Fingerprints of the mapped model and of the keyspace metadata of its entities.
+ *
+ *  The fingerprint of the metadata is stored in the casser_schema table under the fingerprint
+ *  of the model once the schema is updated, the next start with the same model and unchanged 
+ *  metadata does not need to compare the entities one by one. Validation only reads the table,
+ *  it is neither created nor written unless the schema may be changed.
+ *
+ */
+
+final class SchemaFingerprint {
+
+	static final String TABLE = "casser_schema";
+	
+	private static final String MODEL = "model";
+	private static final String METADATA = "metadata";
+	private static final String UPDATED = "updated";
+	
+	private final AbstractSessionOperations sessionOps;
+	private final List<CasserEntity> entities;
+	private final String model;
+	
+	SchemaFingerprint(AbstractSessionOperations sessionOps, Collection<CasserEntity> entities, 
+			boolean dropUnusedColumns, boolean dropUnusedIndexes) {
+		
+		this.sessionOps = sessionOps;
+		this.entities = new ArrayList<CasserEntity>(entities);
+		
+		Collections.sort(this.entities, (a, b) -> key(a).compareTo(key(b)));
+		
+		Hasher hasher = Hashing.sha256().newHasher();
+		
+		hasher.putBoolean(dropUnusedColumns);
+		hasher.putBoolean(dropUnusedIndexes);
+		
+		for (CasserEntity entity : this.entities) {
+			
+			hasher.putString(key(entity), StandardCharsets.UTF_8);
+			
+			if (entity.getType() == CasserEntityType.UDT) {
+				hasher.putString(SchemaUtil.createUserType(entity).getQueryString(), StandardCharsets.UTF_8);
+			}
+			else {
+				hasher.putString(SchemaUtil.createTable(entity).getQueryString(), StandardCharsets.UTF_8);
+				SchemaUtil.createIndexes(entity).forEach(s -> hasher.putString(s.getQueryString(), StandardCharsets.UTF_8));
+			}
+		}
+		
+		this.model = hasher.hash().toString();
+	}
+	
+	String getModel() {
+		return model;
+	}
+	
+	String ofMetadata(KeyspaceMetadata km) {
+		
+		Hasher hasher = Hashing.sha256().newHasher();
+		
+		for (CasserEntity entity : entities) {
+			
+			hasher.putString(key(entity), StandardCharsets.UTF_8);
+			
+			String name = entity.getName().getName();
+			
+			if (entity.getType() == CasserEntityType.UDT) {
+				UserType userType = km != null ? km.getUserType(name) : null;
+				hasher.putString(userType != null ? userType.exportAsString() : "", StandardCharsets.UTF_8);
+			}
+			else {
+				TableMetadata tmd = km != null ? km.getTable(name) : null;
+				hasher.putString(tmd != null ? tmd.exportAsString() : "", StandardCharsets.UTF_8);
+			}
+		}
+		
+		return hasher.hash().toString();
+	}
+	
+	/**
+	 * Returns true if the stored fingerprint of the model matches the given keyspace metadata
+	 */
+	
+	boolean matches(KeyspaceMetadata km) {
+		
+		if (km == null || km.getTable(TABLE) == null) {
+			return false;
+		}
+		
+		Row row = sessionOps.execute(QueryBuilder.select(METADATA).from(TABLE).where(eq(MODEL, model)), true).one();
+		
+		return row != null && ofMetadata(km).equals(row.getString(0));
+	}
+	
+	void store(KeyspaceMetadata km) {
+		
+		if (km.getTable(TABLE) == null) {
+			createTable();
+		}
+		
+		sessionOps.execute(QueryBuilder.insertInto(TABLE)
+				.value(MODEL, model)
+				.value(METADATA, ofMetadata(km))
+				.value(UPDATED, new Date()), true);
+	}
+	
+	private void createTable() {
+		
+		Create create = SchemaBuilder.createTable(TABLE)
+				.addPartitionKey(MODEL, DataType.text())
+				.addColumn(METADATA, DataType.text())
+				.addColumn(UPDATED, DataType.timestamp());
+		
+		create.ifNotExists();
+		
+		sessionOps.execute(create, true);
+	}
+	
+	private static String key(CasserEntity entity) {
+		return entity.getType() + ":" + entity.getName().getName();
+	}
+	
+}
@@ -0,0 +1,203 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.support.CasserMappingException;
+
+/**
+ *  Creates, validates or updates the schema of the entities in the order of their dependencies.
+ *
+ *  Every entity is processed once all user types it uses are processed, up to parallelism
+ *  independent entities are processed concurrently.
+ *
+ */
+
+final class SchemaSynchronization {
+
+	private final Map<CasserEntity, Node> nodes = new HashMap<CasserEntity, Node>();
+	private final Consumer<CasserEntity> action;
+	private final int parallelism;
+	
+	private final SettableFuture<Void> result = SettableFuture.create();
+	private final AtomicInteger remaining = new AtomicInteger();
+	
+	private ExecutorService executor;
+	
+	SchemaSynchronization(Collection<CasserEntity> entities, 
+			Function<CasserEntity, Collection<CasserEntity>> dependencies, 
+			Consumer<CasserEntity> action, 
+			int parallelism) {
+		
+		this.action = action;
+		this.parallelism = parallelism;
+		
+		for (CasserEntity entity : entities) {
+			nodes.put(entity, new Node(entity));
+		}
+		
+		for (Node node : nodes.values()) {
+			
+			for (CasserEntity dependency : dependencies.apply(node.entity)) {
+				
+				Node before = nodes.get(dependency);
+				
+				if (before != null && before != node) {
+					before.dependents.add(node);
+					node.waiting.incrementAndGet();
+				}
+			}
+		}
+		
+		checkAcyclic();
+	}
+	
+	ListenableFuture<Void> start() {
+		
+		remaining.set(nodes.size());
+		
+		if (nodes.isEmpty()) {
+			result.set(null);
+			return result;
+		}
+		
+		executor = Executors.newFixedThreadPool(Math.min(parallelism, nodes.size()), 
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("casser-schema-%d").build());
+		
+		List<Node> ready = new ArrayList<Node>();
+		
+		for (Node node : nodes.values()) {
+			if (node.waiting.get() == 0) {
+				ready.add(node);
+			}
+		}
+		
+		ready.forEach(this::submit);
+		
+		return result;
+	}
+	
+	private void submit(Node node) {
+		
+		if (result.isDone()) {
+			return;
+		}
+		
+		try {
+			executor.execute(() -> run(node));
+		}
+		catch(RejectedExecutionException e) {
+			fail(e);
+		}
+	}
+	
+	private void run(Node node) {
+		
+		if (result.isDone()) {
+			return;
+		}
+		
+		try {
+			action.accept(node.entity);
+		}
+		catch(RuntimeException | Error e) {
+			fail(e);
+			return;
+		}
+		
+		for (Node dependent : node.dependents) {
+			if (dependent.waiting.decrementAndGet() == 0) {
+				submit(dependent);
+			}
+		}
+		
+		if (remaining.decrementAndGet() == 0) {
+			executor.shutdown();
+			result.set(null);
+		}
+	}
+	
+	private void fail(Throwable t) {
+		if (result.setException(t)) {
+			executor.shutdown();
+		}
+	}
+	
+	private void checkAcyclic() {
+		
+		Map<Node, Integer> waiting = new HashMap<Node, Integer>();
+		List<Node> ready = new ArrayList<Node>();
+		
+		for (Node node : nodes.values()) {
+			waiting.put(node, node.waiting.get());
+			if (node.waiting.get() == 0) {
+				ready.add(node);
+			}
+		}
+		
+		int processed = 0;
+		
+		while (!ready.isEmpty()) {
+			
+			Node node = ready.remove(ready.size() - 1);
+			processed++;
+			
+			for (Node dependent : node.dependents) {
+				if (waiting.merge(dependent, -1, Integer::sum) == 0) {
+					ready.add(dependent);
+				}
+			}
+		}
+		
+		if (processed != nodes.size()) {
+			List<Class<?>> cyclic = waiting.entrySet().stream()
+					.filter(e -> e.getValue() > 0)
+					.map(e -> e.getKey().entity.getMappingInterface())
+					.collect(Collectors.toList());
+			
+			throw new CasserMappingException("cyclic dependency between user types " + cyclic);
+		}
+	}
+	
+	private static final class Node {
+		
+		final CasserEntity entity;
+		final List<Node> dependents = new ArrayList<Node>();
+		final AtomicInteger waiting = new AtomicInteger();
+		
+		Node(CasserEntity entity) {
+			this.entity = entity;
+		}
+		
+	}
+	
+}
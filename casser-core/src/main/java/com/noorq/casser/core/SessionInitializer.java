@@ -0,0 +1,503 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import java.io.PrintStream;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.UserType;
+import com.datastax.driver.core.policies.RetryPolicy;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.noorq.casser.core.metrics.CasserMetrics;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserEntityType;
+import com.noorq.casser.mapping.value.ColumnValuePreparer;
+import com.noorq.casser.mapping.value.ColumnValueProvider;
+import com.noorq.casser.mapping.value.Materialization;
+import com.noorq.casser.support.CasserException;
+import com.noorq.casser.support.PackageUtil;
+
+
+public final class SessionInitializer extends AbstractSessionOperations {
+
+	private final Session session;
+	private String usingKeyspace;
+	private boolean showCql = false;
+	private PrintStream printStream = System.out;
+	private Executor executor = MoreExecutors.sameThreadExecutor();
+	private int statementCacheSize = 0;
+	private boolean metrics = false;
+	private SlowQueryLog slowQueryLog = null;
+	private Materialization materialization = Materialization.LAZY;
+	private int schemaParallelism = 1;
+	private boolean schemaFingerprint = false;
+	private boolean clientTimestamps = false;
+	private RetryPolicy idempotentRetryPolicy = null;
+	
+	private SessionRepositoryBuilder sessionRepository = new SessionRepositoryBuilder();
+	
+	private boolean dropUnusedColumns = false;
+	private boolean dropUnusedIndexes = false;
+	
+	private KeyspaceMetadata keyspaceMetadata;
+	
+	private final List<Object> initList = new ArrayList<Object>();
+	private AutoDdl autoDdl = AutoDdl.UPDATE;
+	
+	SessionInitializer(Session session) {
+		this.session = Objects.requireNonNull(session, "empty session");
+		this.usingKeyspace = session.getLoggedKeyspace(); // can be null
+	}
+	
+	@Override
+	public Session currentSession() {
+		return session;
+	}
+
+	@Override
+	public String usingKeyspace() {
+		return usingKeyspace;
+	}
+	
+	@Override
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	@Override
+	public SessionRepository getSessionRepository() {
+		throw new CasserException("not expected to call");
+	}
+
+	@Override
+	public ColumnValueProvider getValueProvider() {
+		throw new CasserException("not expected to call");
+	}
+	
+	@Override
+	public ColumnValuePreparer getValuePreparer() {
+		throw new CasserException("not expected to call");
+	}
+
+	@Override
+	public PreparedStatementCache getStatementCache() {
+		return null;
+	}
+	
+	@Override
+	public HedgingPolicy getHedgingPolicy() {
+		return null;
+	}
+	
+	@Override
+	public CasserMetrics getMetrics() {
+		return null;
+	}
+	
+	@Override
+	public SlowQueryLog getSlowQueryLog() {
+		return null;
+	}
+	
+	@Override
+	public Materialization getMaterialization() {
+		return materialization;
+	}
+	
+	@Override
+	public boolean isClientTimestamps() {
+		return clientTimestamps;
+	}
+	
+	@Override
+	public RetryPolicy getIdempotentRetryPolicy() {
+		return idempotentRetryPolicy;
+	}
+
+	public SessionInitializer showCql() {
+		this.showCql = true;
+		return this;
+	}
+	
+	public SessionInitializer showCql(boolean enabled) {
+		this.showCql = enabled;
+		return this;
+	}
+
+	@Override
+	public PrintStream getPrintStream() {
+		return printStream;
+	}
+
+	public SessionInitializer printTo(PrintStream out) {
+		this.printStream = out;
+		return this;
+	}
+	
+	public SessionInitializer withExecutor(Executor executor) {
+		Objects.requireNonNull(executor, "empty executor");
+		this.executor = executor;
+		return this;
+	}
+
+	public SessionInitializer withCachingExecutor() {
+		this.executor = Executors.newCachedThreadPool();
+		return this;
+	}
+
+	public SessionInitializer withStatementCache() {
+		this.statementCacheSize = 1000;
+		return this;
+	}
+	
+	public SessionInitializer withStatementCache(int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("invalid maximumSize " + maximumSize);
+		}
+		this.statementCacheSize = maximumSize;
+		return this;
+	}
+
+	/**
+	 * Records operation timings and registers them in JMX
+	 */
+	
+	public SessionInitializer withMetrics() {
+		this.metrics = true;
+		return this;
+	}
+	
+	public SessionInitializer withSlowQueryLog(long threshold, TimeUnit unit) {
+		return withSlowQueryLog(new SlowQueryLog(threshold, unit));
+	}
+	
+	public SessionInitializer withSlowQueryLog(SlowQueryLog slowQueryLog) {
+		this.slowQueryLog = Objects.requireNonNull(slowQueryLog, "empty slowQueryLog");
+		return this;
+	}
+	
+	/**
+	 * Default decoding mode of the entities returned by select operations
+	 */
+	
+	public SessionInitializer withMaterialization(Materialization materialization) {
+		this.materialization = Objects.requireNonNull(materialization, "empty materialization");
+		return this;
+	}
+	
+	/**
+	 * Uses the monotonic client timestamps as default timestamps of the statements
+	 */
+	
+	public SessionInitializer withClientTimestamps() {
+		this.clientTimestamps = true;
+		return this;
+	}
+	
+	/**
+	 * Retries the timed out idempotent operations by IdempotentRetryPolicy
+	 */
+	
+	public SessionInitializer withIdempotentRetries() {
+		return withIdempotentRetries(IdempotentRetryPolicy.INSTANCE);
+	}
+	
+	public SessionInitializer withIdempotentRetries(RetryPolicy retryPolicy) {
+		this.idempotentRetryPolicy = Objects.requireNonNull(retryPolicy, "empty retryPolicy");
+		return this;
+	}
+	
+	/**
+	 * Maximum number of entities created, validated or updated concurrently, entities that use 
+	 * user types are processed after them
+	 */
+	
+	public SessionInitializer withSchemaParallelism(int parallelism) {
+		
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("invalid parallelism " + parallelism);
+		}
+		
+		this.schemaParallelism = parallelism;
+		return this;
+	}
+	
+	/**
+	 * Skips the validation or update of the entities when neither the model nor the keyspace metadata
+	 * changed since the last successful update, the fingerprints are kept in the casser_schema table
+	 * that is created and written by autoUpdate only
+	 */
+	
+	public SessionInitializer withSchemaFingerprint() {
+		this.schemaFingerprint = true;
+		return this;
+	}
+	
+	public SessionInitializer dropUnusedColumns(boolean enabled) {
+		this.dropUnusedColumns = enabled;
+		return this;
+	}
+
+	public SessionInitializer dropUnusedIndexes(boolean enabled) {
+		this.dropUnusedIndexes = enabled;
+		return this;
+	}
+
+	@Override
+	public boolean isShowCql() {
+		return showCql;
+	}
+	
+	/**
+	 * Adds the mapping interfaces of the package, the classpath is scanned unless every classpath root 
+	 * that contains the package has the entity index generated by casser-processor
+	 */
+	
+	public SessionInitializer addPackage(String packageName) {
+		try {
+			Set<Class<?>> classes = PackageUtil.getIndexedClasses(packageName);
+			if (!PackageUtil.isIndexed(packageName)) {
+				classes.addAll(PackageUtil.getClasses(packageName));
+			}
+			classes
+				.stream()
+				.filter(c -> c.isInterface() && !c.isAnnotation())
+				.forEach(initList::add);
+		} catch (ClassNotFoundException e) {
+			throw new CasserException("fail to add package " + packageName, e);
+		}
+		return this;
+	}
+	
+	public SessionInitializer add(Object... dsls) {
+		Objects.requireNonNull(dsls, "dsls is empty");
+		int len = dsls.length;
+		for (int i = 0; i != len; ++i) {
+			Object obj = Objects.requireNonNull(dsls[i], "element " + i + " is empty");
+			initList.add(obj);
+		}
+		return this;
+	}
+	
+	public SessionInitializer autoValidate() {
+		this.autoDdl = AutoDdl.VALIDATE;
+		return this;
+	}
+
+	public SessionInitializer autoUpdate() {
+		this.autoDdl = AutoDdl.UPDATE;
+		return this;
+	}
+
+	public SessionInitializer autoCreate() {
+		this.autoDdl = AutoDdl.CREATE;
+		return this;
+	}
+
+	public SessionInitializer autoCreateDrop() {
+		this.autoDdl = AutoDdl.CREATE_DROP;
+		return this;
+	}
+
+	public SessionInitializer auto(AutoDdl autoDdl) {
+		this.autoDdl = autoDdl;
+		return this;
+	}
+	
+	public SessionInitializer use(String keyspace) {
+		session.execute(SchemaUtil.use(keyspace, false));
+		this.usingKeyspace = keyspace;
+		return this;
+	}
+	
+	public SessionInitializer use(String keyspace, boolean forceQuote) {
+		session.execute(SchemaUtil.use(keyspace, forceQuote));
+		this.usingKeyspace = keyspace;
+		return this;
+	}
+	
+	public void singleton() {
+		Casser.setSession(get());
+	}
+	
+	public synchronized CasserSession get() {
+		try {
+			return Uninterruptibles.getUninterruptibly(getAsync());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new CasserException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Synchronizes the schema in background, the session is returned once the schema is ready
+	 */
+	
+	public synchronized ListenableFuture<CasserSession> getAsync() {
+		
+		ListenableFuture<Void> schema = initialize();
+		
+		return Futures.transform(schema, new Function<Void, CasserSession>() {
+
+			@Override
+			public CasserSession apply(Void input) {
+				return createSession();
+			}
+			
+		}, MoreExecutors.sameThreadExecutor());
+	}
+	
+	private CasserSession createSession() {
+		
+		KeyspaceMetadata km = getKeyspaceMetadata();
+		
+		for (UserType userType : km.getUserTypes()) {
+			sessionRepository.addUserType(userType.getTypeName(), userType);
+		}
+		
+		CasserSession casserSession = new CasserSession(session, 
+				usingKeyspace,
+				showCql, 
+				printStream,
+				sessionRepository,
+				executor,
+				autoDdl == AutoDdl.CREATE_DROP,
+				statementCacheSize,
+				metrics);
+		
+		if (slowQueryLog != null) {
+			casserSession.slowQueryLog(slowQueryLog);
+		}
+		
+		casserSession.materialization(materialization);
+		casserSession.clientTimestamps(clientTimestamps);
+		casserSession.idempotentRetryPolicy(idempotentRetryPolicy);
+		
+		return casserSession;
+	}
+
+	private ListenableFuture<Void> initialize() {
+		
+		Objects.requireNonNull(usingKeyspace, "please define keyspace by 'use' operator");
+
+		initList.forEach(dsl -> sessionRepository.add(dsl));
+
+		List<CasserEntity> entities = sessionRepository.entities().stream()
+				.filter(e -> e.getType() == CasserEntityType.UDT || e.getType() == CasserEntityType.TABLE)
+				.collect(Collectors.toList());
+		
+		SchemaFingerprint fingerprint = null;
+		
+		if (schemaFingerprint && (autoDdl == AutoDdl.VALIDATE || autoDdl == AutoDdl.UPDATE)) {
+			
+			fingerprint = new SchemaFingerprint(this, entities, dropUnusedColumns, dropUnusedIndexes);
+			
+			if (fingerprint.matches(getKeyspaceMetadata())) {
+				return Futures.immediateFuture(null);
+			}
+		}
+		
+		TableOperations tableOps = new TableOperations(this, dropUnusedColumns, dropUnusedIndexes);
+		UserTypeOperations userTypeOps = new UserTypeOperations(this, dropUnusedColumns);
+		
+		Consumer<CasserEntity> userTypeAction;
+		Consumer<CasserEntity> tableAction;
+		
+		switch(autoDdl) {
+		
+		case CREATE:
+		case CREATE_DROP:
+
+			userTypeAction = e -> userTypeOps.createUserType(e);
+			tableAction = e -> tableOps.createTable(e);
+			break;
+			
+		case VALIDATE:
+			
+			getKeyspaceMetadata();
+			userTypeAction = e -> userTypeOps.validateUserType(getUserType(e), e);
+			tableAction = e -> tableOps.validateTable(getTableMetadata(e), e);
+			break;
+			
+		case UPDATE:
+			
+			getKeyspaceMetadata();
+			userTypeAction = e -> userTypeOps.updateUserType(getUserType(e), e);
+			tableAction = e -> tableOps.updateTable(getTableMetadata(e), e);
+			break;
+			
+		default:
+			throw new CasserException("unknown autoDdl " + autoDdl);
+		}
+		
+		ListenableFuture<Void> schema = new SchemaSynchronization(entities, 
+				sessionRepository::getUserTypeUses, 
+				e -> (e.getType() == CasserEntityType.UDT ? userTypeAction : tableAction).accept(e),
+				schemaParallelism).start();
+		
+		if (fingerprint == null || autoDdl != AutoDdl.UPDATE) {
+			return schema;
+		}
+		
+		SchemaFingerprint synchronizedFingerprint = fingerprint;
+		
+		return Futures.transform(schema, new Function<Void, Void>() {
+
+			@Override
+			public Void apply(Void input) {
+				keyspaceMetadata = null;
+				synchronizedFingerprint.store(getKeyspaceMetadata());
+				return null;
+			}
+			
+		}, MoreExecutors.sameThreadExecutor());
+	}
+	
+	private KeyspaceMetadata getKeyspaceMetadata() {
+		if (keyspaceMetadata == null) {
+			keyspaceMetadata = session.getCluster().getMetadata().getKeyspace(usingKeyspace.toLowerCase());
+		}
+		return keyspaceMetadata;
+	}
+	
+	private TableMetadata getTableMetadata(CasserEntity entity) {
+		return getKeyspaceMetadata().getTable(entity.getName().getName());
+		
+	}
+
+	private UserType getUserType(CasserEntity entity) {
+		return getKeyspaceMetadata().getUserType(entity.getName().getName());
+	}
+}
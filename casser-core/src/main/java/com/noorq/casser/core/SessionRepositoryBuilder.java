@@ -129,9 +129,7 @@ public final class SessionRepositoryBuilder {
 					
 					CasserEntity addedUserType = add(udtClass, OPTIONAL_UDT);
 					
-					if (CasserEntityType.UDT == prop.getEntity().getType()) {
-						userTypeUsesMap.put(prop.getEntity(), addedUserType);
-					}
+					userTypeUsesMap.put(prop.getEntity(), addedUserType);
 					
 				}
 				
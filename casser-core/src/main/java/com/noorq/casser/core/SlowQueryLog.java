@@ -0,0 +1,324 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Statement;
+import com.noorq.casser.core.metrics.LatencyHistogram;
+
+/**
+ *  Slow query log.
+ *  
+ *  Statements over the latency threshold are written asynchronously to the log, 
+ *  a sample of all statements is aggregated by the statement shape, literals replaced 
+ *  by '?', to find the shapes with the most total time and the worst p99 within 
+ *  a rolling window, the current and the previous window are kept, so the top shapes 
+ *  cover the last one to two windows.
+ *
+ */
+
+public final class SlowQueryLog {
+
+	public static final double DEFAULT_SAMPLE_RATE = 0.01;
+	public static final int DEFAULT_MAX_SHAPES = 1000;
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+	public static final long DEFAULT_WINDOW_MINUTES = 5;
+	
+	private static final Pattern LITERALS = Pattern.compile(
+			"'(?:[^']|'')*'|\\b0x[0-9a-fA-F]+\\b|\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b|(?<![\\w\"])-?\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?\\b");
+	
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	private final long thresholdNanos;
+	private double sampleRate = DEFAULT_SAMPLE_RATE;
+	private int maxShapes = DEFAULT_MAX_SHAPES;
+	private long windowNanos = TimeUnit.MINUTES.toNanos(DEFAULT_WINDOW_MINUTES);
+	private volatile PrintStream printStream = null;
+	
+	private final AsyncLineWriter writer;
+	
+	private volatile ConcurrentMap<String, Shape> shapes = new ConcurrentHashMap<String, Shape>();
+	private volatile ConcurrentMap<String, Shape> previousShapes = new ConcurrentHashMap<String, Shape>();
+	private volatile long windowStartNanos = System.nanoTime();
+	
+	private final AtomicLong slow = new AtomicLong();
+	
+	public SlowQueryLog(long threshold, TimeUnit unit) {
+		this(threshold, unit, DEFAULT_BUFFER_SIZE);
+	}
+	
+	public SlowQueryLog(long threshold, TimeUnit unit, int bufferSize) {
+		
+		if (threshold < 0) {
+			throw new IllegalArgumentException("invalid threshold " + threshold);
+		}
+		
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("invalid bufferSize " + bufferSize);
+		}
+		
+		this.thresholdNanos = unit.toNanos(threshold);
+		this.writer = new AsyncLineWriter("casser-slow-query-log", bufferSize, this::print);
+	}
+	
+	/**
+	 * Fraction of all statements aggregated in the shape table, 0 disables the aggregation 
+	 */
+	
+	public SlowQueryLog sampleRate(double sampleRate) {
+		
+		if (sampleRate < 0.0 || sampleRate > 1.0) {
+			throw new IllegalArgumentException("invalid sampleRate " + sampleRate);
+		}
+		
+		this.sampleRate = sampleRate;
+		return this;
+	}
+	
+	public SlowQueryLog maxShapes(int maxShapes) {
+		
+		if (maxShapes <= 0) {
+			throw new IllegalArgumentException("invalid maxShapes " + maxShapes);
+		}
+		
+		this.maxShapes = maxShapes;
+		return this;
+	}
+	
+	public SlowQueryLog window(long window, TimeUnit unit) {
+		
+		if (window <= 0) {
+			throw new IllegalArgumentException("invalid window " + window);
+		}
+		
+		this.windowNanos = unit.toNanos(window);
+		return this;
+	}
+	
+	/**
+	 * Slow queries are written to the logger and in addition to the given stream 
+	 */
+	
+	public SlowQueryLog printTo(PrintStream printStream) {
+		this.printStream = printStream;
+		return this;
+	}
+	
+	public void record(Statement statement, long elapsedNanos) {
+		
+		boolean isSlow = elapsedNanos >= thresholdNanos;
+		boolean isSampled = sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+		
+		if (!isSlow && !isSampled) {
+			return;
+		}
+		
+		String cql = cqlOf(statement);
+		
+		if (isSlow) {
+			slow.incrementAndGet();
+			writer.write("slow query " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms: " + cql);
+		}
+		
+		if (isSampled) {
+			
+			Shape shape = shapeOf(LITERALS.matcher(cql).replaceAll("?"));
+			
+			if (shape != null) {
+				shape.record(elapsedNanos);
+			}
+		}
+		
+	}
+	
+	private Shape shapeOf(String cql) {
+		
+		long now = System.nanoTime();
+		
+		if (now - windowStartNanos > windowNanos) {
+			synchronized (this) {
+				if (now - windowStartNanos > windowNanos) {
+					previousShapes = now - windowStartNanos > 2 * windowNanos 
+							? new ConcurrentHashMap<String, Shape>() : shapes;
+					shapes = new ConcurrentHashMap<String, Shape>();
+					windowStartNanos = now;
+				}
+			}
+		}
+		
+		ConcurrentMap<String, Shape> current = shapes;
+		Shape shape = current.get(cql);
+		
+		if (shape == null) {
+			
+			if (current.size() >= maxShapes) {
+				return null;
+			}
+			
+			shape = new Shape(cql);
+			Shape existing = current.putIfAbsent(cql, shape);
+			if (existing != null) {
+				shape = existing;
+			}
+		}
+		
+		return shape;
+	}
+	
+	public List<Shape> topByTotalTime(int n) {
+		return top(n, Comparator.comparingLong(Shape::getTotalNanos));
+	}
+	
+	public List<Shape> topByP99(int n) {
+		return top(n, Comparator.comparingLong(Shape::getP99Nanos));
+	}
+	
+	private List<Shape> top(int n, Comparator<Shape> comparator) {
+		
+		Map<String, Shape> merged = new HashMap<String, Shape>();
+		
+		for (Map<String, Shape> window : Arrays.asList(previousShapes, shapes)) {
+			for (Shape shape : window.values()) {
+				merged.computeIfAbsent(shape.getCql(), Shape::new).add(shape);
+			}
+		}
+		
+		return merged.values()
+				.stream()
+				.sorted(comparator.reversed())
+				.limit(n)
+				.collect(Collectors.toList());
+	}
+	
+	public long getThresholdMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+	}
+	
+	public long getSlowCount() {
+		return slow.get();
+	}
+	
+	public long getDroppedCount() {
+		return writer.getDroppedCount();
+	}
+	
+	public void reset() {
+		previousShapes = new ConcurrentHashMap<String, Shape>();
+		shapes = new ConcurrentHashMap<String, Shape>();
+		windowStartNanos = System.nanoTime();
+		slow.set(0);
+	}
+	
+	public void close() {
+		writer.close();
+	}
+	
+	private void print(String line) {
+		
+		logger.warn(line);
+		
+		PrintStream out = printStream;
+		if (out != null) {
+			out.println(line);
+		}
+	}
+	
+	private static String cqlOf(Statement statement) {
+		
+		if (statement instanceof BoundStatement) {
+			return ((BoundStatement) statement).preparedStatement().getQueryString();
+		}
+		
+		if (statement instanceof RegularStatement) {
+			return ((RegularStatement) statement).getQueryString();
+		}
+		
+		if (statement instanceof BatchStatement) {
+			BatchStatement batch = (BatchStatement) statement;
+			return "BATCH " + batch.size() + " " + batch.getStatements().stream()
+					.map(SlowQueryLog::cqlOf)
+					.distinct()
+					.collect(Collectors.joining("; "));
+		}
+		
+		return statement.toString();
+	}
+	
+	public static final class Shape {
+		
+		private final String cql;
+		private final LatencyHistogram histogram = new LatencyHistogram();
+		private final AtomicLong totalNanos = new AtomicLong();
+		
+		Shape(String cql) {
+			this.cql = cql;
+		}
+		
+		void record(long elapsedNanos) {
+			histogram.record(elapsedNanos);
+			totalNanos.addAndGet(elapsedNanos);
+		}
+		
+		void add(Shape other) {
+			histogram.add(other.histogram);
+			totalNanos.addAndGet(other.totalNanos.get());
+		}
+
+		public String getCql() {
+			return cql;
+		}
+		
+		public long getCount() {
+			return histogram.getCount();
+		}
+		
+		public long getTotalNanos() {
+			return totalNanos.get();
+		}
+		
+		public long getP99Nanos() {
+			return histogram.getValueAtQuantile(0.99);
+		}
+
+		@Override
+		public String toString() {
+			return "Shape [cql=" + cql + ", count=" + getCount() 
+					+ ", totalMillis=" + TimeUnit.NANOSECONDS.toMillis(getTotalNanos()) 
+					+ ", p99Millis=" + TimeUnit.NANOSECONDS.toMillis(getP99Nanos()) + "]";
+		}
+		
+	}
+	
+}
@@ -0,0 +1,171 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.noorq.casser.mapping.CasserEntity;
+
+/**
+ *  Registry of the operation statistics of the session keyed by operation type and entity.
+ *  
+ *  When JMX is enabled every statistics is registered as MXBean
+ *  com.noorq.casser:type=Operation,session=...,operation=...,entity=...
+ *
+ */
+
+public final class CasserMetrics {
+
+	public static final String JMX_DOMAIN = "com.noorq.casser";
+	
+	private static final String NO_ENTITY = "none";
+	
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	private final ConcurrentMap<String, ConcurrentMap<String, OperationStats>> registry = new ConcurrentHashMap<String, ConcurrentMap<String, OperationStats>>();
+	
+	private volatile String jmxSession = null;
+	
+	public OperationStats stats(String operation, CasserEntity entity) {
+		
+		String entityName = entity != null ? entity.getName().getName() : NO_ENTITY;
+		
+		ConcurrentMap<String, OperationStats> byEntity = registry.get(operation);
+		
+		if (byEntity == null) {
+			byEntity = new ConcurrentHashMap<String, OperationStats>();
+			ConcurrentMap<String, OperationStats> existing = registry.putIfAbsent(operation, byEntity);
+			if (existing != null) {
+				byEntity = existing;
+			}
+		}
+		
+		OperationStats stats = byEntity.get(entityName);
+		
+		if (stats == null) {
+			stats = new OperationStats(operation, entityName);
+			OperationStats existing = byEntity.putIfAbsent(entityName, stats);
+			if (existing != null) {
+				stats = existing;
+			}
+			else {
+				register(stats);
+			}
+		}
+		
+		return stats;
+	}
+	
+	public Optional<OperationStats> get(String operation, String entityName) {
+		
+		ConcurrentMap<String, OperationStats> byEntity = registry.get(operation);
+		
+		if (byEntity == null) {
+			return Optional.empty();
+		}
+		
+		return Optional.ofNullable(byEntity.get(entityName));
+	}
+	
+	public List<OperationStats> getAll() {
+		List<OperationStats> list = new ArrayList<OperationStats>();
+		registry.values().forEach(m -> list.addAll(m.values()));
+		return list;
+	}
+	
+	public void reset() {
+		getAll().forEach(OperationStats::reset);
+	}
+	
+	public synchronized void registerJmx(String sessionName) {
+		
+		if (jmxSession != null) {
+			unregisterJmx();
+		}
+		
+		jmxSession = sessionName;
+		getAll().forEach(this::register);
+	}
+	
+	public synchronized void unregisterJmx() {
+		
+		String sessionName = jmxSession;
+		
+		if (sessionName == null) {
+			return;
+		}
+		
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		
+		for (OperationStats stats : getAll()) {
+			try {
+				ObjectName name = objectName(sessionName, stats);
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
+				}
+			}
+			catch(Exception e) {
+				logger.warn("fail to unregister MBean for " + stats, e);
+			}
+		}
+		
+		jmxSession = null;
+	}
+	
+	private void register(OperationStats stats) {
+		
+		String sessionName = jmxSession;
+		
+		if (sessionName == null) {
+			return;
+		}
+		
+		try {
+			ObjectName name = objectName(sessionName, stats);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (!server.isRegistered(name)) {
+				server.registerMBean(stats, name);
+			}
+		}
+		catch(Exception e) {
+			logger.warn("fail to register MBean for " + stats, e);
+		}
+	}
+	
+	private static ObjectName objectName(String sessionName, OperationStats stats) throws Exception {
+		return new ObjectName(JMX_DOMAIN + ":type=Operation"
+				+ ",session=" + ObjectName.quote(sessionName)
+				+ ",operation=" + ObjectName.quote(stats.getOperation())
+				+ ",entity=" + ObjectName.quote(stats.getEntity()));
+	}
+	
+	@Override
+	public String toString() {
+		return "CasserMetrics " + getAll();
+	}
+	
+}
@@ -0,0 +1,162 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  Lock-free log-linear histogram of nanosecond values.
+ *
+ *  Every power of two is divided into 8 linear sub-buckets, so the recorded
+ *  values are kept with the relative error below 12.5%
+ *
+ */
+
+public final class LatencyHistogram {
+
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long value) {
+
+		if (value < 0) {
+			value = 0;
+		}
+
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0.0 : (double) sum.get() / n;
+	}
+
+	/**
+	 * Returns the upper bound of the bucket that contains the given quantile, 0 if the histogram is empty
+	 */
+
+	public long getValueAtQuantile(double quantile) {
+
+		if (quantile < 0.0 || quantile > 1.0) {
+			throw new IllegalArgumentException("invalid quantile " + quantile);
+		}
+
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i != BUCKETS; ++i) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		long target = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+
+		for (int i = 0; i != BUCKETS; ++i) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+
+		return max.get();
+	}
+
+	public double getValueAtQuantile(double quantile, TimeUnit unit) {
+		return (double) getValueAtQuantile(quantile) / unit.toNanos(1);
+	}
+
+	/**
+	 * Adds the recorded values of the other histogram to this one
+	 */
+
+	public void add(LatencyHistogram other) {
+
+		for (int i = 0; i != BUCKETS; ++i) {
+			long n = other.counts.get(i);
+			if (n != 0) {
+				counts.addAndGet(i, n);
+			}
+		}
+
+		count.addAndGet(other.count.get());
+		sum.addAndGet(other.sum.get());
+
+		long value = other.max.get();
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	public void reset() {
+		for (int i = 0; i != BUCKETS; ++i) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	static int indexOf(long value) {
+
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		int sub = (int) (value >>> shift) - SUB_BUCKETS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+	}
+
+	static long upperBoundOf(int index) {
+
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Timings of the single operation type on the single entity. 
+ *  
+ *  Build time covers the statement construction or binding, execution time is measured 
+ *  from the submit to the response of the first page, mapping time is measured per row.  
+ *
+ */
+
+public final class OperationStats implements OperationStatsMXBean {
+
+	private final String operation;
+	private final String entity;
+	
+	private final LatencyHistogram build = new LatencyHistogram();
+	private final LatencyHistogram execution = new LatencyHistogram();
+	private final LatencyHistogram mapping = new LatencyHistogram();
+	
+	private final AtomicLong errors = new AtomicLong();
+	private final AtomicLong rows = new AtomicLong();
+	
+	OperationStats(String operation, String entity) {
+		this.operation = operation;
+		this.entity = entity;
+	}
+	
+	public void recordBuild(long nanos) {
+		build.record(nanos);
+	}
+	
+	public void recordExecution(long nanos) {
+		execution.record(nanos);
+	}
+	
+	public void recordError(long nanos) {
+		execution.record(nanos);
+		errors.incrementAndGet();
+	}
+	
+	public void recordMapping(long nanos) {
+		mapping.record(nanos);
+		rows.incrementAndGet();
+	}
+	
+	public void recordRows(long count) {
+		rows.addAndGet(count);
+	}
+	
+	@Override
+	public String getOperation() {
+		return operation;
+	}
+
+	@Override
+	public String getEntity() {
+		return entity;
+	}
+
+	public LatencyHistogram getBuildHistogram() {
+		return build;
+	}
+
+	public LatencyHistogram getExecutionHistogram() {
+		return execution;
+	}
+
+	public LatencyHistogram getMappingHistogram() {
+		return mapping;
+	}
+
+	@Override
+	public long getCount() {
+		return execution.getCount();
+	}
+
+	@Override
+	public long getErrors() {
+		return errors.get();
+	}
+
+	@Override
+	public long getRows() {
+		return rows.get();
+	}
+
+	@Override
+	public double getBuildMeanMicros() {
+		return build.getMean() / 1000.0;
+	}
+
+	@Override
+	public double getBuildP99Micros() {
+		return build.getValueAtQuantile(0.99, TimeUnit.MICROSECONDS);
+	}
+
+	@Override
+	public double getExecutionMeanMicros() {
+		return execution.getMean() / 1000.0;
+	}
+
+	@Override
+	public double getExecutionP50Micros() {
+		return execution.getValueAtQuantile(0.5, TimeUnit.MICROSECONDS);
+	}
+
+	@Override
+	public double getExecutionP99Micros() {
+		return execution.getValueAtQuantile(0.99, TimeUnit.MICROSECONDS);
+	}
+
+	@Override
+	public double getExecutionP999Micros() {
+		return execution.getValueAtQuantile(0.999, TimeUnit.MICROSECONDS);
+	}
+
+	@Override
+	public double getExecutionMaxMicros() {
+		return execution.getMax() / 1000.0;
+	}
+
+	@Override
+	public double getMappingMeanMicros() {
+		return mapping.getMean() / 1000.0;
+	}
+
+	@Override
+	public double getMappingP99Micros() {
+		return mapping.getValueAtQuantile(0.99, TimeUnit.MICROSECONDS);
+	}
+
+	@Override
+	public void reset() {
+		build.reset();
+		execution.reset();
+		mapping.reset();
+		errors.set(0);
+		rows.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "OperationStats [operation=" + operation + ", entity=" + entity 
+				+ ", count=" + getCount() + ", errors=" + getErrors() + ", rows=" + getRows()
+				+ ", buildP99Micros=" + getBuildP99Micros() 
+				+ ", executionP50Micros=" + getExecutionP50Micros() 
+				+ ", executionP99Micros=" + getExecutionP99Micros()
+				+ ", mappingP99Micros=" + getMappingP99Micros() + "]";
+	}
+	
+}
@@ -0,0 +1,50 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.metrics;
+
+public interface OperationStatsMXBean {
+
+	String getOperation();
+	
+	String getEntity();
+	
+	long getCount();
+	
+	long getErrors();
+	
+	long getRows();
+	
+	double getBuildMeanMicros();
+	
+	double getBuildP99Micros();
+	
+	double getExecutionMeanMicros();
+	
+	double getExecutionP50Micros();
+	
+	double getExecutionP99Micros();
+	
+	double getExecutionP999Micros();
+	
+	double getExecutionMaxMicros();
+	
+	double getMappingMeanMicros();
+	
+	double getMappingP99Micros();
+	
+	void reset();
+	
+}
@@ -60,14 +60,14 @@ public abstract class AbstractOperation<E, O extends AbstractOperation<E, O>> ex
 
 	public E sync() {
 		
-		ResultSet resultSet = sessionOps.executeAsync(options(buildStatement()), showValues).getUninterruptibly();
+		ResultSet resultSet = executeAsync().getUninterruptibly();
 
 		return transform(resultSet);
 	}
 	
 	public ListenableFuture<E> async() {
 
-		ResultSetFuture resultSetFuture = sessionOps.executeAsync(options(buildStatement()), showValues);
+		ResultSetFuture resultSetFuture = executeAsync();
 
 		ListenableFuture<E> future = Futures.transform(resultSetFuture, new Function<ResultSet, E>() {
 
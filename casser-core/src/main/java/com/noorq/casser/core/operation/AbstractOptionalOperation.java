@@ -65,14 +65,14 @@ public abstract class AbstractOptionalOperation<E, O extends AbstractOptionalOpe
 
 	public Optional<E> sync() {
 		
-		ResultSet resultSet = sessionOps.executeAsync(options(buildStatement()), showValues).getUninterruptibly();
+		ResultSet resultSet = executeAsync().getUninterruptibly();
 
 		return transform(resultSet);
 	}
 	
 	public ListenableFuture<Optional<E>> async() {
 		
-		ResultSetFuture resultSetFuture = sessionOps.executeAsync(options(buildStatement()), showValues);
+		ResultSetFuture resultSetFuture = executeAsync();
 
 		ListenableFuture<Optional<E>> future = Futures.transform(resultSetFuture, new Function<ResultSet, Optional<E>>() {
 
@@ -88,7 +88,7 @@ public abstract class AbstractOptionalOperation<E, O extends AbstractOptionalOpe
 
 	public ListenableFuture<Option<E>> asyncForScala() {
 		
-		ResultSetFuture resultSetFuture = sessionOps.executeAsync(options(buildStatement()), showValues);
+		ResultSetFuture resultSetFuture = executeAsync();
 
 		ListenableFuture<Option<E>> future = Futures.transform(resultSetFuture, new Function<ResultSet, Option<E>>() {
 
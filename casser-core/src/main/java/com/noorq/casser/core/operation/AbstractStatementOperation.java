@@ -0,0 +1,531 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import scala.concurrent.Future;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.policies.DefaultRetryPolicy;
+import com.datastax.driver.core.policies.DowngradingConsistencyRetryPolicy;
+import com.datastax.driver.core.policies.FallthroughRetryPolicy;
+import com.datastax.driver.core.policies.RetryPolicy;
+import com.datastax.driver.core.querybuilder.BuiltStatement;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.noorq.casser.core.AbstractSessionOperations;
+import com.noorq.casser.core.HedgingPolicy;
+import com.noorq.casser.core.metrics.CasserMetrics;
+import com.noorq.casser.core.metrics.OperationStats;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.core.PreparedStatementCache;
+import com.noorq.casser.support.CasserException;
+import com.noorq.casser.support.Scala;
+import com.noorq.casser.support.TimeuuidGenerator;
+
+public abstract class AbstractStatementOperation<E, O extends AbstractStatementOperation<E, O>> {
+
+	final Logger logger = LoggerFactory.getLogger(getClass());
+
+	protected final AbstractSessionOperations sessionOps;
+	
+	public abstract Statement buildStatement();
+	
+	protected boolean showValues = true;
+	private ConsistencyLevel consistencyLevel;
+	private ConsistencyLevel serialConsistencyLevel;
+	private RetryPolicy retryPolicy;
+	private boolean enableTracing = false;
+	private long[] defaultTimestamp = null;
+	private int[] fetchSize = null;
+	private boolean[] idempotent = null;
+	
+	public AbstractStatementOperation(AbstractSessionOperations sessionOperations) {
+		this.sessionOps = sessionOperations;
+	}
+	
+	public O showValues(boolean enabled) {
+		this.showValues = enabled;
+		return (O) this;
+	}
+	
+	public O defaultTimestamp(long timestamp) {
+		this.defaultTimestamp = new long[1];
+		this.defaultTimestamp[0] = timestamp;
+		return (O) this;
+	}
+	
+	public O retryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+		return (O) this;
+	}
+
+	public O defaultRetryPolicy() {
+		this.retryPolicy = DefaultRetryPolicy.INSTANCE;
+		return (O) this;
+	}
+
+	public O downgradingConsistencyRetryPolicy() {
+		this.retryPolicy = DowngradingConsistencyRetryPolicy.INSTANCE;
+		return (O) this;
+	}
+
+	public O fallthroughRetryPolicy() {
+		this.retryPolicy = FallthroughRetryPolicy.INSTANCE;
+		return (O) this;
+	}
+
+	public O consistency(ConsistencyLevel level) {
+		this.consistencyLevel = level;
+		return (O) this;
+	}
+
+	public O consistencyAny() {
+		this.consistencyLevel = ConsistencyLevel.ANY;
+		return (O) this;
+	}
+
+	public O consistencyOne() {
+		this.consistencyLevel = ConsistencyLevel.ONE;
+		return (O) this;
+	}
+
+	public O consistencyQuorum() {
+		this.consistencyLevel = ConsistencyLevel.QUORUM;
+		return (O) this;
+	}
+
+	public O consistencyAll() {
+		this.consistencyLevel = ConsistencyLevel.ALL;
+		return (O) this;
+	}
+
+	public O serialConsistency(ConsistencyLevel level) {
+		this.serialConsistencyLevel = level;
+		return (O) this;
+	}
+
+	public O serialConsistencyAny() {
+		this.serialConsistencyLevel = ConsistencyLevel.ANY;
+		return (O) this;
+	}
+
+	public O serialConsistencyOne() {
+		this.serialConsistencyLevel = ConsistencyLevel.ONE;
+		return (O) this;
+	}
+
+	public O serialConsistencyQuorum() {
+		this.serialConsistencyLevel = ConsistencyLevel.QUORUM;
+		return (O) this;
+	}
+
+	public O serialConsistencyAll() {
+		this.serialConsistencyLevel = ConsistencyLevel.ALL;
+		return (O) this;
+	}	
+	
+	public O disableTracing() {
+		this.enableTracing = false;
+		return (O) this;
+	}
+
+	public O enableTracing() {
+		this.enableTracing = true;
+		return (O) this;
+	}
+
+	public O tracing(boolean enable) {
+		this.enableTracing = enable;
+		return (O) this;
+	}
+
+	public O fetchSize(int fetchSize) {
+		this.fetchSize = new int[1];
+		this.fetchSize[0] = fetchSize;
+		return (O) this;
+	}
+	
+	/**
+	 * Overrides the inferred idempotence of the operation
+	 */
+	
+	public O idempotent(boolean enabled) {
+		this.idempotent = new boolean[1];
+		this.idempotent[0] = enabled;
+		return (O) this;
+	}
+	
+	/**
+	 * Returns true if the operation can be applied twice with the same result, so that 
+	 * the timed out statement is safe to retry
+	 */
+	
+	public boolean isIdempotent() {
+		return idempotent != null ? idempotent[0] : inferIdempotent();
+	}
+	
+	protected boolean inferIdempotent() {
+		return false;
+	}
+	
+	/**
+	 * Returns true if the statement has IF conditions
+	 */
+	
+	protected boolean isConditional() {
+		return false;
+	}
+	
+	/**
+	 * Returns true if the statement updates counter columns
+	 */
+	
+	protected boolean isCounter() {
+		return false;
+	}
+	
+	/**
+	 * Takes the options set on the given operation, throws CasserException if this operation 
+	 * has a different value of the same option
+	 */
+	
+	void mergeOptions(AbstractStatementOperation<?, ?> operation) {
+		
+		consistencyLevel = mergeOption("consistency", consistencyLevel, operation.consistencyLevel);
+		serialConsistencyLevel = mergeOption("serialConsistency", serialConsistencyLevel, operation.serialConsistencyLevel);
+		retryPolicy = mergeOption("retryPolicy", retryPolicy, operation.retryPolicy);
+		
+		Long timestamp = mergeOption("defaultTimestamp", 
+				defaultTimestamp != null ? defaultTimestamp[0] : null, 
+				operation.defaultTimestamp != null ? operation.defaultTimestamp[0] : null);
+		
+		if (timestamp != null) {
+			defaultTimestamp(timestamp);
+		}
+		
+		enableTracing |= operation.enableTracing;
+	}
+	
+	private static <T> T mergeOption(String name, T current, T value) {
+		
+		if (value == null) {
+			return current;
+		}
+		
+		if (current != null && !current.equals(value)) {
+			throw new CasserException("conflicting " + name + " " + current + " and " + value);
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Returns true if every execution of the statement has the same write timestamp
+	 */
+	
+	protected boolean isTimestampFixed() {
+		return defaultTimestamp != null || sessionOps.isClientTimestamps();
+	}
+	
+	protected Statement options(Statement statement) {
+		
+		statement = routing(statement);
+		
+		if (defaultTimestamp != null) {
+			statement.setDefaultTimestamp(defaultTimestamp[0]);
+		}
+		else if (sessionOps.isClientTimestamps()) {
+			statement.setDefaultTimestamp(TimeuuidGenerator.INSTANCE.nextTimestampMicros());
+		}
+		
+		if (consistencyLevel != null) {
+			statement.setConsistencyLevel(consistencyLevel);
+		}
+		
+		if (serialConsistencyLevel != null) {
+			statement.setSerialConsistencyLevel(serialConsistencyLevel);
+		}
+		
+		if (retryPolicy != null) {
+			statement.setRetryPolicy(retryPolicy);
+		}
+		else if (isIdempotent()) {
+			
+			RetryPolicy idempotentRetryPolicy = sessionOps.getIdempotentRetryPolicy();
+			
+			if (idempotentRetryPolicy != null) {
+				statement.setRetryPolicy(idempotentRetryPolicy);
+			}
+		}
+		
+		if (enableTracing) {
+			statement.enableTracing();
+		}
+		else {
+			statement.disableTracing();
+		}
+		
+		if (fetchSize != null) {
+			statement.setFetchSize(fetchSize[0]);
+		}
+		
+		return statement;
+	}
+
+	/**
+	 * Applies only the options set on this operation, the statement keeps its routing key and timestamp 
+	 * unless the default timestamp is set
+	 */
+	
+	Statement explicitOptions(Statement statement) {
+		
+		if (defaultTimestamp != null) {
+			statement.setDefaultTimestamp(defaultTimestamp[0]);
+		}
+		
+		if (consistencyLevel != null) {
+			statement.setConsistencyLevel(consistencyLevel);
+		}
+		
+		if (serialConsistencyLevel != null) {
+			statement.setSerialConsistencyLevel(serialConsistencyLevel);
+		}
+		
+		if (retryPolicy != null) {
+			statement.setRetryPolicy(retryPolicy);
+		}
+		
+		if (enableTracing) {
+			statement.enableTracing();
+		}
+		
+		return statement;
+	}
+	
+	/**
+	 * Sets the routing key of the single partition statement, so that the token aware policy 
+	 * sends it to a replica. Statements are built without the table metadata, the built statement 
+	 * is replaced by the simple statement with the same query and values because it has no routing key setter.
+	 */
+	
+	private Statement routing(Statement statement) {
+		
+		if (!(statement instanceof RegularStatement) || statement.getRoutingKey() != null) {
+			return statement;
+		}
+		
+		PartitionKey partitionKey = partitionKey();
+		ByteBuffer[] routingKey = partitionKey != null ? partitionKey.getRoutingKey() : null;
+		
+		if (routingKey == null) {
+			return statement;
+		}
+		
+		if (statement instanceof SimpleStatement) {
+			return setRoutingKey((SimpleStatement) statement, routingKey);
+		}
+		
+		RegularStatement regularStatement = (RegularStatement) statement;
+		
+		if (showValues && sessionOps.isShowCql() && regularStatement instanceof BuiltStatement) {
+			// printed with the values inlined
+			regularStatement = ((BuiltStatement) regularStatement).setForceNoValues(true);
+		}
+		
+		ByteBuffer[] values = regularStatement.getValues(sessionOps.getProtocolVersion());
+		
+		SimpleStatement routed = values != null 
+				? new SimpleStatement(regularStatement.getQueryString(), (Object[]) values)
+				: new SimpleStatement(regularStatement.getQueryString());
+		
+		routed.setKeyspace(sessionOps.usingKeyspace());
+		return setRoutingKey(routed, routingKey);
+	}
+	
+	private static SimpleStatement setRoutingKey(SimpleStatement statement, ByteBuffer[] routingKey) {
+		
+		// the key of the single column is not composed
+		
+		if (routingKey.length == 1) {
+			return statement.setRoutingKey(routingKey[0]);
+		}
+		
+		return statement.setRoutingKey(routingKey);
+	}
+	
+	/**
+	 * Adds the normalized shape of the statement and the values in the order of 
+	 * bind markers in the template, returns false if the operation has no stable shape 
+	 */
+	
+	protected boolean collectShape(StatementShape shape) {
+		return false;
+	}
+	
+	protected RegularStatement buildTemplate() {
+		throw new CasserException("statement template is not supported in " + getClass().getSimpleName());
+	}
+	
+	/**
+	 * Returns the partition key values if the operation targets the single partition 
+	 */
+	
+	protected PartitionKey partitionKey() {
+		return null;
+	}
+	
+	/**
+	 * Returns the hedging policy if the operation is an idempotent read 
+	 */
+	
+	protected HedgingPolicy hedgingPolicy() {
+		return null;
+	}
+	
+	/**
+	 * Operation type and entity of the operation in metrics 
+	 */
+	
+	protected String metricsName() {
+		return "statement";
+	}
+	
+	protected CasserEntity metricsEntity() {
+		return null;
+	}
+	
+	protected OperationStats stats() {
+		CasserMetrics metrics = sessionOps.getMetrics();
+		return metrics != null ? metrics.stats(metricsName(), metricsEntity()) : null;
+	}
+	
+	protected ResultSetFuture executeAsync() {
+		
+		long startNanos = System.nanoTime();
+		
+		Statement statement = options(resolveStatement());
+		HedgingPolicy policy = hedgingPolicy();
+		
+		long submitNanos = System.nanoTime();
+		
+		OperationStats stats = stats();
+		
+		if (stats != null) {
+			stats.recordBuild(submitNanos - startNanos);
+		}
+		
+		ResultSetFuture future;
+		
+		if (policy != null) {
+			future = HedgedResultSetFuture.execute(() -> sessionOps.executeAsync(statement, showValues, stats), policy);
+		}
+		else {
+			future = sessionOps.executeAsync(statement, showValues, stats);
+		}
+		
+		return future;
+	}
+	
+	protected Statement resolveStatement() {
+		
+		PreparedStatementCache statementCache = sessionOps.getStatementCache();
+		
+		if (statementCache != null) {
+			
+			StatementShape shape = new StatementShape();
+			
+			if (collectShape(shape) && shape.isBindable()) {
+				
+				Statement boundStatement = statementCache.bind(shape.getKey(), shape.getValues(), () -> buildTemplate());
+				
+				if (boundStatement != null) {
+					return boundStatement;
+				}
+			}
+			
+		}
+		
+		return buildStatement();
+	}
+
+	public Statement statement() {
+		return buildStatement();
+	}
+	
+	/**
+	 * Returns the statement as it is executed, with the options and the routing key of the operation
+	 */
+	
+	public Statement executableStatement() {
+		return options(resolveStatement());
+	}
+	
+	public String cql() {
+		Statement statement = buildStatement(); 
+		if (statement instanceof BuiltStatement) {
+			BuiltStatement buildStatement = (BuiltStatement) statement;
+			return buildStatement.setForceNoValues(true).getQueryString();
+		}
+		else {
+			return statement.toString();
+		}
+	}
+	
+	public PreparedStatement prepareStatement() {
+		
+		Statement statement = buildStatement();
+		
+		if (statement instanceof RegularStatement) {
+			
+			RegularStatement regularStatement = (RegularStatement) statement;
+			
+			
+			
+			return sessionOps.prepare(regularStatement);
+		}
+		
+		throw new CasserException("only RegularStatements can be prepared");
+	}
+
+	public ListenableFuture<PreparedStatement> prepareStatementAsync() {
+		
+		Statement statement = buildStatement();
+		
+		if (statement instanceof RegularStatement) {
+			
+			RegularStatement regularStatement = (RegularStatement) statement;
+			
+			return sessionOps.prepareAsync(regularStatement);
+			
+		}
+		
+		throw new CasserException("only RegularStatements can be prepared");
+	}
+	
+	public Future<PreparedStatement> prepareStatementFuture() {
+		return Scala.asFuture(prepareStatementAsync());
+	}
+
+}
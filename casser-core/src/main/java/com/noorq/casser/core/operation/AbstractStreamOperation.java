@@ -17,6 +17,8 @@ package com.noorq.casser.core.operation;
 
 import java.util.stream.Stream;
 
+import org.reactivestreams.Publisher;
+
 import scala.concurrent.Future;
 
 import com.datastax.driver.core.PreparedStatement;
@@ -62,14 +64,14 @@ public abstract class AbstractStreamOperation<E, O extends AbstractStreamOperati
 
 	public Stream<E> sync() {
 		
-		ResultSet resultSet = sessionOps.executeAsync(options(buildStatement()), showValues).getUninterruptibly();
+		ResultSet resultSet = executeAsync().getUninterruptibly();
 
 		return transform(resultSet);
 	}
 	
 	public ListenableFuture<Stream<E>> async() {
 		
-		ResultSetFuture resultSetFuture = sessionOps.executeAsync(options(buildStatement()), showValues);
+		ResultSetFuture resultSetFuture = executeAsync();
 
 		ListenableFuture<Stream<E>> future = Futures.transform(resultSetFuture, new Function<ResultSet, Stream<E>>() {
 
@@ -83,9 +85,13 @@ public abstract class AbstractStreamOperation<E, O extends AbstractStreamOperati
 		return future;
 	}
 	
+	public Publisher<E> publisher() {
+		return new StreamPublisher<E>(this);
+	}
+	
 	public ListenableFuture<scala.collection.immutable.Stream<E>> asyncForScala() {
 		
-		ResultSetFuture resultSetFuture = sessionOps.executeAsync(options(buildStatement()), showValues);
+		ResultSetFuture resultSetFuture = executeAsync();
 
 		ListenableFuture<scala.collection.immutable.Stream<E>> future = Futures.transform(resultSetFuture, new Function<ResultSet, scala.collection.immutable.Stream<E>>() {
 
@@ -0,0 +1,348 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import scala.concurrent.Future;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.noorq.casser.core.AbstractSessionOperations;
+import com.noorq.casser.core.metrics.OperationStats;
+import com.noorq.casser.support.Scala;
+
+/**
+ *  Batch of insert, update and delete operations
+ *  
+ *  Mutations of the same partition go out as UNLOGGED batches, mutations of 
+ *  different partitions are executed in parallel or, in logged mode, 
+ *  as the single LOGGED batch. Unlogged and counter batches bigger than 
+ *  maxBatchSize bytes are split, conditional mutations are executed one by one.
+ *  
+ *  Options of the operations are merged into the options of the batch, 
+ *  different values of the same option are rejected.
+ *
+ */
+
+public final class BatchOperation extends AbstractStatementOperation<List<ResultSet>, BatchOperation> {
+
+	public static final int DEFAULT_MAX_BATCH_SIZE = 5 * 1024;
+	
+	private final List<AbstractOperation<ResultSet, ?>> operations = new ArrayList<AbstractOperation<ResultSet, ?>>();
+	
+	private boolean logged = false;
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+	
+	public BatchOperation(AbstractSessionOperations sessionOperations) {
+		super(sessionOperations);
+	}
+	
+	@SafeVarargs
+	public final BatchOperation add(AbstractOperation<ResultSet, ?>... operations) {
+		Objects.requireNonNull(operations, "operations is empty");
+		for (int i = 0; i != operations.length; ++i) {
+			this.operations.add(Objects.requireNonNull(operations[i], "operation " + i + " is empty"));
+		}
+		return this;
+	}
+
+	public BatchOperation addAll(Iterable<? extends AbstractOperation<ResultSet, ?>> operations) {
+		Objects.requireNonNull(operations, "operations is empty");
+		operations.forEach(o -> this.operations.add(Objects.requireNonNull(o, "operation is empty")));
+		return this;
+	}
+	
+	public BatchOperation logged() {
+		this.logged = true;
+		return this;
+	}
+	
+	public BatchOperation logged(boolean enabled) {
+		this.logged = enabled;
+		return this;
+	}
+	
+	public BatchOperation maxBatchSize(int bytes) {
+		if (bytes <= 0) {
+			throw new IllegalArgumentException("invalid maxBatchSize " + bytes);
+		}
+		this.maxBatchSize = bytes;
+		return this;
+	}
+	
+	public int size() {
+		return operations.size();
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return !operations.isEmpty() && operations.stream().allMatch(o -> o.isIdempotent());
+	}
+	
+	@Override
+	protected String metricsName() {
+		return "batch";
+	}
+	
+	@Override
+	public Statement buildStatement() {
+		
+		BatchStatement batch = new BatchStatement(logged ? BatchStatement.Type.LOGGED : BatchStatement.Type.UNLOGGED);
+		
+		for (AbstractOperation<ResultSet, ?> operation : operations) {
+			batch.add(operation.buildStatement());
+		}
+		
+		return batch;
+	}
+
+	/**
+	 * Builds the statements to execute with the options of every operation and the options 
+	 * set on the batch applied.
+	 * Conditional mutations are executed one by one, counter mutations are grouped 
+	 * in COUNTER batches per partition.
+	 */
+	
+	public List<Statement> buildStatements() {
+		
+		Map<PartitionKey, List<Statement>> partitions = new LinkedHashMap<PartitionKey, List<Statement>>();
+		Map<PartitionKey, List<Statement>> counters = new LinkedHashMap<PartitionKey, List<Statement>>();
+		List<Statement> others = new ArrayList<Statement>();
+		List<Statement> result = new ArrayList<Statement>();
+		
+		for (AbstractOperation<ResultSet, ?> operation : operations) {
+			
+			Statement statement = explicitOptions(operation.options(operation.resolveStatement()));
+			PartitionKey key = operation.partitionKey();
+			
+			if (operation.isConditional() || (operation.isCounter() && key == null)) {
+				result.add(statement);
+			}
+			else if (operation.isCounter()) {
+				group(counters, key, statement);
+			}
+			else if (key != null) {
+				group(partitions, key, statement);
+			}
+			else {
+				others.add(statement);
+			}
+			
+		}
+		
+		List<Statement> loggedStatements = new ArrayList<Statement>();
+		
+		for (List<Statement> statements : partitions.values()) {
+			
+			if (logged) {
+				loggedStatements.addAll(statements);
+			}
+			else {
+				split(statements, BatchStatement.Type.UNLOGGED, result);
+			}
+		}
+		
+		for (List<Statement> statements : counters.values()) {
+			split(statements, BatchStatement.Type.COUNTER, result);
+		}
+		
+		if (logged) {
+			loggedStatements.addAll(others);
+			if (!loggedStatements.isEmpty()) {
+				result.add(toLoggedBatch(loggedStatements));
+			}
+		}
+		else {
+			result.addAll(others);
+		}
+		
+		return result;
+	}
+	
+	private static void group(Map<PartitionKey, List<Statement>> partitions, PartitionKey key, Statement statement) {
+		
+		List<Statement> list = partitions.get(key);
+		if (list == null) {
+			list = new ArrayList<Statement>();
+			partitions.put(key, list);
+		}
+		list.add(statement);
+	}
+	
+	public List<ResultSet> sync() {
+		
+		List<ResultSetFuture> futures = executeAll();
+		
+		List<ResultSet> resultSets = new ArrayList<ResultSet>(futures.size());
+		for (ResultSetFuture future : futures) {
+			resultSets.add(future.getUninterruptibly());
+		}
+		
+		return resultSets;
+	}
+	
+	public ListenableFuture<List<ResultSet>> async() {
+		return Futures.allAsList(executeAll());
+	}
+	
+	public Future<List<ResultSet>> future() {
+		return Scala.asFuture(async());
+	}
+	
+	private List<ResultSetFuture> executeAll() {
+		
+		if (operations.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		long startNanos = System.nanoTime();
+		
+		BatchOperation batchOptions = new BatchOperation(sessionOps);
+		batchOptions.mergeOptions(this);
+		operations.forEach(batchOptions::mergeOptions);
+		batchOptions.idempotent(isIdempotent());
+		
+		List<Statement> statements = buildStatements();
+		List<ResultSetFuture> futures = new ArrayList<ResultSetFuture>(statements.size());
+		
+		OperationStats stats = stats();
+		
+		if (stats != null) {
+			stats.recordBuild(System.nanoTime() - startNanos);
+		}
+		
+		for (Statement statement : statements) {
+			
+			// the statements are ready, only the batches take the merged options
+			if (statement instanceof BatchStatement) {
+				statement = batchOptions.options(statement);
+			}
+			
+			futures.add(sessionOps.executeAsync(statement, showValues, stats));
+		}
+		
+		return futures;
+	}
+	
+	private void split(List<Statement> statements, BatchStatement.Type type, List<Statement> result) {
+		
+		if (statements.size() == 1) {
+			result.add(statements.get(0));
+			return;
+		}
+		
+		List<Statement> chunk = new ArrayList<Statement>();
+		int chunkSize = 0;
+		
+		for (Statement statement : statements) {
+			
+			int size = estimateSize(statement);
+			
+			if (!chunk.isEmpty() && chunkSize + size > maxBatchSize) {
+				result.add(toBatch(chunk, type));
+				chunk = new ArrayList<Statement>();
+				chunkSize = 0;
+			}
+			
+			chunk.add(statement);
+			chunkSize += size;
+		}
+		
+		if (!chunk.isEmpty()) {
+			result.add(toBatch(chunk, type));
+		}
+		
+	}
+	
+	/**
+	 * Logged batch is never split to keep it atomic
+	 */
+	
+	private Statement toLoggedBatch(List<Statement> statements) {
+		
+		int size = 0;
+		for (Statement statement : statements) {
+			size += estimateSize(statement);
+		}
+		
+		if (size > maxBatchSize) {
+			logger.warn("logged batch of {} statements has {} bytes that is above maxBatchSize {}", statements.size(), size, maxBatchSize);
+		}
+		
+		return toBatch(statements, BatchStatement.Type.LOGGED);
+	}
+	
+	private static Statement toBatch(List<Statement> chunk, BatchStatement.Type type) {
+		
+		if (chunk.size() == 1) {
+			return chunk.get(0);
+		}
+		
+		BatchStatement batch = new BatchStatement(type);
+		for (Statement statement : chunk) {
+			batch.add(statement);
+		}
+		return batch;
+	}
+	
+	private int estimateSize(Statement statement) {
+		
+		if (statement instanceof BoundStatement) {
+			
+			BoundStatement boundStatement = (BoundStatement) statement;
+			int size = 16;
+			
+			int len = boundStatement.preparedStatement().getVariables().size();
+			for (int i = 0; i != len; ++i) {
+				ByteBuffer bytes = boundStatement.getBytesUnsafe(i);
+				size += 4 + (bytes != null ? bytes.remaining() : 0);
+			}
+			
+			return size;
+		}
+		
+		if (statement instanceof RegularStatement) {
+			
+			RegularStatement regularStatement = (RegularStatement) statement;
+			int size = regularStatement.getQueryString().length();
+			
+			ByteBuffer[] values = regularStatement.getValues(sessionOps.getProtocolVersion());
+			if (values != null) {
+				for (ByteBuffer bytes : values) {
+					size += 4 + (bytes != null ? bytes.remaining() : 0);
+				}
+			}
+			
+			return size;
+		}
+		
+		return 0;
+	}
+
+}
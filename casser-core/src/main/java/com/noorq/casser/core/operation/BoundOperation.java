@@ -18,6 +18,7 @@ package com.noorq.casser.core.operation;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Statement;
+import com.noorq.casser.mapping.CasserEntity;
 
 public final class BoundOperation<E> extends AbstractOperation<E, BoundOperation<E>> {
 
@@ -35,6 +36,31 @@ public final class BoundOperation<E> extends AbstractOperation<E, BoundOperation
 		return delegate.transform(resultSet);
 	}
 	
+	@Override
+	protected String metricsName() {
+		return delegate.metricsName();
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return delegate.metricsEntity();
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return delegate.isIdempotent();
+	}
+	
+	@Override
+	protected boolean isConditional() {
+		return delegate.isConditional();
+	}
+	
+	@Override
+	protected boolean isCounter() {
+		return delegate.isCounter();
+	}
+	
 	@Override
 	public Statement buildStatement() {
 		return boundStatement;
@@ -20,6 +20,7 @@ import java.util.Optional;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Statement;
+import com.noorq.casser.mapping.CasserEntity;
 
 public final class BoundOptionalOperation<E> extends AbstractOptionalOperation<E, BoundOptionalOperation<E>> {
 
@@ -37,6 +38,21 @@ public final class BoundOptionalOperation<E> extends AbstractOptionalOperation<E
 		return delegate.transform(resultSet);
 	}
 
+	@Override
+	protected String metricsName() {
+		return delegate.metricsName();
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return delegate.metricsEntity();
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return delegate.isIdempotent();
+	}
+	
 	@Override
 	public Statement buildStatement() {
 		return boundStatement;
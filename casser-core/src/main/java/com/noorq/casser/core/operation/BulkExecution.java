@@ -0,0 +1,233 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.noorq.casser.support.Fun;
+
+/**
+ *  Executes a stream of operations keeping at most maxInFlight statements outstanding.
+ *  
+ *  Failures are collected and do not stop the pipeline, counters can be read 
+ *  from other threads while the execution is running.
+ *
+ */
+
+public final class BulkExecution {
+
+	public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+	
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	private final int maxInFlight;
+	private final Semaphore window;
+	
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong succeeded = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	private final Queue<Fun.Tuple2<AbstractOperation<?, ?>, Throwable>> failures = new ConcurrentLinkedQueue<Fun.Tuple2<AbstractOperation<?, ?>, Throwable>>();
+	
+	private long progressEvery = 0;
+	private Consumer<BulkExecution> progressListener = null;
+	
+	private volatile long startNanos = 0;
+	private volatile long endNanos = 0;
+	
+	public BulkExecution(int maxInFlight) {
+		
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("invalid maxInFlight " + maxInFlight);
+		}
+		
+		this.maxInFlight = maxInFlight;
+		this.window = new Semaphore(maxInFlight);
+	}
+	
+	public BulkExecution onProgress(long every, Consumer<BulkExecution> listener) {
+		
+		if (every <= 0) {
+			throw new IllegalArgumentException("invalid progress interval " + every);
+		}
+		
+		this.progressEvery = every;
+		this.progressListener = Objects.requireNonNull(listener, "listener is empty");
+		return this;
+	}
+	
+	public BulkExecution execute(Stream<? extends AbstractOperation<?, ?>> operations) {
+		
+		Objects.requireNonNull(operations, "operations is empty");
+		
+		startNanos = System.nanoTime();
+		endNanos = 0;
+		
+		try {
+			operations.forEachOrdered(this::submit);
+		}
+		finally {
+			window.acquireUninterruptibly(maxInFlight);
+			window.release(maxInFlight);
+			endNanos = System.nanoTime();
+		}
+		
+		return this;
+	}
+	
+	private void submit(AbstractOperation<?, ?> operation) {
+		
+		window.acquireUninterruptibly();
+		submitted.incrementAndGet();
+		
+		ResultSetFuture future;
+		try {
+			future = operation.executeAsync();
+		}
+		catch(RuntimeException e) {
+			onFailure(operation, e);
+			return;
+		}
+		
+		Futures.addCallback(future, new FutureCallback<ResultSet>() {
+
+			@Override
+			public void onSuccess(ResultSet result) {
+				succeeded.incrementAndGet();
+				completed();
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				BulkExecution.this.onFailure(operation, t);
+			}
+			
+		}, MoreExecutors.sameThreadExecutor());
+		
+	}
+	
+	private void onFailure(AbstractOperation<?, ?> operation, Throwable t) {
+		failed.incrementAndGet();
+		failures.add(Fun.Tuple2.of(operation, t));
+		completed();
+	}
+	
+	private void completed() {
+		
+		long count = completed.incrementAndGet();
+		
+		Consumer<BulkExecution> listener = progressListener;
+		if (listener != null && count % progressEvery == 0) {
+			try {
+				listener.accept(this);
+			}
+			catch(RuntimeException e) {
+				logger.error("progress listener failed", e);
+			}
+		}
+		
+		window.release();
+	}
+	
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+	
+	public long getSubmitted() {
+		return submitted.get();
+	}
+	
+	public long getSucceeded() {
+		return succeeded.get();
+	}
+	
+	public long getFailed() {
+		return failed.get();
+	}
+	
+	public long getCompleted() {
+		return completed.get();
+	}
+	
+	public long getInFlight() {
+		return submitted.get() - getCompleted();
+	}
+	
+	public List<Fun.Tuple2<AbstractOperation<?, ?>, Throwable>> getFailures() {
+		return new ArrayList<Fun.Tuple2<AbstractOperation<?, ?>, Throwable>>(failures);
+	}
+	
+	public boolean isSuccess() {
+		return failed.get() == 0;
+	}
+	
+	public long getElapsedMillis() {
+		
+		long start = startNanos;
+		
+		if (start == 0) {
+			return 0;
+		}
+		
+		long end = endNanos;
+		
+		if (end == 0) {
+			end = System.nanoTime();
+		}
+		
+		return TimeUnit.NANOSECONDS.toMillis(end - start);
+	}
+	
+	/**
+	 * Completed operations per second 
+	 */
+	
+	public double getThroughput() {
+		
+		long elapsed = getElapsedMillis();
+		
+		if (elapsed == 0) {
+			return 0.0;
+		}
+		
+		return getCompleted() * 1000.0 / elapsed;
+	}
+
+	@Override
+	public String toString() {
+		return "BulkExecution [submitted=" + getSubmitted() + ", succeeded=" + getSucceeded() 
+				+ ", failed=" + getFailed() + ", inFlight=" + getInFlight() 
+				+ ", elapsedMillis=" + getElapsedMillis() + ", throughput=" + String.format("%.1f", getThroughput()) + "]";
+	}
+	
+}
@@ -22,6 +22,7 @@ import com.datastax.driver.core.querybuilder.Select;
 import com.datastax.driver.core.querybuilder.Select.Where;
 import com.noorq.casser.core.AbstractSessionOperations;
 import com.noorq.casser.core.Filter;
+import com.noorq.casser.core.HedgingPolicy;
 import com.noorq.casser.core.reflect.CasserPropertyNode;
 import com.noorq.casser.mapping.CasserEntity;
 import com.noorq.casser.support.CasserMappingException;
@@ -29,6 +30,7 @@ import com.noorq.casser.support.CasserMappingException;
 public final class CountOperation extends AbstractFilterOperation<Long, CountOperation> {
 
 	private CasserEntity entity;
+	private HedgingPolicy hedgingPolicy = null;
 	
 	public CountOperation(AbstractSessionOperations sessionOperations) {
 		super(sessionOperations);
@@ -39,8 +41,69 @@ public final class CountOperation extends AbstractFilterOperation<Long, CountOpe
 		this.entity = entity;
 	}
 
+	public CountOperation hedging(HedgingPolicy hedgingPolicy) {
+		this.hedgingPolicy = hedgingPolicy;
+		return this;
+	}
+	
+	@Override
+	protected HedgingPolicy hedgingPolicy() {
+		return hedgingPolicy != null ? hedgingPolicy : sessionOps.getHedgingPolicy();
+	}
+	
+	@Override
+	protected String metricsName() {
+		return "count";
+	}
+	
+	@Override
+	protected PartitionKey partitionKey() {
+		return PartitionKey.fromFilters(entity, filters, sessionOps.getValuePreparer());
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return entity;
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return true;
+	}
+	
 	@Override
 	public BuiltStatement buildStatement() {
+		return buildCount(false);
+	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return buildCount(true);
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+		
+		if (filters != null && !filters.isEmpty()) {
+			filters.forEach(f -> addPropertyNode(f.getNode()));
+		}
+		
+		if (entity == null) {
+			return false;
+		}
+		
+		shape.add("count").add(entity);
+		
+		if (filters != null && !filters.isEmpty()) {
+			for (Filter<?> filter : filters) {
+				shape.filter(filter, sessionOps.getValuePreparer());
+			}
+		}
+		
+		return true;
+	}
+	
+	private BuiltStatement buildCount(boolean template) {
 		
 		if (filters != null && !filters.isEmpty()) {
 			filters.forEach(f -> addPropertyNode(f.getNode()));
@@ -57,7 +120,7 @@ public final class CountOperation extends AbstractFilterOperation<Long, CountOpe
 			Where where = select.where();
 			
 			for (Filter<?> filter : filters) {
-				where.and(filter.getClause(sessionOps.getValuePreparer()));
+				where.and(template ? filter.getBindClause() : filter.getClause(sessionOps.getValuePreparer()));
 			}
 		}
 		
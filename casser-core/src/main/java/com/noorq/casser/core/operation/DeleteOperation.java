@@ -46,8 +46,94 @@ public final class DeleteOperation extends AbstractFilterOperation<ResultSet, De
 		this.entity = entity;
 	}
 	
+	@Override
+	protected String metricsName() {
+		return "delete";
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return entity;
+	}
+	
 	@Override
 	public BuiltStatement buildStatement() {
+		return buildDelete(false);
+	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return buildDelete(true);
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+
+		if (filters == null || filters.isEmpty()) {
+			return false;
+		}
+		
+		filters.forEach(f -> addPropertyNode(f.getNode()));
+
+		if (entity == null) {
+			return false;
+		}
+		
+		shape.add("delete").add(entity).add(ifExists);
+		
+		shape.add(this.ttl != null).add(this.timestamp != null);
+		
+		if (this.ttl != null) {
+			shape.bind(this.ttl[0]);
+		}
+		if (this.timestamp != null) {
+			shape.bind(this.timestamp[0]);
+		}
+		
+		for (Filter<?> filter : filters) {
+			shape.filter(filter, sessionOps.getValuePreparer());
+		}
+		
+		if (ifFilters != null && !ifFilters.isEmpty()) {
+			
+			shape.add(ifFilters.size());
+			
+			for (Filter<?> filter : ifFilters) {
+				shape.filter(filter, sessionOps.getValuePreparer());
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	protected boolean isConditional() {
+		return ifExists || (ifFilters != null && !ifFilters.isEmpty());
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		
+		if (isConditional()) {
+			return false;
+		}
+		
+		return filters != null && !filters.isEmpty() && (timestamp != null || isTimestampFixed());
+	}
+	
+	@Override
+	protected PartitionKey partitionKey() {
+
+		if (filters == null || filters.isEmpty()) {
+			return null;
+		}
+		
+		filters.forEach(f -> addPropertyNode(f.getNode()));
+		
+		return PartitionKey.fromFilters(entity, filters, sessionOps.getValuePreparer());
+	}
+	
+	private BuiltStatement buildDelete(boolean template) {
 
 		if (filters != null && !filters.isEmpty()) {
 			filters.forEach(f -> addPropertyNode(f.getNode()));
@@ -68,21 +154,21 @@ public final class DeleteOperation extends AbstractFilterOperation<ResultSet, De
 			Where where = delete.where();
 			
 			for (Filter<?> filter : filters) {
-				where.and(filter.getClause(sessionOps.getValuePreparer()));
+				where.and(template ? filter.getBindClause() : filter.getClause(sessionOps.getValuePreparer()));
 			}
 			
 			if (ifFilters != null && !ifFilters.isEmpty()) {
 				
 				for (Filter<?> filter : ifFilters) {
-					delete.onlyIf(filter.getClause(sessionOps.getValuePreparer()));
+					delete.onlyIf(template ? filter.getBindClause() : filter.getClause(sessionOps.getValuePreparer()));
 				}
 			}
 			
 			if (this.ttl != null) {
-				delete.using(QueryBuilder.ttl(this.ttl[0]));
+				delete.using(template ? QueryBuilder.ttl(QueryBuilder.bindMarker()) : QueryBuilder.ttl(this.ttl[0]));
 			}
 			if (this.timestamp != null) {
-				delete.using(QueryBuilder.timestamp(this.timestamp[0]));
+				delete.using(template ? QueryBuilder.timestamp(QueryBuilder.bindMarker()) : QueryBuilder.timestamp(this.timestamp[0]));
 			}
 
 			return delete;
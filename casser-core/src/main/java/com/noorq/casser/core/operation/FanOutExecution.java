@@ -0,0 +1,181 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.noorq.casser.core.AbstractSessionOperations;
+import com.noorq.casser.core.metrics.OperationStats;
+import com.noorq.casser.support.CasserException;
+
+/**
+ *  Executes independent statements keeping at most maxInFlight of them outstanding
+ *  and merges the results in the order of statements or in the order of completion
+ *
+ */
+
+final class FanOutExecution<E> {
+
+	private final AbstractSessionOperations sessionOps;
+	private final List<Statement> statements;
+	private final boolean showValues;
+	private final OperationStats stats;
+	private final Function<ResultSet, Stream<E>> transform;
+
+	private final List<SettableFuture<ResultSet>> results;
+	private final LinkedBlockingQueue<SettableFuture<ResultSet>> completed = new LinkedBlockingQueue<SettableFuture<ResultSet>>();
+	private final AtomicInteger next = new AtomicInteger();
+
+	private volatile boolean cancelled = false;
+
+	FanOutExecution(AbstractSessionOperations sessionOps, List<Statement> statements, boolean showValues,
+			OperationStats stats, Function<ResultSet, Stream<E>> transform) {
+		this.sessionOps = sessionOps;
+		this.statements = statements;
+		this.showValues = showValues;
+		this.stats = stats;
+		this.transform = transform;
+
+		this.results = new ArrayList<SettableFuture<ResultSet>>(statements.size());
+		for (int i = 0; i != statements.size(); ++i) {
+			results.add(SettableFuture.<ResultSet>create());
+		}
+	}
+
+	FanOutExecution<E> start(int maxInFlight) {
+
+		int n = Math.min(maxInFlight, statements.size());
+
+		for (int i = 0; i != n; ++i) {
+			launch();
+		}
+
+		return this;
+	}
+
+	Stream<E> sync(boolean ordered) {
+
+		int size = statements.size();
+
+		return IntStream.range(0, size)
+				.mapToObj(i -> ordered ? results.get(i) : takeCompleted())
+				.flatMap(f -> transform.apply(get(f)))
+				.onClose(() -> cancelled = true);
+	}
+
+	ListenableFuture<Stream<E>> async(boolean ordered) {
+
+		return Futures.transform(Futures.allAsList(results), new com.google.common.base.Function<List<ResultSet>, Stream<E>>() {
+
+			@Override
+			public Stream<E> apply(List<ResultSet> list) {
+				return sync(ordered);
+			}
+
+		}, sessionOps.getExecutor());
+
+	}
+
+	private void launch() {
+
+		if (cancelled) {
+			return;
+		}
+
+		int index = next.getAndIncrement();
+
+		if (index >= statements.size()) {
+			return;
+		}
+
+		SettableFuture<ResultSet> result = results.get(index);
+
+		ResultSetFuture future;
+		try {
+			future = sessionOps.executeAsync(statements.get(index), showValues, stats);
+		}
+		catch(RuntimeException e) {
+			done(result, null, e);
+			return;
+		}
+
+		Futures.addCallback(future, new FutureCallback<ResultSet>() {
+
+			@Override
+			public void onSuccess(ResultSet resultSet) {
+				done(result, resultSet, null);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				done(result, null, t);
+			}
+
+		}, MoreExecutors.sameThreadExecutor());
+
+	}
+
+	private void done(SettableFuture<ResultSet> result, ResultSet resultSet, Throwable t) {
+
+		if (t != null) {
+			result.setException(t);
+		}
+		else {
+			result.set(resultSet);
+		}
+
+		completed.add(result);
+		launch();
+	}
+
+	private SettableFuture<ResultSet> takeCompleted() {
+		try {
+			return completed.take();
+		} catch (InterruptedException e) {
+			cancelled = true;
+			Thread.currentThread().interrupt();
+			throw new CasserException(e);
+		}
+	}
+
+	private static ResultSet get(SettableFuture<ResultSet> future) {
+		try {
+			return Uninterruptibles.getUninterruptibly(future);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new CasserException(e.getCause());
+		}
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.noorq.casser.core.HedgingPolicy;
+import com.noorq.casser.support.CasserException;
+
+/**
+ *  Result of the read that sends a duplicate request when the previous attempt did not
+ *  answer within the delay of the hedging policy. The first response wins and the
+ *  remaining attempts are cancelled.
+ *
+ */
+
+final class HedgedResultSetFuture extends AbstractFuture<ResultSet> implements ResultSetFuture {
+
+	private final Supplier<ResultSetFuture> attempt;
+	private final HedgingPolicy policy;
+	private final long startNanos = System.nanoTime();
+
+	private final List<ResultSetFuture> attempts = new CopyOnWriteArrayList<ResultSetFuture>();
+	private final AtomicInteger outstanding = new AtomicInteger();
+	private volatile ScheduledFuture<?> scheduled = null;
+
+	private HedgedResultSetFuture(Supplier<ResultSetFuture> attempt, HedgingPolicy policy) {
+		this.attempt = attempt;
+		this.policy = policy;
+	}
+
+	static ResultSetFuture execute(Supplier<ResultSetFuture> attempt, HedgingPolicy policy) {
+		HedgedResultSetFuture future = new HedgedResultSetFuture(attempt, policy);
+		future.launch();
+		return future;
+	}
+
+	private void launch() {
+
+		if (isDone()) {
+			return;
+		}
+
+		int index = attempts.size();
+
+		ResultSetFuture future;
+		try {
+			outstanding.incrementAndGet();
+			future = attempt.get();
+		}
+		catch(RuntimeException e) {
+			failed(e);
+			return;
+		}
+
+		attempts.add(future);
+
+		if (index > 0) {
+			policy.hedged();
+		}
+
+		Futures.addCallback(future, new FutureCallback<ResultSet>() {
+
+			@Override
+			public void onSuccess(ResultSet resultSet) {
+
+				if (set(resultSet)) {
+
+					policy.record(System.nanoTime() - startNanos);
+
+					if (index > 0) {
+						policy.hedgeWon();
+					}
+
+					cancelAttempts();
+				}
+
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				failed(t);
+			}
+
+		}, MoreExecutors.sameThreadExecutor());
+
+		long delay = policy.getDelayNanos();
+
+		if (delay >= 0 && index + 1 < policy.getMaxAttempts()) {
+			scheduled = policy.getScheduler().schedule(this::launch, delay, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void failed(Throwable t) {
+
+		if (outstanding.decrementAndGet() == 0 && setException(t)) {
+			cancelAttempts();
+		}
+	}
+
+	private void cancelAttempts() {
+
+		ScheduledFuture<?> next = scheduled;
+
+		if (next != null) {
+			next.cancel(false);
+		}
+
+		for (ResultSetFuture future : attempts) {
+			if (!future.isDone()) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+
+		if (super.cancel(mayInterruptIfRunning)) {
+			cancelAttempts();
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public ResultSet getUninterruptibly() {
+		try {
+			return Uninterruptibles.getUninterruptibly(this);
+		} catch (ExecutionException e) {
+			throw propagate(e);
+		}
+	}
+
+	@Override
+	public ResultSet getUninterruptibly(long timeout, TimeUnit unit) throws TimeoutException {
+		try {
+			return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+		} catch (ExecutionException e) {
+			throw propagate(e);
+		}
+	}
+
+	private static RuntimeException propagate(ExecutionException e) {
+
+		if (e.getCause() instanceof RuntimeException) {
+			return (RuntimeException) e.getCause();
+		}
+
+		return new CasserException(e.getCause());
+	}
+
+}
@@ -99,8 +99,73 @@ public final class InsertOperation extends AbstractOperation<ResultSet, InsertOp
 		return this;
 	}
 	
+	@Override
+	protected String metricsName() {
+		return "insert";
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return entity;
+	}
+	
 	@Override
 	public BuiltStatement buildStatement() {
+		return buildInsert(false);
+	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return buildInsert(true);
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+		
+		values.forEach(t -> addPropertyNode(t._1));
+		
+		if (entity == null) {
+			return false;
+		}
+		
+		shape.add("insert").add(entity).add(ifNotExists);
+		
+		values.forEach(t -> {
+			shape.add(t._1.getColumnName());
+			shape.bind(t._2);
+		});
+		
+		shape.add(this.ttl != null).add(this.timestamp != null);
+		
+		if (this.ttl != null) {
+			shape.bind(this.ttl[0]);
+		}
+		if (this.timestamp != null) {
+			shape.bind(this.timestamp[0]);
+		}
+		
+		return true;
+	}
+	
+	@Override
+	protected boolean isConditional() {
+		return ifNotExists;
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return !ifNotExists && (timestamp != null || isTimestampFixed());
+	}
+	
+	@Override
+	protected PartitionKey partitionKey() {
+		
+		values.forEach(t -> addPropertyNode(t._1));
+		
+		return PartitionKey.fromValues(entity, values);
+	}
+	
+	private BuiltStatement buildInsert(boolean template) {
 		
 		values.forEach(t -> addPropertyNode(t._1));
 		
@@ -115,14 +180,14 @@ public final class InsertOperation extends AbstractOperation<ResultSet, InsertOp
 		}
 		
 		values.forEach(t -> {
-			insert.value(t._1.getColumnName(), t._2);
+			insert.value(t._1.getColumnName(), template ? QueryBuilder.bindMarker() : t._2);
 		});
 		
 		if (this.ttl != null) {
-			insert.using(QueryBuilder.ttl(this.ttl[0]));
+			insert.using(template ? QueryBuilder.ttl(QueryBuilder.bindMarker()) : QueryBuilder.ttl(this.ttl[0]));
 		}
 		if (this.timestamp != null) {
-			insert.using(QueryBuilder.timestamp(this.timestamp[0]));
+			insert.using(template ? QueryBuilder.timestamp(QueryBuilder.bindMarker()) : QueryBuilder.timestamp(this.timestamp[0]));
 		}
 		
 		return insert;
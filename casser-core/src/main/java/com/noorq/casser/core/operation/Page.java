@@ -0,0 +1,68 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ *  Single page of the select results with the opaque token to resume 
+ *  from the next page, the token is null on the last page
+ *
+ */
+
+public final class Page<E> implements Iterable<E> {
+
+	private final List<E> items;
+	private final String nextPageToken;
+	
+	public Page(List<E> items, String nextPageToken) {
+		this.items = items;
+		this.nextPageToken = nextPageToken;
+	}
+	
+	public List<E> getItems() {
+		return items;
+	}
+	
+	public String getNextPageToken() {
+		return nextPageToken;
+	}
+	
+	public boolean hasNext() {
+		return nextPageToken != null;
+	}
+	
+	public int size() {
+		return items.size();
+	}
+	
+	public Stream<E> stream() {
+		return items.stream();
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return items.iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "Page [items=" + items + ", nextPageToken=" + nextPageToken + "]";
+	}
+	
+}
@@ -0,0 +1,206 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.noorq.casser.core.Filter;
+import com.noorq.casser.core.Operator;
+import com.noorq.casser.core.reflect.CasserPropertyNode;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserProperty;
+import com.noorq.casser.mapping.ColumnType;
+import com.noorq.casser.mapping.type.DTDataType;
+import com.noorq.casser.mapping.value.ColumnValuePreparer;
+import com.noorq.casser.support.Fun;
+
+/**
+ *  Prepared values of the partition key columns of the entity in ordinal order 
+ *
+ */
+
+public final class PartitionKey {
+
+	private final CasserEntity entity;
+	private final Object[] values;
+	
+	public PartitionKey(CasserEntity entity, Object[] values) {
+		this.entity = entity;
+		this.values = values;
+	}
+	
+	public CasserEntity getEntity() {
+		return entity;
+	}
+
+	public Object[] getValues() {
+		return values;
+	}
+	
+	public static PartitionKey fromFilters(CasserEntity entity, List<Filter<?>> filters, ColumnValuePreparer valuePreparer) {
+		
+		if (entity == null || filters == null || filters.isEmpty()) {
+			return null;
+		}
+		
+		int size = countPartitionKeys(entity);
+		
+		if (size == 0) {
+			return null;
+		}
+		
+		Object[] values = new Object[size];
+		int i = 0;
+		
+		for (CasserProperty prop : entity.getOrderedProperties()) {
+			
+			if (i == size) {
+				break;
+			}
+			
+			Filter<?> found = null;
+			
+			for (Filter<?> filter : filters) {
+				if (filter.getPostulate().getOperator() == Operator.EQ && isColumn(filter.getNode(), prop)) {
+					found = filter;
+					break;
+				}
+			}
+			
+			if (found == null) {
+				return null;
+			}
+			
+			values[i++] = found.getPostulate().prepareValues(found.getNode(), valuePreparer)[0];
+		}
+		
+		return new PartitionKey(entity, values);
+	}
+	
+	public static PartitionKey fromValues(CasserEntity entity, List<Fun.Tuple2<CasserPropertyNode, Object>> preparedValues) {
+
+		if (entity == null || preparedValues.isEmpty()) {
+			return null;
+		}
+		
+		int size = countPartitionKeys(entity);
+
+		if (size == 0) {
+			return null;
+		}
+		
+		Object[] values = new Object[size];
+		int i = 0;
+		
+		for (CasserProperty prop : entity.getOrderedProperties()) {
+
+			if (i == size) {
+				break;
+			}
+			
+			Fun.Tuple2<CasserPropertyNode, Object> found = null;
+			
+			for (Fun.Tuple2<CasserPropertyNode, Object> t : preparedValues) {
+				if (isColumn(t._1, prop)) {
+					found = t;
+					break;
+				}
+			}
+			
+			if (found == null) {
+				return null;
+			}
+			
+			values[i++] = found._2;
+		}
+		
+		return new PartitionKey(entity, values);
+	}
+	
+	/**
+	 * Returns the serialized components of the routing key or null if the values can not be serialized
+	 */
+	
+	public ByteBuffer[] getRoutingKey() {
+		
+		ByteBuffer[] components = new ByteBuffer[values.length];
+		int i = 0;
+		
+		for (CasserProperty prop : entity.getOrderedProperties()) {
+			
+			if (i == values.length) {
+				break;
+			}
+			
+			if (!(prop.getDataType() instanceof DTDataType) || values[i] == null) {
+				return null;
+			}
+			
+			try {
+				components[i] = ((DTDataType) prop.getDataType()).getDataType().serialize(values[i], ProtocolVersion.NEWEST_SUPPORTED);
+			}
+			catch(RuntimeException e) {
+				return null;
+			}
+			
+			i++;
+		}
+		
+		return components;
+	}
+	
+	private static int countPartitionKeys(CasserEntity entity) {
+		int size = 0;
+		for (CasserProperty prop : entity.getOrderedProperties()) {
+			if (prop.getColumnType() == ColumnType.PARTITION_KEY) {
+				size++;
+			}
+		}
+		return size;
+	}
+	
+	private static boolean isColumn(CasserPropertyNode node, CasserProperty prop) {
+		return !node.getNext().isPresent() 
+				&& node.getProperty().getColumnName().getName().equals(prop.getColumnName().getName());
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * entity.getName().getName().hashCode() + Arrays.hashCode(values);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PartitionKey)) {
+			return false;
+		}
+		PartitionKey other = (PartitionKey) obj;
+		return entity.getName().getName().equals(other.entity.getName().getName()) 
+				&& Arrays.equals(values, other.values);
+	}
+
+	@Override
+	public String toString() {
+		return entity.getName() + Arrays.toString(values);
+	}
+	
+}
@@ -0,0 +1,67 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ *  Row iterator that requests the next page in background when the given 
+ *  fraction of the current page has been consumed, so decoding of the current
+ *  page overlaps with the network time of the next one
+ *
+ */
+
+final class PrefetchingRowIterator implements Iterator<Row> {
+
+	private final ResultSet resultSet;
+	private final int threshold;
+	
+	private ListenableFuture<?> fetching = null;
+	
+	PrefetchingRowIterator(ResultSet resultSet, double fraction) {
+		this.resultSet = resultSet;
+		this.threshold = (int) (resultSet.getAvailableWithoutFetching() * (1.0 - fraction));
+	}
+	
+	@Override
+	public boolean hasNext() {
+		
+		if (resultSet.getAvailableWithoutFetching() <= threshold 
+				&& !resultSet.isFullyFetched()
+				&& (fetching == null || fetching.isDone())) {
+			
+			fetching = resultSet.fetchMoreResults();
+		}
+		
+		return !resultSet.isExhausted();
+	}
+
+	@Override
+	public Row next() {
+		
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		
+		return resultSet.one();
+	}
+	
+}
@@ -0,0 +1,459 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.Token;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.querybuilder.Select.Selection;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.noorq.casser.core.AbstractSessionOperations;
+import com.noorq.casser.core.metrics.CasserMetrics;
+import com.noorq.casser.core.metrics.OperationStats;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserProperty;
+import com.noorq.casser.mapping.ColumnType;
+import com.noorq.casser.support.CasserException;
+
+/**
+ *  Full table scan split by token ranges of the ring.
+ *
+ *  Every split is a select restricted by the token of the partition key, up to parallelism
+ *  splits are read concurrently and the rows are merged in the resulting stream in the
+ *  order the pages arrive. A failed page is retried from the paging state of the last
+ *  successful page of the split.
+ *
+ */
+
+public final class ScanOperation<E> {
+
+	public static final int DEFAULT_PARALLELISM = 4;
+	public static final int DEFAULT_MAX_RETRIES = 3;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final AbstractSessionOperations sessionOps;
+	private final CasserEntity entity;
+	private final Function<Row, E> rowMapper;
+
+	private int splits = 0;
+	private int parallelism = DEFAULT_PARALLELISM;
+	private int maxRetries = DEFAULT_MAX_RETRIES;
+	private int fetchSize = 0;
+	private ConsistencyLevel consistencyLevel = null;
+	private Consumer<ScanOperation<E>> progressListener = null;
+
+	private volatile int totalSplits = 0;
+	private final AtomicLong completedSplits = new AtomicLong();
+	private final AtomicLong rows = new AtomicLong();
+	private final AtomicLong retries = new AtomicLong();
+
+	public ScanOperation(AbstractSessionOperations sessionOperations, CasserEntity entity, Function<Row, E> rowMapper) {
+		this.sessionOps = sessionOperations;
+		this.entity = Objects.requireNonNull(entity, "entity is empty");
+		this.rowMapper = Objects.requireNonNull(rowMapper, "rowMapper is empty");
+	}
+
+	/**
+	 * Total number of splits, by default every token range of the ring is a split
+	 */
+
+	public ScanOperation<E> splits(int splits) {
+
+		if (splits <= 0) {
+			throw new IllegalArgumentException("invalid splits " + splits);
+		}
+
+		this.splits = splits;
+		return this;
+	}
+
+	public ScanOperation<E> parallelism(int parallelism) {
+
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("invalid parallelism " + parallelism);
+		}
+
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	public ScanOperation<E> maxRetries(int maxRetries) {
+
+		if (maxRetries < 0) {
+			throw new IllegalArgumentException("invalid maxRetries " + maxRetries);
+		}
+
+		this.maxRetries = maxRetries;
+		return this;
+	}
+
+	public ScanOperation<E> fetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	public ScanOperation<E> consistency(ConsistencyLevel level) {
+		this.consistencyLevel = level;
+		return this;
+	}
+
+	/**
+	 * Listener is called from the consuming thread each time a split has been read completely
+	 */
+
+	public ScanOperation<E> onProgress(Consumer<ScanOperation<E>> listener) {
+		this.progressListener = Objects.requireNonNull(listener, "listener is empty");
+		return this;
+	}
+
+	public Stream<E> sync() {
+
+		Scan scan = new Scan(buildSplits());
+
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(scan, Spliterator.ORDERED | Spliterator.NONNULL)
+				, false).onClose(scan::cancel);
+	}
+
+	public int getTotalSplits() {
+		return totalSplits;
+	}
+
+	public long getCompletedSplits() {
+		return completedSplits.get();
+	}
+
+	public long getRows() {
+		return rows.get();
+	}
+
+	public long getRetries() {
+		return retries.get();
+	}
+
+	private List<Split> buildSplits() {
+
+		String[] partitionKeys = entity.getOrderedProperties()
+				.stream()
+				.filter(p -> p.getColumnType() == ColumnType.PARTITION_KEY)
+				.map(p -> p.getColumnName().toCql())
+				.toArray(String[]::new);
+
+		if (partitionKeys.length == 0) {
+			throw new CasserException("entity without partition key " + entity.getMappingInterface());
+		}
+
+		String token = QueryBuilder.token(partitionKeys);
+
+		Set<TokenRange> ring = sessionOps.currentSession().getCluster().getMetadata().getTokenRanges();
+
+		int splitsPerRange = splits > ring.size() ? (splits + ring.size() - 1) / ring.size() : 1;
+
+		List<Split> result = new ArrayList<Split>();
+
+		for (TokenRange range : ring) {
+			for (TokenRange split : range.splitEvenly(splitsPerRange)) {
+				for (TokenRange unwrapped : split.unwrap()) {
+					result.add(new Split(buildStatement(token, unwrapped.getStart(), unwrapped.getEnd())));
+				}
+			}
+		}
+
+		totalSplits = result.size();
+		completedSplits.set(0);
+		rows.set(0);
+		retries.set(0);
+
+		return result;
+	}
+
+	private Statement buildStatement(String token, Token start, Token end) {
+
+		Selection selection = QueryBuilder.select();
+
+		for (CasserProperty prop : entity.getOrderedProperties()) {
+			selection = selection.column(prop.getColumnName().toCql());
+		}
+
+		Select select = selection.from(entity.getName().toCql());
+
+		select.where(QueryBuilder.gt(token, start.getValue()));
+
+		// unwrapped range ending at the minimum token covers the tail of the ring
+		if (end.compareTo(start) > 0) {
+			select.where().and(QueryBuilder.lte(token, end.getValue()));
+		}
+
+		if (fetchSize > 0) {
+			select.setFetchSize(fetchSize);
+		}
+
+		if (consistencyLevel != null) {
+			select.setConsistencyLevel(consistencyLevel);
+		}
+
+		return select;
+	}
+
+	private final class Split {
+
+		final Statement statement;
+
+		volatile ResultSet resultSet = null;
+		volatile PagingState pagingState = null;
+		int attempts = 0;
+
+		Split(Statement statement) {
+			this.statement = statement;
+		}
+
+	}
+
+	private final class Chunk {
+
+		final Split split;
+		final List<E> rows;
+		final boolean last;
+		final Throwable error;
+
+		Chunk(Split split, List<E> rows, boolean last, Throwable error) {
+			this.split = split;
+			this.rows = rows;
+			this.last = last;
+			this.error = error;
+		}
+
+	}
+
+	private final class Scan implements Iterator<E> {
+
+		private final Queue<Split> waiting;
+		private final LinkedBlockingQueue<Chunk> arrived = new LinkedBlockingQueue<Chunk>();
+		private final OperationStats stats;
+
+		private int active = 0;
+		private Iterator<E> current = null;
+		private volatile boolean cancelled = false;
+
+		Scan(List<Split> splits) {
+			
+			CasserMetrics metrics = sessionOps.getMetrics();
+			this.stats = metrics != null ? metrics.stats("scan", entity) : null;
+			this.waiting = new ConcurrentLinkedQueue<Split>(splits);
+
+			while (active < parallelism && start(waiting.poll())) {
+				active++;
+			}
+		}
+
+		void cancel() {
+			cancelled = true;
+			waiting.clear();
+		}
+
+		@Override
+		public boolean hasNext() {
+
+			while (current == null || !current.hasNext()) {
+
+				if (active == 0 || cancelled) {
+					return false;
+				}
+
+				Chunk chunk;
+				try {
+					chunk = arrived.take();
+				} catch (InterruptedException e) {
+					cancel();
+					Thread.currentThread().interrupt();
+					throw new CasserException(e);
+				}
+
+				if (chunk.error != null) {
+					cancel();
+					throw new CasserException("token range scan failed", chunk.error);
+				}
+
+				current = chunk.rows.iterator();
+
+				if (chunk.last) {
+					completedSplits.incrementAndGet();
+					notifyProgress();
+					if (!start(waiting.poll())) {
+						active--;
+					}
+				}
+				else {
+					fetch(chunk.split);
+				}
+			}
+
+			return true;
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return current.next();
+		}
+
+		private void notifyProgress() {
+
+			Consumer<ScanOperation<E>> listener = progressListener;
+
+			if (listener != null) {
+				try {
+					listener.accept(ScanOperation.this);
+				}
+				catch(RuntimeException e) {
+					logger.error("progress listener failed", e);
+				}
+			}
+		}
+
+		private boolean start(Split split) {
+
+			if (split == null || cancelled) {
+				return false;
+			}
+
+			execute(split);
+			return true;
+		}
+
+		private void execute(Split split) {
+
+			if (split.pagingState != null) {
+				split.statement.setPagingState(split.pagingState);
+			}
+
+			ListenableFuture<ResultSet> future;
+			try {
+				future = sessionOps.executeAsync(split.statement, false, stats);
+			}
+			catch(RuntimeException e) {
+				failed(split, e);
+				return;
+			}
+
+			listen(split, future);
+		}
+
+		private void fetch(Split split) {
+
+			ResultSet resultSet = split.resultSet;
+			split.pagingState = resultSet.getExecutionInfo().getPagingState();
+
+			// the driver appends the next page to the same result set
+
+			listen(split, Futures.transform(resultSet.fetchMoreResults(), new com.google.common.base.Function<Void, ResultSet>() {
+
+				@Override
+				public ResultSet apply(Void input) {
+					return resultSet;
+				}
+
+			}));
+		}
+
+		private void listen(Split split, ListenableFuture<ResultSet> future) {
+
+			Futures.addCallback(future, new FutureCallback<ResultSet>() {
+
+				@Override
+				public void onSuccess(ResultSet resultSet) {
+
+					if (cancelled) {
+						return;
+					}
+
+					split.resultSet = resultSet;
+
+					int available = resultSet.getAvailableWithoutFetching();
+					List<E> page = new ArrayList<E>(available);
+
+					try {
+						for (int i = 0; i != available; ++i) {
+							page.add(rowMapper.apply(resultSet.one()));
+						}
+					}
+					catch(RuntimeException e) {
+						arrived.add(new Chunk(split, null, true, e));
+						return;
+					}
+
+					rows.addAndGet(available);
+					arrived.add(new Chunk(split, page, resultSet.isFullyFetched(), null));
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					failed(split, t);
+				}
+
+			}, sessionOps.getExecutor());
+		}
+
+		private void failed(Split split, Throwable t) {
+
+			if (cancelled) {
+				return;
+			}
+
+			if (++split.attempts <= maxRetries) {
+				retries.incrementAndGet();
+				logger.warn("retry token range scan " + split.statement, t);
+				execute(split);
+			}
+			else {
+				arrived.add(new Chunk(split, null, true, t));
+			}
+		}
+
+	}
+
+}
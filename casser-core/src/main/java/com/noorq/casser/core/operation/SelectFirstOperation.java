@@ -20,6 +20,8 @@ import java.util.function.Function;
 
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.querybuilder.BuiltStatement;
+import com.noorq.casser.core.HedgingPolicy;
+import com.noorq.casser.mapping.CasserEntity;
 
 
 public final class SelectFirstOperation<E> extends AbstractFilterOptionalOperation<E, SelectFirstOperation<E>> {
@@ -38,10 +40,40 @@ public final class SelectFirstOperation<E> extends AbstractFilterOptionalOperati
 		return new SelectFirstTransformingOperation<R, E>(src, fn);
 	}
 	
+	@Override
+	protected String metricsName() {
+		return src.metricsName();
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return src.metricsEntity();
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return src.isIdempotent();
+	}
+	
 	@Override
 	public BuiltStatement buildStatement() {
 		return src.buildStatement();
 	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return src.buildTemplate();
+	}
+	
+	@Override
+	protected HedgingPolicy hedgingPolicy() {
+		return src.hedgingPolicy();
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+		return src.collectShape(shape);
+	}
 
 	@Override
 	public Optional<E> transform(ResultSet resultSet) {
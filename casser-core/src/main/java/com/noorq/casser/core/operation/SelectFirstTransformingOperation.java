@@ -20,6 +20,8 @@ import java.util.function.Function;
 
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.querybuilder.BuiltStatement;
+import com.noorq.casser.core.HedgingPolicy;
+import com.noorq.casser.mapping.CasserEntity;
 
 
 public final class SelectFirstTransformingOperation<R, E> extends AbstractFilterOptionalOperation<R, SelectFirstTransformingOperation<R, E>> {
@@ -36,10 +38,40 @@ public final class SelectFirstTransformingOperation<R, E> extends AbstractFilter
 		this.ifFilters = src.ifFilters;
 	}
 	
+	@Override
+	protected String metricsName() {
+		return src.metricsName();
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return src.metricsEntity();
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return src.isIdempotent();
+	}
+	
 	@Override
 	public BuiltStatement buildStatement() {
 		return src.buildStatement();
 	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return src.buildTemplate();
+	}
+	
+	@Override
+	protected HedgingPolicy hedgingPolicy() {
+		return src.hedgingPolicy();
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+		return src.collectShape(shape);
+	}
 
 	@Override
 	public Optional<R> transform(ResultSet resultSet) {
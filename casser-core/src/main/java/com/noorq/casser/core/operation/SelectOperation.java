@@ -0,0 +1,769 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.BuiltStatement;
+import com.datastax.driver.core.querybuilder.Ordering;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.querybuilder.Select.Selection;
+import com.datastax.driver.core.querybuilder.Select.Where;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.noorq.casser.core.AbstractSessionOperations;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.Filter;
+import com.noorq.casser.core.Getter;
+import com.noorq.casser.core.HedgingPolicy;
+import com.noorq.casser.core.Operator;
+import com.noorq.casser.core.Ordered;
+import com.noorq.casser.core.metrics.OperationStats;
+import com.noorq.casser.core.reflect.CasserPropertyNode;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserProperty;
+import com.noorq.casser.mapping.ColumnType;
+import com.noorq.casser.mapping.MappingUtil;
+import com.noorq.casser.mapping.OrderingDirection;
+import com.noorq.casser.mapping.value.ColumnValueProvider;
+import com.noorq.casser.mapping.value.RowColumnValueProvider;
+import com.noorq.casser.mapping.value.RowReader;
+import com.noorq.casser.mapping.value.Materialization;
+import com.noorq.casser.mapping.value.ValueProviderMap;
+import com.noorq.casser.support.CasserException;
+import com.noorq.casser.support.CasserMappingException;
+import com.noorq.casser.support.Fun.ArrayTuple;
+
+
+public final class SelectOperation<E> extends AbstractFilterStreamOperation<E, SelectOperation<E>> {
+
+	protected Function<Row, E> rowMapper = null;
+	protected final List<CasserPropertyNode> props = new ArrayList<CasserPropertyNode>();
+	
+	protected List<Ordering> ordering = null;
+	protected List<Object> orderingShape = null;
+	protected Integer limit = null;
+	protected boolean allowFiltering = false;
+	protected double prefetch = 0.0;
+	protected int fanOut = 0;
+	protected boolean fanOutOrdered = false;
+	protected HedgingPolicy hedgingPolicy = null;
+	protected Materialization materialization = null;
+	protected Class<E> entityClass = null;
+	
+	public SelectOperation(AbstractSessionOperations sessionOperations) {
+		super(sessionOperations);
+		
+		this.rowMapper = new Function<Row, E>() {
+
+			private RowReader.Cache readers = null;
+			
+			@Override
+			public E apply(Row source) {
+				
+				ColumnValueProvider valueProvider = sessionOps.getValueProvider(); 
+				Object[] arr = new Object[props.size()];
+				
+				if (valueProvider instanceof RowColumnValueProvider) {
+					
+					RowReader.Cache cache = readers;
+					
+					if (cache == null) {
+						cache = new RowReader.Cache(props.stream().map(p -> p.getProperty()).toArray(CasserProperty[]::new));
+						readers = cache;
+					}
+					
+					RowReader reader = cache.readerOf(source, (RowColumnValueProvider) valueProvider);
+					
+					for (int i = 0; i != arr.length; ++i) {
+						arr[i] = reader.read(source, i);
+					}
+					
+					return (E) ArrayTuple.of(arr);
+				}
+				
+				int i = 0;
+				for (CasserPropertyNode p : props) {
+					Object value = valueProvider.getColumnValue(source, -1, p.getProperty());
+					arr[i++] = value;
+				}
+				
+				return (E) ArrayTuple.of(arr);
+			}
+			
+		};
+	}
+	
+	public SelectOperation(AbstractSessionOperations sessionOperations, 
+			CasserEntity entity) {
+		
+		super(sessionOperations);
+		
+		entity.getOrderedProperties()
+		.stream()
+		.map(p -> new CasserPropertyNode(p, Optional.empty()))
+		.forEach(p -> this.props.add(p));
+		
+	}
+	
+	public SelectOperation(AbstractSessionOperations sessionOperations, 
+			CasserEntity entity, 
+			Function<Row, E> rowMapper) {
+		
+		super(sessionOperations);
+		this.rowMapper = rowMapper;
+		
+		entity.getOrderedProperties()
+		.stream()
+		.map(p -> new CasserPropertyNode(p, Optional.empty()))
+		.forEach(p -> this.props.add(p));
+		
+	}
+
+	public SelectOperation(AbstractSessionOperations sessionOperations, 
+			CasserEntity entity, 
+			Class<E> entityClass) {
+		
+		this(sessionOperations, entity, (Function<Row, E>) null);
+		this.rowMapper = entityMapper(entity, entityClass);
+		this.entityClass = entityClass;
+	}
+	
+	public SelectOperation(AbstractSessionOperations sessionOperations, 
+			Function<Row, E> rowMapper, 
+			CasserPropertyNode... props) {
+		
+		super(sessionOperations);
+		this.rowMapper = rowMapper;
+		Collections.addAll(this.props, props);
+	}
+	
+	public CountOperation count() {
+		
+		CasserEntity entity = null;
+		for (CasserPropertyNode prop : props) {
+			
+			if (entity == null) {
+				entity = prop.getEntity();
+			}
+			else if (entity != prop.getEntity()) {
+				throw new CasserMappingException("you can count records only from a single entity " + entity.getMappingInterface() + " or " + prop.getEntity().getMappingInterface());
+			}
+		}
+		
+		return new CountOperation(sessionOps, entity);
+	}
+	
+	public SelectFirstOperation<E> single() {
+		limit(1);
+		return new SelectFirstOperation<E>(this);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public <R> SelectTransformingOperation<R, Row> mapTo(Class<R> entityClass) {
+		
+		Objects.requireNonNull(entityClass, "entityClass is null");
+		
+		CasserEntity entity = Casser.entity(entityClass);
+		
+		this.rowMapper = null;
+		
+		return new SelectTransformingOperation<R, Row>((SelectOperation<Row>) this, entityMapper(entity, entityClass));
+	}
+	
+	private <R> Function<Row, R> entityMapper(CasserEntity entity, Class<R> entityClass) {
+		
+		ColumnValueProvider valueProvider = sessionOps.getValueProvider();
+		
+		return (r) -> {
+
+			Map<String, Object> map = new ValueProviderMap(r, valueProvider, entity, materialization());
+			return (R) Casser.map(entityClass, map);
+			
+		};
+	}
+	
+	public <R> SelectTransformingOperation<R, E> map(Function<E, R> fn) {
+		return new SelectTransformingOperation<R, E>(this, fn);
+	}
+	
+	public SelectOperation<E> column(Getter<?> getter) {
+		CasserPropertyNode p = MappingUtil.resolveMappingProperty(getter);
+		this.props.add(p);
+		return this;
+	}
+	
+	public SelectOperation<E> orderBy(Getter<?> getter, OrderingDirection direction) {
+		return orderBy(new Ordered(getter, direction));
+	}
+	
+	public SelectOperation<E> orderBy(Ordered ordered) {
+		getOrCreateOrdering().add(ordered.getOrdering());
+		orderingShape.add(ordered.getColumnName());
+		orderingShape.add(ordered.getDirection());
+		return this;
+	}
+
+	public SelectOperation<E> limit(Integer limit) {
+		this.limit = limit;
+		return this;
+	}
+	
+	public SelectOperation<E> allowFiltering() {
+		this.allowFiltering = true;
+		return this;
+	}
+	
+	public SelectOperation<E> prefetch() {
+		return prefetch(0.5);
+	}
+	
+	/**
+	 * Fetches the next page in background once the given fraction of the current page has been consumed
+	 */
+	public SelectOperation<E> prefetch(double fraction) {
+		if (fraction <= 0.0 || fraction > 1.0) {
+			throw new IllegalArgumentException("invalid prefetch fraction " + fraction);
+		}
+		this.prefetch = fraction;
+		return this;
+	}
+	
+	public SelectOperation<E> hedging(HedgingPolicy hedgingPolicy) {
+		this.hedgingPolicy = hedgingPolicy;
+		return this;
+	}
+	
+	@Override
+	protected HedgingPolicy hedgingPolicy() {
+		return hedgingPolicy != null ? hedgingPolicy : sessionOps.getHedgingPolicy();
+	}
+	
+	/**
+	 * Decoding mode of the mapped entities, overrides the mode of the session
+	 */
+	
+	public SelectOperation<E> materialization(Materialization materialization) {
+		this.materialization = Objects.requireNonNull(materialization, "empty materialization");
+		return this;
+	}
+	
+	protected Materialization materialization() {
+		return materialization != null ? materialization : sessionOps.getMaterialization();
+	}
+	
+	public SelectOperation<E> fanOut(int maxInFlight) {
+		return fanOut(maxInFlight, false);
+	}
+	
+	/**
+	 * Executes 'in' restriction on the partition key as one query per key, at most maxInFlight at a time
+	 */
+	public SelectOperation<E> fanOut(int maxInFlight, boolean preserveOrder) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("invalid maxInFlight " + maxInFlight);
+		}
+		this.fanOut = maxInFlight;
+		this.fanOutOrdered = preserveOrder;
+		return this;
+	}
+	
+	/**
+	 * Returns the stream that executes the select on its first operation that is not pushed down, 
+	 * so that filters, limit and findFirst of the stream become the where clauses and the limit 
+	 * of the query. The stream takes the filters and the limit of the select at this call, 
+	 * errors of the execution are thrown by that first operation.
+	 */
+	
+	@Override
+	public SelectStream<E> sync() {
+		return new SelectStream<E>(this, filters, limit);
+	}
+	
+	private Stream<E> executeSync() {
+		
+		Filter<?> in = fanOutFilter();
+		
+		if (in == null) {
+			return super.sync();
+		}
+		
+		Stream<E> stream = fanOutExecution(in).sync(fanOutOrdered);
+		return limit != null ? stream.limit(limit) : stream;
+	}
+	
+	/**
+	 * Executes the select with the given restrictions and limit instead of its own
+	 */
+	
+	Stream<E> sync(List<Filter<?>> restrictions, Integer maxRows) {
+		
+		List<Filter<?>> originalFilters = filters;
+		Integer originalLimit = limit;
+		
+		try {
+			filters = restrictions;
+			limit = maxRows;
+			return executeSync();
+		}
+		finally {
+			filters = originalFilters;
+			limit = originalLimit;
+		}
+	}
+	
+	BuiltStatement buildStatement(List<Filter<?>> restrictions, Integer maxRows) {
+		
+		List<Filter<?>> originalFilters = filters;
+		Integer originalLimit = limit;
+		
+		try {
+			filters = restrictions;
+			limit = maxRows;
+			return buildStatement();
+		}
+		finally {
+			filters = originalFilters;
+			limit = originalLimit;
+		}
+	}
+	
+	/**
+	 * Returns true if the filter is a valid restriction of the query together with the given restrictions: 
+	 * the partition key, indexed columns, clustering columns after the restricted preceding clustering columns 
+	 * of the restricted partition or any column with allowFiltering
+	 */
+	
+	boolean canPushDown(Filter<?> filter, List<Filter<?>> restrictions) {
+		
+		CasserPropertyNode node = filter.getNode();
+		
+		if (node.getNext().isPresent() || props.isEmpty() || node.getEntity() != props.get(0).getEntity()) {
+			return false;
+		}
+		
+		CasserProperty prop = node.getProperty();
+		Operator operator = filter.getPostulate().getOperator();
+		
+		for (Filter<?> restriction : restrictions) {
+			
+			if (restriction.getNode().getProperty() == prop) {
+				
+				Operator other = restriction.getPostulate().getOperator();
+				
+				if (isEquality(operator) || isEquality(other) || isLowerBound(operator) == isLowerBound(other)) {
+					return false;
+				}
+			}
+		}
+		
+		if (prop.getColumnType() == ColumnType.CLUSTERING_COLUMN) {
+			
+			for (CasserProperty key : node.getEntity().getOrderedProperties()) {
+				
+				if (key == prop) {
+					break;
+				}
+				
+				if (key.getColumnType() == ColumnType.CLUSTERING_COLUMN && !isRestricted(key, restrictions, Operator.EQ)) {
+					return false;
+				}
+			}
+		}
+		
+		if (allowFiltering) {
+			return true;
+		}
+		
+		if (prop.getIndexName().isPresent() && operator == Operator.EQ) {
+			return true;
+		}
+		
+		boolean partitionKey = prop.getColumnType() == ColumnType.PARTITION_KEY && isEquality(operator);
+		
+		if (!partitionKey && prop.getColumnType() != ColumnType.CLUSTERING_COLUMN) {
+			return false;
+		}
+		
+		for (CasserProperty key : node.getEntity().getOrderedProperties()) {
+			
+			if (key.getColumnType() == ColumnType.PARTITION_KEY && key != prop
+					&& !isRestricted(key, restrictions, Operator.EQ, Operator.IN)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns true if the rows of the select are the entities of the filter, so that it can be evaluated in memory
+	 */
+	
+	boolean canEvaluate(Filter<?> filter) {
+		CasserPropertyNode node = filter.getNode();
+		return entityClass != null && !node.getNext().isPresent() && node.getProperty().getEntity().getMappingInterface().isAssignableFrom(entityClass);
+	}
+	
+	private static boolean isEquality(Operator operator) {
+		return operator == Operator.EQ || operator == Operator.IN;
+	}
+	
+	private static boolean isLowerBound(Operator operator) {
+		return operator == Operator.GT || operator == Operator.GTE;
+	}
+	
+	private static boolean isRestricted(CasserProperty prop, List<Filter<?>> restrictions, Operator... operators) {
+		
+		for (Filter<?> filter : restrictions) {
+			
+			if (filter.getNode().getProperty() == prop && Arrays.asList(operators).contains(filter.getPostulate().getOperator())) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	@Override
+	public ListenableFuture<Stream<E>> async() {
+		
+		Filter<?> in = fanOutFilter();
+		
+		if (in == null) {
+			return super.async();
+		}
+		
+		ListenableFuture<Stream<E>> future = fanOutExecution(in).async(fanOutOrdered);
+		
+		if (limit == null) {
+			return future;
+		}
+		
+		return Futures.transform(future, new com.google.common.base.Function<Stream<E>, Stream<E>>() {
+
+			@Override
+			public Stream<E> apply(Stream<E> stream) {
+				return stream.limit(limit);
+			}
+			
+		});
+	}
+	
+	private Filter<?> fanOutFilter() {
+		
+		if (fanOut == 0 || filters == null) {
+			return null;
+		}
+		
+		for (Filter<?> filter : filters) {
+			
+			if (filter.getPostulate().getOperator() == Operator.IN 
+					&& filter.getPostulate().size() > 1
+					&& !filter.getNode().getNext().isPresent()
+					&& filter.getNode().getProperty().getColumnType() == ColumnType.PARTITION_KEY) {
+				return filter;
+			}
+			
+		}
+		
+		return null;
+	}
+	
+	private FanOutExecution<E> fanOutExecution(Filter<?> in) {
+		
+		List<Filter<?>> original = filters;
+		int index = original.indexOf(in);
+		
+		List<Statement> statements = new ArrayList<Statement>(in.getPostulate().size());
+		
+		try {
+			
+			for (Filter<?> eq : in.split()) {
+				filters = new ArrayList<Filter<?>>(original);
+				filters.set(index, eq);
+				statements.add(options(resolveStatement()));
+			}
+			
+		}
+		finally {
+			filters = original;
+		}
+		
+		return new FanOutExecution<E>(sessionOps, statements, showValues, stats(), this::transform).start(fanOut);
+	}
+	
+	@Override
+	protected String metricsName() {
+		return "select";
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return true;
+	}
+	
+	@Override
+	protected PartitionKey partitionKey() {
+		return props.isEmpty() ? null : PartitionKey.fromFilters(resolveEntity(), filters, sessionOps.getValuePreparer());
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return props.isEmpty() ? null : props.get(0).getEntity();
+	}
+	
+	@Override
+	public BuiltStatement buildStatement() {
+		return buildSelect(false);
+	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return buildSelect(true);
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+		
+		shape.add("select");
+		
+		for (CasserPropertyNode prop : props) {
+			shape.add(prop.getColumnName());
+		}
+		
+		shape.add(resolveEntity());
+		
+		if (ordering != null && !ordering.isEmpty()) {
+			orderingShape.forEach(shape::add);
+		}
+		
+		if (filters != null && !filters.isEmpty()) {
+			for (Filter<?> filter : filters) {
+				shape.filter(filter, sessionOps.getValuePreparer());
+			}
+		}
+		
+		shape.add(limit != null);
+		
+		if (limit != null) {
+			shape.bind(limit);
+		}
+		
+		shape.add(allowFiltering);
+		
+		return true;
+	}
+	
+	private BuiltStatement buildSelect(boolean template) {
+		
+		CasserEntity entity = resolveEntity();
+		Selection selection = QueryBuilder.select();
+		
+		for (CasserPropertyNode prop : props) {
+			selection = selection.column(prop.getColumnName());
+		}
+		
+		Select select = selection.from(entity.getName().toCql());
+		
+		if (ordering != null && !ordering.isEmpty()) {
+			select.orderBy(ordering.toArray(new Ordering[ordering.size()]));
+		}
+		
+		if (limit != null) {
+			if (template) {
+				select.limit(QueryBuilder.bindMarker());
+			}
+			else {
+				select.limit(limit.intValue());
+			}
+		}
+
+		if (filters != null && !filters.isEmpty()) {
+		
+			Where where = select.where();
+			
+			for (Filter<?> filter : filters) {
+				where.and(template ? filter.getBindClause() : filter.getClause(sessionOps.getValuePreparer()));
+			}
+		}
+		
+		if (ifFilters != null && !ifFilters.isEmpty()) {
+			logger.error("onlyIf conditions " + ifFilters + " would be ignored in the statement " + select);
+		}
+		
+		if (allowFiltering) {
+			select.allowFiltering();
+		}
+		
+		return select;
+	}
+	
+	private CasserEntity resolveEntity() {
+		
+		CasserEntity entity = null;
+		
+		for (CasserPropertyNode prop : props) {
+			
+			if (entity == null) {
+				entity = prop.getEntity();
+			}
+			else if (entity != prop.getEntity()) {
+				throw new CasserMappingException("you can select columns only from a single entity " + entity.getMappingInterface() + " or " + prop.getEntity().getMappingInterface());
+			}
+		}
+		
+		if (entity == null) {
+			throw new CasserMappingException("no entity or table to select data");
+		}
+		
+		return entity;
+	}
+
+	public Page<E> page(int size, String pageToken) {
+		return toPage(sessionOps.executeAsync(pageStatement(size, pageToken), showValues, stats()).getUninterruptibly());
+	}
+	
+	public ListenableFuture<Page<E>> pageAsync(int size, String pageToken) {
+		
+		ResultSetFuture resultSetFuture = sessionOps.executeAsync(pageStatement(size, pageToken), showValues, stats());
+		
+		return Futures.transform(resultSetFuture, new com.google.common.base.Function<ResultSet, Page<E>>() {
+
+			@Override
+			public Page<E> apply(ResultSet resultSet) {
+				return toPage(resultSet);
+			}
+			
+		}, sessionOps.getExecutor());
+	}
+	
+	private Statement pageStatement(int size, String pageToken) {
+		
+		if (size <= 0) {
+			throw new IllegalArgumentException("invalid page size " + size);
+		}
+		
+		Statement statement = options(buildStatement());
+		statement.setFetchSize(size);
+		
+		if (pageToken != null && !pageToken.isEmpty()) {
+			try {
+				statement.setPagingState(PagingState.fromString(pageToken));
+			}
+			catch(RuntimeException e) {
+				throw new CasserException("invalid page token " + pageToken, e);
+			}
+		}
+		
+		return statement;
+	}
+	
+	private Page<E> toPage(ResultSet resultSet) {
+		
+		int available = resultSet.getAvailableWithoutFetching();
+		List<E> items = new ArrayList<E>(available);
+		
+		for (int i = 0; i != available; ++i) {
+			items.add(mapRow(resultSet.one()));
+		}
+		
+		PagingState pagingState = resultSet.getExecutionInfo().getPagingState();
+		
+		return new Page<E>(items, pagingState != null ? pagingState.toString() : null);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private E mapRow(Row row) {
+		return rowMapper != null ? rowMapper.apply(row) : (E) row;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public Stream<E> transform(ResultSet resultSet) {
+		
+		Iterator<Row> iterator = rows(resultSet);
+		
+		OperationStats stats = stats();
+		
+		if (rowMapper != null) {
+		
+			Function<Row, E> mapper = stats != null ? timedMapper(rowMapper, stats) : rowMapper;
+			
+			return StreamSupport.stream(
+					Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED)
+					, false).map(mapper);
+		}
+		
+		else {
+		
+			Stream<Row> rows = StreamSupport.stream(
+					Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED)
+					, false);
+			
+			if (stats != null) {
+				rows = rows.peek(r -> stats.recordRows(1));
+			}
+			
+			return (Stream<E>) rows;
+
+		}
+	}
+	
+	Iterator<Row> rows(ResultSet resultSet) {
+		return prefetch > 0.0 ? new PrefetchingRowIterator(resultSet, prefetch) : resultSet.iterator();
+	}
+	
+	private static <E> Function<Row, E> timedMapper(Function<Row, E> rowMapper, OperationStats stats) {
+		
+		return (row) -> {
+			
+			long startNanos = System.nanoTime();
+			E entity = rowMapper.apply(row);
+			stats.recordMapping(System.nanoTime() - startNanos);
+			return entity;
+			
+		};
+	}
+
+
+	private List<Ordering> getOrCreateOrdering() {
+		if (ordering == null) {
+			ordering = new ArrayList<Ordering>();
+			orderingShape = new ArrayList<Object>();
+		}
+		return ordering;
+	}
+	
+}
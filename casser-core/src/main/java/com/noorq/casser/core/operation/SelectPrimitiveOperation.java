@@ -0,0 +1,300 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.querybuilder.BuiltStatement;
+import com.noorq.casser.core.AbstractSessionOperations;
+import com.noorq.casser.core.Getter;
+import com.noorq.casser.core.HedgingPolicy;
+import com.noorq.casser.core.Ordered;
+import com.noorq.casser.core.reflect.CasserPropertyNode;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.OrderingDirection;
+import com.noorq.casser.support.CasserMappingException;
+
+/**
+ *  Select of the columns read by index straight into primitive streams or chunks,
+ *  without the boxing of the values and the tuple per row.
+ *
+ *  Null cells are read as 0.
+ *
+ */
+
+public final class SelectPrimitiveOperation<S> extends AbstractFilterOperation<S, SelectPrimitiveOperation<S>> {
+
+	private final SelectOperation<Row> src;
+	private final Function<Iterator<Row>, S> reader;
+	
+	public SelectPrimitiveOperation(AbstractSessionOperations sessionOperations, 
+			Function<Iterator<Row>, S> reader, 
+			CasserPropertyNode... props) {
+		
+		super(sessionOperations);
+		
+		for (CasserPropertyNode prop : props) {
+			if (prop.getNext().isPresent()) {
+				throw new CasserMappingException("primitive select of the nested property " + prop.getColumnName());
+			}
+		}
+		
+		this.src = new SelectOperation<Row>(sessionOperations, (Function<Row, Row>) null, props);
+		this.reader = reader;
+	}
+	
+	public SelectPrimitiveOperation<S> orderBy(Getter<?> getter, OrderingDirection direction) {
+		src.orderBy(getter, direction);
+		return this;
+	}
+	
+	public SelectPrimitiveOperation<S> orderBy(Ordered ordered) {
+		src.orderBy(ordered);
+		return this;
+	}
+	
+	public SelectPrimitiveOperation<S> limit(Integer limit) {
+		src.limit(limit);
+		return this;
+	}
+	
+	public SelectPrimitiveOperation<S> allowFiltering() {
+		src.allowFiltering();
+		return this;
+	}
+	
+	public SelectPrimitiveOperation<S> prefetch() {
+		src.prefetch();
+		return this;
+	}
+	
+	public SelectPrimitiveOperation<S> prefetch(double fraction) {
+		src.prefetch(fraction);
+		return this;
+	}
+	
+	public SelectPrimitiveOperation<S> hedging(HedgingPolicy hedgingPolicy) {
+		src.hedging(hedgingPolicy);
+		return this;
+	}
+	
+	@Override
+	protected HedgingPolicy hedgingPolicy() {
+		return src.hedgingPolicy();
+	}
+	
+	@Override
+	protected String metricsName() {
+		return src.metricsName();
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return src.metricsEntity();
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		return src.isIdempotent();
+	}
+	
+	@Override
+	public BuiltStatement buildStatement() {
+		return source().buildStatement();
+	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return source().buildTemplate();
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+		return source().collectShape(shape);
+	}
+	
+	private SelectOperation<Row> source() {
+		src.filters = filters;
+		src.ifFilters = ifFilters;
+		return src;
+	}
+	
+	@Override
+	public S transform(ResultSet resultSet) {
+		return reader.apply(src.rows(resultSet));
+	}
+	
+	public static LongStream longStream(Iterator<Row> rows) {
+		
+		PrimitiveIterator.OfLong iterator = new PrimitiveIterator.OfLong() {
+
+			@Override
+			public boolean hasNext() {
+				return rows.hasNext();
+			}
+
+			@Override
+			public long nextLong() {
+				return rows.next().getLong(0);
+			}
+			
+		};
+		
+		return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+	}
+	
+	public static IntStream intStream(Iterator<Row> rows) {
+		
+		PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+
+			@Override
+			public boolean hasNext() {
+				return rows.hasNext();
+			}
+
+			@Override
+			public int nextInt() {
+				return rows.next().getInt(0);
+			}
+			
+		};
+		
+		return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+	}
+	
+	public static DoubleStream doubleStream(Iterator<Row> rows) {
+		
+		PrimitiveIterator.OfDouble iterator = new PrimitiveIterator.OfDouble() {
+
+			@Override
+			public boolean hasNext() {
+				return rows.hasNext();
+			}
+
+			@Override
+			public double nextDouble() {
+				return rows.next().getDouble(0);
+			}
+			
+		};
+		
+		return StreamSupport.doubleStream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+	}
+	
+	/**
+	 *  Reader of the rows of long columns into the caller-supplied chunks
+	 *
+	 */
+	
+	public static final class LongChunks {
+		
+		private final Iterator<Row> rows;
+		private final int columns;
+		
+		public LongChunks(Iterator<Row> rows, int columns) {
+			this.rows = rows;
+			this.columns = columns;
+		}
+		
+		public int getColumns() {
+			return columns;
+		}
+		
+		/**
+		 * Fills the chunk row by row and returns the number of rows read, 0 at the end of the result
+		 */
+		
+		public int read(long[] chunk) {
+			
+			int capacity = capacity(chunk.length, columns);
+			int n = 0;
+			
+			for (int offset = 0; n != capacity && rows.hasNext(); ++n) {
+				
+				Row row = rows.next();
+				
+				for (int i = 0; i != columns; ++i) {
+					chunk[offset++] = row.getLong(i);
+				}
+			}
+			
+			return n;
+		}
+		
+	}
+	
+	/**
+	 *  Reader of the rows of double columns into the caller-supplied chunks
+	 *
+	 */
+	
+	public static final class DoubleChunks {
+		
+		private final Iterator<Row> rows;
+		private final int columns;
+		
+		public DoubleChunks(Iterator<Row> rows, int columns) {
+			this.rows = rows;
+			this.columns = columns;
+		}
+		
+		public int getColumns() {
+			return columns;
+		}
+		
+		/**
+		 * Fills the chunk row by row and returns the number of rows read, 0 at the end of the result
+		 */
+		
+		public int read(double[] chunk) {
+			
+			int capacity = capacity(chunk.length, columns);
+			int n = 0;
+			
+			for (int offset = 0; n != capacity && rows.hasNext(); ++n) {
+				
+				Row row = rows.next();
+				
+				for (int i = 0; i != columns; ++i) {
+					chunk[offset++] = row.getDouble(i);
+				}
+			}
+			
+			return n;
+		}
+		
+	}
+	
+	private static int capacity(int length, int columns) {
+		
+		if (length < columns) {
+			throw new IllegalArgumentException("chunk of " + length + " is smaller than the row of " + columns + " columns");
+		}
+		
+		return length / columns;
+	}
+	
+}
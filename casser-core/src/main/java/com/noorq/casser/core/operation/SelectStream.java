@@ -0,0 +1,346 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.datastax.driver.core.querybuilder.BuiltStatement;
+import com.noorq.casser.core.Filter;
+import com.noorq.casser.support.CasserException;
+
+/**
+ *  Stream of the select that executes the query on its first operation that is not pushed down.
+ *
+ *  Filter predicates, limit, findFirst and findAny before the execution become the where clauses 
+ *  and the limit of the query. Like every stream it can be operated upon only once.
+ *
+ */
+
+public final class SelectStream<E> implements Stream<E> {
+
+	private final SelectOperation<E> src;
+	
+	private final List<Filter<?>> filters;
+	private final Integer limit;
+	private final long maxSize;
+	
+	private boolean linked = false;
+	private Stream<E> stream = null;
+	
+	SelectStream(SelectOperation<E> src, List<Filter<?>> filters, Integer limit) {
+		this(src, filters != null ? new ArrayList<Filter<?>>(filters) : new ArrayList<Filter<?>>(), limit, Long.MAX_VALUE);
+	}
+	
+	private SelectStream(SelectOperation<E> src, List<Filter<?>> filters, Integer limit, long maxSize) {
+		this.src = src;
+		this.filters = filters;
+		this.limit = limit;
+		this.maxSize = maxSize;
+	}
+	
+	private void link() {
+		
+		if (linked) {
+			throw new IllegalStateException("stream has already been operated upon or closed");
+		}
+		
+		linked = true;
+	}
+	
+	private Stream<E> stream() {
+		return execute(limit);
+	}
+	
+	private Stream<E> execute(Integer maxRows) {
+		
+		link();
+		
+		stream = src.sync(filters, maxRows);
+		
+		return maxSize != Long.MAX_VALUE ? stream.limit(maxSize) : stream;
+	}
+	
+	/**
+	 * Returns the statement of the select with the filters and the limit of the stream
+	 */
+	
+	public BuiltStatement buildStatement() {
+		return src.buildStatement(filters, limit);
+	}
+	
+	/**
+	 * Adds the Filter to the where clause of the query if it is a valid restriction and the stream 
+	 * is not limited, otherwise the Filter is evaluated on the entities. Filter that can be neither 
+	 * throws CasserException.
+	 */
+	
+	@Override
+	public Stream<E> filter(Predicate<? super E> predicate) {
+		
+		if (predicate instanceof Filter && !linked) {
+			
+			Filter<?> filter = (Filter<?>) predicate;
+			
+			if (limit == null && maxSize == Long.MAX_VALUE && src.canPushDown(filter, filters)) {
+				
+				link();
+				
+				List<Filter<?>> list = new ArrayList<Filter<?>>(filters);
+				list.add(filter);
+				
+				return new SelectStream<E>(src, list, limit, maxSize);
+			}
+			
+			if (!src.canEvaluate(filter)) {
+				throw new CasserException("filter " + filter + " can not be pushed down to the query or evaluated on its rows");
+			}
+		}
+		
+		return stream().filter(predicate);
+	}
+
+	@Override
+	public SelectStream<E> limit(long maxSize) {
+		
+		if (maxSize < 0) {
+			throw new IllegalArgumentException(Long.toString(maxSize));
+		}
+		
+		link();
+		
+		if (maxSize > 0 && maxSize <= Integer.MAX_VALUE) {
+			int rows = (int) maxSize;
+			return new SelectStream<E>(src, filters, limit == null ? rows : Math.min(limit, rows), this.maxSize);
+		}
+		
+		return new SelectStream<E>(src, filters, limit, Math.min(this.maxSize, maxSize));
+	}
+	
+	@Override
+	public Optional<E> findFirst() {
+		return execute(limit == null ? 1 : Math.min(limit, 1)).findFirst();
+	}
+
+	@Override
+	public Optional<E> findAny() {
+		return execute(limit == null ? 1 : Math.min(limit, 1)).findAny();
+	}
+	
+	@Override
+	public boolean anyMatch(Predicate<? super E> predicate) {
+		return stream().anyMatch(predicate);
+	}
+
+	@Override
+	public boolean noneMatch(Predicate<? super E> predicate) {
+		return stream().noneMatch(predicate);
+	}
+	
+	@Override
+	public boolean allMatch(Predicate<? super E> predicate) {
+		return stream().allMatch(predicate);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return stream().iterator();
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		return stream().spliterator();
+	}
+
+	@Override
+	public boolean isParallel() {
+		return false;
+	}
+
+	@Override
+	public Stream<E> sequential() {
+		return stream().sequential();
+	}
+
+	@Override
+	public Stream<E> parallel() {
+		return stream().parallel();
+	}
+
+	@Override
+	public Stream<E> unordered() {
+		return stream().unordered();
+	}
+
+	@Override
+	public Stream<E> onClose(Runnable closeHandler) {
+		return stream().onClose(closeHandler);
+	}
+
+	@Override
+	public void close() {
+		linked = true;
+		if (stream != null) {
+			stream.close();
+		}
+	}
+
+	@Override
+	public <R> Stream<R> map(Function<? super E, ? extends R> mapper) {
+		return stream().map(mapper);
+	}
+
+	@Override
+	public IntStream mapToInt(ToIntFunction<? super E> mapper) {
+		return stream().mapToInt(mapper);
+	}
+
+	@Override
+	public LongStream mapToLong(ToLongFunction<? super E> mapper) {
+		return stream().mapToLong(mapper);
+	}
+
+	@Override
+	public DoubleStream mapToDouble(ToDoubleFunction<? super E> mapper) {
+		return stream().mapToDouble(mapper);
+	}
+
+	@Override
+	public <R> Stream<R> flatMap(Function<? super E, ? extends Stream<? extends R>> mapper) {
+		return stream().flatMap(mapper);
+	}
+
+	@Override
+	public IntStream flatMapToInt(Function<? super E, ? extends IntStream> mapper) {
+		return stream().flatMapToInt(mapper);
+	}
+
+	@Override
+	public LongStream flatMapToLong(Function<? super E, ? extends LongStream> mapper) {
+		return stream().flatMapToLong(mapper);
+	}
+
+	@Override
+	public DoubleStream flatMapToDouble(Function<? super E, ? extends DoubleStream> mapper) {
+		return stream().flatMapToDouble(mapper);
+	}
+
+	@Override
+	public Stream<E> distinct() {
+		return stream().distinct();
+	}
+
+	@Override
+	public Stream<E> sorted() {
+		return stream().sorted();
+	}
+
+	@Override
+	public Stream<E> sorted(Comparator<? super E> comparator) {
+		return stream().sorted(comparator);
+	}
+
+	@Override
+	public Stream<E> peek(Consumer<? super E> action) {
+		return stream().peek(action);
+	}
+
+	@Override
+	public Stream<E> skip(long n) {
+		return stream().skip(n);
+	}
+
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		stream().forEach(action);
+	}
+
+	@Override
+	public void forEachOrdered(Consumer<? super E> action) {
+		stream().forEachOrdered(action);
+	}
+
+	@Override
+	public Object[] toArray() {
+		return stream().toArray();
+	}
+
+	@Override
+	public <A> A[] toArray(IntFunction<A[]> generator) {
+		return stream().toArray(generator);
+	}
+
+	@Override
+	public E reduce(E identity, BinaryOperator<E> accumulator) {
+		return stream().reduce(identity, accumulator);
+	}
+
+	@Override
+	public Optional<E> reduce(BinaryOperator<E> accumulator) {
+		return stream().reduce(accumulator);
+	}
+
+	@Override
+	public <U> U reduce(U identity, BiFunction<U, ? super E, U> accumulator, BinaryOperator<U> combiner) {
+		return stream().reduce(identity, accumulator, combiner);
+	}
+
+	@Override
+	public <R> R collect(Supplier<R> supplier, BiConsumer<R, ? super E> accumulator, BiConsumer<R, R> combiner) {
+		return stream().collect(supplier, accumulator, combiner);
+	}
+
+	@Override
+	public <R, A> R collect(Collector<? super E, A, R> collector) {
+		return stream().collect(collector);
+	}
+
+	@Override
+	public Optional<E> min(Comparator<? super E> comparator) {
+		return stream().min(comparator);
+	}
+
+	@Override
+	public Optional<E> max(Comparator<? super E> comparator) {
+		return stream().max(comparator);
+	}
+
+	@Override
+	public long count() {
+		return stream().count();
+	}
+	
+}
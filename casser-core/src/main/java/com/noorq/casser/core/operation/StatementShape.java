@@ -0,0 +1,84 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.datastax.driver.core.querybuilder.BindMarker;
+import com.noorq.casser.core.Filter;
+import com.noorq.casser.core.Postulate;
+import com.noorq.casser.mapping.value.ColumnValuePreparer;
+
+/**
+ *  Normalized shape of the operation statement: the entity, columns, operators
+ *  and options, without the values. Operations with the same shape share
+ *  one prepared statement, values are bound in the order of bind markers.
+ *
+ */
+
+public final class StatementShape {
+
+	private final List<Object> key = new ArrayList<Object>();
+	private final List<Object> values = new ArrayList<Object>();
+	private boolean bindable = true;
+	
+	public StatementShape add(Object component) {
+		key.add(component);
+		return this;
+	}
+	
+	public StatementShape bind(Object value) {
+		if (value instanceof BindMarker) {
+			bindable = false;
+		}
+		values.add(value);
+		return this;
+	}
+	
+	public StatementShape filter(Filter<?> filter, ColumnValuePreparer valuePreparer) {
+		
+		Postulate<?> postulate = filter.getPostulate();
+		
+		key.add(filter.getNode().getColumnName());
+		key.add(postulate.getOperator());
+		key.add(postulate.size());
+		
+		for (Object value : postulate.prepareValues(filter.getNode(), valuePreparer)) {
+			bind(value);
+		}
+		
+		return this;
+	}
+	
+	public boolean isBindable() {
+		return bindable;
+	}
+	
+	public List<Object> getKey() {
+		return key;
+	}
+	
+	public Object[] getValues() {
+		return values.toArray();
+	}
+
+	@Override
+	public String toString() {
+		return "StatementShape " + key;
+	}
+	
+}
@@ -0,0 +1,215 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.operation;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.datastax.driver.core.ResultSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ *  Cold publisher of the operation results. Every subscription executes the statement
+ *  on the first demand and fetches the next page only when the rows of the current
+ *  page have been delivered and there is still outstanding demand
+ *
+ */
+
+final class StreamPublisher<E> implements Publisher<E> {
+
+	private final AbstractStreamOperation<E, ?> operation;
+
+	StreamPublisher(AbstractStreamOperation<E, ?> operation) {
+		this.operation = operation;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super E> subscriber) {
+		Objects.requireNonNull(subscriber, "empty subscriber");
+		subscriber.onSubscribe(new StreamSubscription<E>(operation, subscriber));
+	}
+
+	private static final class StreamSubscription<E> implements Subscription {
+
+		private final AbstractStreamOperation<E, ?> operation;
+		private final Subscriber<? super E> subscriber;
+
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private volatile boolean cancelled = false;
+		private volatile Throwable error = null;
+		private volatile ResultSet resultSet = null;
+		private volatile Iterator<E> iterator = null;
+		private volatile ListenableFuture<?> pending = null;
+
+		StreamSubscription(AbstractStreamOperation<E, ?> operation, Subscriber<? super E> subscriber) {
+			this.operation = operation;
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+
+			if (n <= 0) {
+				error = new IllegalArgumentException("non-positive request " + n);
+			}
+			else {
+				for (;;) {
+					long current = demand.get();
+					long next = current + n;
+					if (next < 0) {
+						next = Long.MAX_VALUE;
+					}
+					if (demand.compareAndSet(current, next)) {
+						break;
+					}
+				}
+			}
+
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+		private void drain() {
+
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+
+			int missed = 1;
+
+			do {
+
+				try {
+					emit();
+				}
+				catch(RuntimeException e) {
+					error = e;
+					emit();
+				}
+
+				missed = wip.addAndGet(-missed);
+
+			} while (missed != 0);
+
+		}
+
+		private void emit() {
+
+			if (cancelled) {
+				return;
+			}
+
+			if (error != null) {
+				cancelled = true;
+				subscriber.onError(error);
+				return;
+			}
+
+			if (demand.get() == 0) {
+				return;
+			}
+
+			if (resultSet == null) {
+				if (pending == null) {
+					ListenableFuture<ResultSet> future = operation.executeAsync();
+					pending = future;
+					listen(future, result -> {
+						iterator = operation.transform(result).iterator();
+						resultSet = result;
+					});
+				}
+				return;
+			}
+
+			while (demand.get() > 0 && !cancelled) {
+
+				if (resultSet.getAvailableWithoutFetching() == 0) {
+
+					if (resultSet.isFullyFetched()) {
+						cancelled = true;
+						subscriber.onComplete();
+					}
+					else if (pending == null) {
+						
+						// the driver appends the next page to the same result set
+						
+						ListenableFuture<Void> future = resultSet.fetchMoreResults();
+						pending = future;
+						listen(future, result -> {});
+					}
+
+					return;
+				}
+
+				if (!iterator.hasNext()) {
+					cancelled = true;
+					subscriber.onComplete();
+					return;
+				}
+
+				E next = iterator.next();
+				demand.decrementAndGet();
+				subscriber.onNext(next);
+
+			}
+
+		}
+
+		private <T> void listen(ListenableFuture<T> future, Consumer<T> action) {
+
+			Futures.addCallback(future, new FutureCallback<T>() {
+
+				@Override
+				public void onSuccess(T result) {
+					try {
+						action.accept(result);
+					}
+					catch(RuntimeException e) {
+						error = e;
+					}
+					pending = null;
+					drain();
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					error = t;
+					pending = null;
+					drain();
+				}
+
+			}, operation.sessionOps.getExecutor());
+
+		}
+
+	}
+
+}
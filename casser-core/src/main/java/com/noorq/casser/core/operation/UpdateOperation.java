@@ -22,6 +22,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.querybuilder.Assignment;
@@ -45,6 +46,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 	private CasserEntity entity = null;
 	
 	private final List<Assignment> assignments = new ArrayList<Assignment>();
+	private final List<AssignmentShape> assignmentShapes = new ArrayList<AssignmentShape>();
 
 	private int[] ttl;
 	private long[] timestamp;
@@ -58,6 +60,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		
 		Object value = sessionOps.getValuePreparer().prepareColumnValue(v, p.getProperty());
 		assignments.add(QueryBuilder.set(p.getColumnName(), value));
+		addShape("set", p, () -> QueryBuilder.set(p.getColumnName(), QueryBuilder.bindMarker()), value);
 		
 		addPropertyNode(p);
 	}
@@ -69,6 +72,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		
 		Object value = sessionOps.getValuePreparer().prepareColumnValue(v, p.getProperty());
 		assignments.add(QueryBuilder.set(p.getColumnName(), value));
+		addShape("set", p, () -> QueryBuilder.set(p.getColumnName(), QueryBuilder.bindMarker()), value);
 		
 		addPropertyNode(p);
 		
@@ -95,6 +99,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		CasserPropertyNode p = MappingUtil.resolveMappingProperty(counterGetter);
 		
 		assignments.add(QueryBuilder.incr(p.getColumnName(), delta));
+		addShape("incr", p, () -> QueryBuilder.incr(p.getColumnName(), QueryBuilder.bindMarker()), delta);
 		
 		addPropertyNode(p);
 		return this;
@@ -112,6 +117,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		CasserPropertyNode p = MappingUtil.resolveMappingProperty(counterGetter);
 		
 		assignments.add(QueryBuilder.decr(p.getColumnName(), delta));
+		addShape("decr", p, () -> QueryBuilder.decr(p.getColumnName(), QueryBuilder.bindMarker()), delta);
 		
 		addPropertyNode(p);
 		return this;
@@ -135,6 +141,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Object valueObj = prepareSingleListValue(p, value);
 
 		assignments.add(QueryBuilder.prepend(p.getColumnName(), valueObj));
+		addShape("prepend", p, () -> QueryBuilder.prepend(p.getColumnName(), QueryBuilder.bindMarker()), Immutables.listOf(valueObj));
 		
 		addPropertyNode(p);
 		return this;
@@ -149,6 +156,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		List valueObj = prepareListValue(p, value);
 		
 		assignments.add(QueryBuilder.prependAll(p.getColumnName(), valueObj));
+		addShape("prepend", p, () -> QueryBuilder.prepend(p.getColumnName(), QueryBuilder.bindMarker()), valueObj);
 		
 		addPropertyNode(p);
 		return this;
@@ -163,6 +171,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Object valueObj = prepareSingleListValue(p, value);
 		
 		assignments.add(QueryBuilder.setIdx(p.getColumnName(), idx, valueObj));
+		addShape("setIdx:" + idx, p, () -> QueryBuilder.setIdx(p.getColumnName(), idx, QueryBuilder.bindMarker()), valueObj);
 		
 		addPropertyNode(p);
 		return this;
@@ -177,6 +186,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Object valueObj = prepareSingleListValue(p, value);
 
 		assignments.add(QueryBuilder.append(p.getColumnName(), valueObj));
+		addShape("append", p, () -> QueryBuilder.append(p.getColumnName(), QueryBuilder.bindMarker()), Immutables.listOf(valueObj));
 		
 		addPropertyNode(p);
 		return this;
@@ -191,6 +201,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		List valueObj = prepareListValue(p, value);
 
 		assignments.add(QueryBuilder.appendAll(p.getColumnName(), valueObj));
+		addShape("append", p, () -> QueryBuilder.append(p.getColumnName(), QueryBuilder.bindMarker()), valueObj);
 		
 		addPropertyNode(p);
 		return this;
@@ -206,6 +217,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Object valueObj = prepareSingleListValue(p, value);
 		
 		assignments.add(QueryBuilder.discard(p.getColumnName(), valueObj));
+		addShape("discard", p, () -> QueryBuilder.discard(p.getColumnName(), QueryBuilder.bindMarker()), Immutables.listOf(valueObj));
 		
 		addPropertyNode(p);
 		return this;
@@ -220,6 +232,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		List valueObj = prepareListValue(p, value);
 
 		assignments.add(QueryBuilder.discardAll(p.getColumnName(), valueObj));
+		addShape("discard", p, () -> QueryBuilder.discard(p.getColumnName(), QueryBuilder.bindMarker()), valueObj);
 		
 		addPropertyNode(p);
 		return this;
@@ -270,6 +283,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Object valueObj = prepareSingleSetValue(p, value);
 
 		assignments.add(QueryBuilder.add(p.getColumnName(), valueObj));
+		addShape("add", p, () -> QueryBuilder.add(p.getColumnName(), QueryBuilder.bindMarker()), Immutables.setOf(valueObj));
 		
 		addPropertyNode(p);
 		return this;
@@ -284,6 +298,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Set valueObj = prepareSetValue(p, value);
 		
 		assignments.add(QueryBuilder.addAll(p.getColumnName(), valueObj));
+		addShape("add", p, () -> QueryBuilder.add(p.getColumnName(), QueryBuilder.bindMarker()), valueObj);
 		
 		addPropertyNode(p);
 		return this;
@@ -298,6 +313,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Object valueObj = prepareSingleSetValue(p, value);
 		
 		assignments.add(QueryBuilder.remove(p.getColumnName(), valueObj));
+		addShape("remove", p, () -> QueryBuilder.remove(p.getColumnName(), QueryBuilder.bindMarker()), Immutables.setOf(valueObj));
 		
 		addPropertyNode(p);
 		return this;
@@ -312,6 +328,7 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		Set valueObj = prepareSetValue(p, value);
 		
 		assignments.add(QueryBuilder.removeAll(p.getColumnName(), valueObj));
+		addShape("remove", p, () -> QueryBuilder.remove(p.getColumnName(), QueryBuilder.bindMarker()), valueObj);
 		
 		addPropertyNode(p);
 		return this;
@@ -365,10 +382,12 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 			Map<Object, Object> convertedMap = (Map<Object, Object>) converter.get().apply(Immutables.mapOf(key, value));
 			for (Map.Entry<Object, Object> e : convertedMap.entrySet()) {
 				assignments.add(QueryBuilder.put(p.getColumnName(), e.getKey(), e.getValue()));
+				addShape("put", p, () -> QueryBuilder.put(p.getColumnName(), QueryBuilder.bindMarker(), QueryBuilder.bindMarker()), e.getKey(), e.getValue());
 			}
 		}
 		else {
 			assignments.add(QueryBuilder.put(p.getColumnName(), key, value));
+			addShape("put", p, () -> QueryBuilder.put(p.getColumnName(), QueryBuilder.bindMarker(), QueryBuilder.bindMarker()), key, value);
 		}
 		
 		addPropertyNode(p);
@@ -387,17 +406,127 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		if (converter.isPresent()) {
 			Map convertedMap = (Map) converter.get().apply(map);
 			assignments.add(QueryBuilder.putAll(p.getColumnName(), convertedMap));
+			addShape("putAll", p, null);
 		}
 		else {
 			assignments.add(QueryBuilder.putAll(p.getColumnName(), map));
+			addShape("putAll", p, null);
 		}
 		
 		addPropertyNode(p);
 		return this;
     }
 	
+	@Override
+	protected String metricsName() {
+		return "update";
+	}
+	
+	@Override
+	protected CasserEntity metricsEntity() {
+		return entity;
+	}
+	
 	@Override
 	public BuiltStatement buildStatement() {
+		return buildUpdate(false);
+	}
+	
+	@Override
+	protected BuiltStatement buildTemplate() {
+		return buildUpdate(true);
+	}
+	
+	@Override
+	protected boolean collectShape(StatementShape shape) {
+		
+		if (entity == null) {
+			return false;
+		}
+		
+		shape.add("update").add(entity);
+		
+		shape.add(this.ttl != null).add(this.timestamp != null);
+		
+		if (this.ttl != null) {
+			shape.bind(this.ttl[0]);
+		}
+		if (this.timestamp != null) {
+			shape.bind(this.timestamp[0]);
+		}
+		
+		for (AssignmentShape assignmentShape : assignmentShapes) {
+			
+			if (assignmentShape.template == null) {
+				return false;
+			}
+			
+			shape.add(assignmentShape.kind).add(assignmentShape.columnName);
+			
+			for (Object value : assignmentShape.values) {
+				shape.bind(value);
+			}
+		}
+		
+		if (filters != null && !filters.isEmpty()) {
+			for (Filter<?> filter : filters) {
+				shape.filter(filter, sessionOps.getValuePreparer());
+			}
+		}
+		
+		if (ifFilters != null && !ifFilters.isEmpty()) {
+			
+			shape.add(ifFilters.size());
+			
+			for (Filter<?> filter : ifFilters) {
+				shape.filter(filter, sessionOps.getValuePreparer());
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	protected PartitionKey partitionKey() {
+		return PartitionKey.fromFilters(entity, filters, sessionOps.getValuePreparer());
+	}
+	
+	@Override
+	protected boolean isConditional() {
+		return ifFilters != null && !ifFilters.isEmpty();
+	}
+	
+	@Override
+	protected boolean inferIdempotent() {
+		
+		if (isConditional()) {
+			return false;
+		}
+		
+		for (AssignmentShape assignmentShape : assignmentShapes) {
+			switch(assignmentShape.kind) {
+			case "incr":
+			case "decr":
+			case "prepend":
+			case "append":
+				return false;
+			}
+		}
+		
+		return timestamp != null || isTimestampFixed();
+	}
+	
+	@Override
+	protected boolean isCounter() {
+		for (AssignmentShape assignmentShape : assignmentShapes) {
+			if ("incr".equals(assignmentShape.kind) || "decr".equals(assignmentShape.kind)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private BuiltStatement buildUpdate(boolean template) {
 		
 		if (entity == null) {
 			throw new CasserMappingException("empty update operation");
@@ -405,29 +534,36 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 		
 		Update update = QueryBuilder.update(entity.getName().toCql());
 
-		for (Assignment assignment : assignments) {
-			update.with(assignment);
+		if (template) {
+			for (AssignmentShape assignmentShape : assignmentShapes) {
+				update.with(assignmentShape.template.get());
+			}
+		}
+		else {
+			for (Assignment assignment : assignments) {
+				update.with(assignment);
+			}
 		}
 
 		if (filters != null && !filters.isEmpty()) {
 			
 			for (Filter<?> filter : filters) {
-				update.where(filter.getClause(sessionOps.getValuePreparer()));
+				update.where(template ? filter.getBindClause() : filter.getClause(sessionOps.getValuePreparer()));
 			}
 		}
 		
 		if (ifFilters != null && !ifFilters.isEmpty()) {
 			
 			for (Filter<?> filter : ifFilters) {
-				update.onlyIf(filter.getClause(sessionOps.getValuePreparer()));
+				update.onlyIf(template ? filter.getBindClause() : filter.getClause(sessionOps.getValuePreparer()));
 			}
 		}
 		
 		if (this.ttl != null) {
-			update.using(QueryBuilder.ttl(this.ttl[0]));
+			update.using(template ? QueryBuilder.ttl(QueryBuilder.bindMarker()) : QueryBuilder.ttl(this.ttl[0]));
 		}
 		if (this.timestamp != null) {
-			update.using(QueryBuilder.timestamp(this.timestamp[0]));
+			update.using(template ? QueryBuilder.timestamp(QueryBuilder.bindMarker()) : QueryBuilder.timestamp(this.timestamp[0]));
 		}
 		
 		return update;
@@ -458,4 +594,24 @@ public final class UpdateOperation extends AbstractFilterOperation<ResultSet, Up
 			throw new CasserMappingException("you can update columns only in single entity " + entity.getMappingInterface() + " or " + p.getEntity().getMappingInterface());
 		}
 	}
+	
+	private void addShape(String kind, CasserPropertyNode p, Supplier<Assignment> template, Object... values) {
+		assignmentShapes.add(new AssignmentShape(kind, p.getColumnName(), template, values));
+	}
+	
+	private static final class AssignmentShape {
+		
+		private final String kind;
+		private final String columnName;
+		private final Supplier<Assignment> template;
+		private final Object[] values;
+		
+		AssignmentShape(String kind, String columnName, Supplier<Assignment> template, Object[] values) {
+			this.kind = kind;
+			this.columnName = columnName;
+			this.template = template;
+			this.values = values;
+		}
+		
+	}
 }
@@ -0,0 +1,88 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.reflect;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserMappingEntity;
+import com.noorq.casser.mapping.GeneratedEntityMetadata;
+import com.noorq.casser.mapping.GeneratedPropertyMetadata;
+
+/**
+ *  Base class of the DSL implementations generated at compile time by casser-processor.
+ *
+ *  Entity is built from the generated metadata. Generated getter calls casserChild with the
+ *  index of its property in the metadata, that returns the nested DSL object or records the
+ *  property node as DslInvocationHandler does.
+ *
+ */
+
+public abstract class AbstractGeneratedDsl implements DslExportable {
+	
+	private final CasserEntity entity;
+	private final Optional<CasserPropertyNode> parent;
+	
+	private final CasserPropertyNode[] nodes;
+	private final Object[] children;
+	
+	protected AbstractGeneratedDsl(GeneratedEntityMetadata metadata, ClassLoader classLoader, Optional<CasserPropertyNode> parent) {
+		
+		this.entity = new CasserMappingEntity(metadata);
+		this.parent = parent;
+		
+		List<GeneratedPropertyMetadata> props = metadata.getProperties();
+		
+		this.nodes = new CasserPropertyNode[props.size()];
+		this.children = new Object[props.size()];
+		
+		for (int i = 0; i != nodes.length; ++i) {
+			
+			CasserPropertyNode node = new CasserPropertyNode(entity.getProperty(props.get(i).getName()), parent);
+			
+			nodes[i] = node;
+			children[i] = DslInvocationHandler.childOf(node.getProperty(), node, classLoader);
+		}
+	}
+	
+	protected final Object casserChild(int index) {
+		
+		Object child = children[index];
+		
+		if (child == null) {
+			DslPropertyRecorder.record(nodes[index]);
+		}
+		
+		return child;
+	}
+	
+	@Override
+	public CasserEntity getCasserMappingEntity() {
+		return entity;
+	}
+	
+	@Override
+	public CasserPropertyNode getParentDslCasserPropertyNode() {
+		return parent.get();
+	}
+	
+	@Override
+	public String toString() {
+		return entity.toString();
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.reflect;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  Base class of the entity implementations generated by GeneratedMapperInstantiator.
+ *
+ *  Generated subclass keeps one final field per getter of the mapping interface and
+ *  returns the values of the fields in the order of the names.
+ *
+ */
+
+public abstract class AbstractGeneratedEntity implements MapExportable {
+
+	private final Class<?> iface;
+	private final String[] names;
+	
+	protected AbstractGeneratedEntity(Class<?> iface, String[] names) {
+		this.iface = iface;
+		this.names = names;
+	}
+	
+	protected abstract Object[] casserValues();
+	
+	@Override
+	public Map<String, Object> toMap() {
+		
+		Object[] values = casserValues();
+		Map<String, Object> map = new LinkedHashMap<String, Object>(names.length * 2);
+		
+		for (int i = 0; i != names.length; ++i) {
+			map.put(names[i], values[i]);
+		}
+		
+		return Collections.unmodifiableMap(map);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		
+		if (this == obj) {
+			return true;
+		}
+		
+		if (obj == null || obj.getClass() != getClass()) {
+			return false;
+		}
+		
+		return Arrays.equals(casserValues(), ((AbstractGeneratedEntity) obj).casserValues());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(casserValues());
+	}
+	
+	@Override
+	public String toString() {
+		return iface.getSimpleName() + ": " + toMap();
+	}
+	
+	public static boolean booleanValue(Object value) {
+		return value != null ? ((Boolean) value).booleanValue() : false;
+	}
+
+	public static byte byteValue(Object value) {
+		return value != null ? ((Byte) value).byteValue() : (byte) 0;
+	}
+
+	public static char charValue(Object value) {
+		return value != null ? ((Character) value).charValue() : (char) 0;
+	}
+
+	public static short shortValue(Object value) {
+		return value != null ? ((Short) value).shortValue() : (short) 0;
+	}
+
+	public static int intValue(Object value) {
+		return value != null ? ((Integer) value).intValue() : 0;
+	}
+
+	public static long longValue(Object value) {
+		return value != null ? ((Long) value).longValue() : 0L;
+	}
+
+	public static float floatValue(Object value) {
+		return value != null ? ((Float) value).floatValue() : 0.0f;
+	}
+
+	public static double doubleValue(Object value) {
+		return value != null ? ((Double) value).doubleValue() : 0.0;
+	}
+	
+}
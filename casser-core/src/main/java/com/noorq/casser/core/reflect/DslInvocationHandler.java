@@ -23,7 +23,6 @@ import java.util.Map;
 import java.util.Optional;
 
 import com.datastax.driver.core.DataType;
-import com.datastax.driver.core.TupleType;
 import com.datastax.driver.core.TupleValue;
 import com.datastax.driver.core.UDTValue;
 import com.noorq.casser.core.Casser;
@@ -34,17 +33,16 @@ import com.noorq.casser.mapping.type.AbstractDataType;
 import com.noorq.casser.mapping.type.DTDataType;
 import com.noorq.casser.mapping.type.UDTDataType;
 import com.noorq.casser.support.CasserException;
-import com.noorq.casser.support.DslPropertyException;
+import com.noorq.casser.support.CasserMappingException;
 
 public class DslInvocationHandler<E> implements InvocationHandler {
 
 	private final CasserEntity entity;
 	private final Optional<CasserPropertyNode> parent;
 	
-	private final Map<Method, CasserProperty> map = new HashMap<Method, CasserProperty>();
+	private final Map<Method, CasserPropertyNode> nodes = new HashMap<Method, CasserPropertyNode>();
 	
-	private final Map<Method, Object> udtMap = new HashMap<Method, Object>();
-	private final Map<Method, Object> tupleMap = new HashMap<Method, Object>();
+	private final Map<Method, Object> childMap = new HashMap<Method, Object>();
 
 	public DslInvocationHandler(Class<E> iface, ClassLoader classLoader, Optional<CasserPropertyNode> parent) {
 		
@@ -53,39 +51,99 @@ public class DslInvocationHandler<E> implements InvocationHandler {
 		
 		for (CasserProperty prop : entity.getOrderedProperties()) {
 			
-			map.put(prop.getGetterMethod(), prop);
+			CasserPropertyNode node = new CasserPropertyNode(prop, parent);
+			nodes.put(prop.getGetterMethod(), node);
 			
-			AbstractDataType type = prop.getDataType();
-			Class<?> javaType = prop.getJavaType();
+			Object child = childOf(prop, node, classLoader);
 			
-			if (type instanceof UDTDataType && !UDTValue.class.isAssignableFrom(javaType)) {
-
-				Object childDsl = Casser.dsl(javaType, classLoader,
-						Optional.of(new CasserPropertyNode(prop, parent)));
-				
-				udtMap.put(prop.getGetterMethod(), childDsl);
+			if (child != null) {
+				childMap.put(prop.getGetterMethod(), child);
 			}
 			
-			if (type instanceof DTDataType) {
-				DTDataType dataType = (DTDataType) type;
+		}
+	}
+	
+	/**
+	 * Returns the DSL object of the property that has nested properties or null
+	 */
+	
+	static Object childOf(CasserProperty prop, CasserPropertyNode node, ClassLoader classLoader) {
+		
+		AbstractDataType type = prop.getDataType();
+		Class<?> javaType = prop.getJavaType();
+		
+		if (type instanceof UDTDataType && !UDTValue.class.isAssignableFrom(javaType)) {
+			return childDsl(javaType, classLoader, node);
+		}
+		
+		if (type instanceof DTDataType) {
+			DTDataType dataType = (DTDataType) type;
+			DataType dt = dataType.getDataType();
+			
+			switch(dt.getName()) {
+			
+			case TUPLE:
 				
-				if (dataType.getDataType() instanceof TupleType && !TupleValue.class.isAssignableFrom(javaType)) {
-					
-					Object childDsl = Casser.dsl(javaType, classLoader,
-							Optional.of(new CasserPropertyNode(prop, parent)));
-					
-					tupleMap.put(prop.getGetterMethod(), childDsl);
-					
+				if (!TupleValue.class.isAssignableFrom(javaType)) {
+					return childDsl(javaType, classLoader, node);
 				}
+				
+				break;
+				
+			case SET:
+				return new SetDsl(node);
+				
+			case LIST:
+				return new ListDsl(node);
+
+			case MAP:
+				return new MapDsl(node);
+
+			default:
+				break;
+				
+			}
+		}
+		
+		return null;
+	}
+	
+	private static Object childDsl(Class<?> javaType, ClassLoader classLoader, CasserPropertyNode node) {
+		
+		for (CasserProperty prop : node) {
+			if (prop.getEntity().getMappingInterface() == javaType) {
+				throw new CasserMappingException("cyclic dependency between user types at " + node.getColumnName());
 			}
-			
 		}
+		
+		return Casser.dsl(javaType, classLoader, Optional.of(node));
 	}
 	
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args)
 			throws Throwable {
 		
+		Object childDsl = childMap.get(method);
+		
+		if (childDsl != null) {
+			return childDsl;
+		}
+		
+		CasserPropertyNode node = nodes.get(method);
+		
+		if (node != null) {
+			
+			DslPropertyRecorder.record(node);
+			
+			Class<?> returnType = method.getReturnType();
+			
+			if (returnType.isPrimitive()) {
+				return DefaultPrimitiveTypes.lookup(returnType).getDefaultValue();
+			}
+			
+			return null;
+		}
+		
 		String methodName = method.getName();
 		
 		if ("equals".equals(methodName) && method.getParameterCount() == 1) {
@@ -119,58 +177,6 @@ public class DslInvocationHandler<E> implements InvocationHandler {
 			return parent.get();
 		}
 		
-		CasserProperty prop = map.get(method);
-		
-		if (prop != null) {
-			
-			AbstractDataType type = prop.getDataType();
-			
-			if (type instanceof UDTDataType) {
-				
-				Object childDsl = udtMap.get(method);
-				
-				if (childDsl != null) {
-					return childDsl;
-				}
-				
-			}
-			
-			if (type instanceof DTDataType) {
-				DTDataType dataType = (DTDataType) type;
-				DataType dt = dataType.getDataType();
-				
-				switch(dt.getName()) {
-				
-				case TUPLE:
-					
-					Object childDsl = tupleMap.get(method);
-					
-					if (childDsl != null) {
-						return childDsl;
-					}
-					
-					break;
-					
-				case SET:
-					return new SetDsl(new CasserPropertyNode(prop, parent));
-					
-				case LIST:
-					return new ListDsl(new CasserPropertyNode(prop, parent));
-
-				case MAP:
-					return new MapDsl(new CasserPropertyNode(prop, parent));
-
-				default:
-					break;
-					
-				}
-				
-
-			}
-			
-			throw new DslPropertyException(new CasserPropertyNode(prop, parent));	
-		}
-		
 		throw new CasserException("invalid method call " + method);
 	}
 
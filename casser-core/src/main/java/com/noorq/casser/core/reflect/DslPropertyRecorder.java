@@ -0,0 +1,59 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.reflect;
+
+/**
+ *  Keeps the property node of the last leaf getter called on the DSL objects in the current thread.
+ *
+ *  Leaf getters can not return the node itself because of the return type of the mapping
+ *  interface, so they record it here and return the default value of the type.
+ *
+ */
+
+public final class DslPropertyRecorder {
+
+	private static final ThreadLocal<CasserPropertyNode[]> recorded = new ThreadLocal<CasserPropertyNode[]>() {
+
+		@Override
+		protected CasserPropertyNode[] initialValue() {
+			return new CasserPropertyNode[1];
+		}
+		
+	};
+	
+	private DslPropertyRecorder() {
+	}
+	
+	static void record(CasserPropertyNode node) {
+		recorded.get()[0] = node;
+	}
+	
+	public static void clear() {
+		recorded.get()[0] = null;
+	}
+	
+	/**
+	 * Returns the recorded node or null and clears the record
+	 */
+	
+	public static CasserPropertyNode take() {
+		CasserPropertyNode[] slot = recorded.get();
+		CasserPropertyNode node = slot[0];
+		slot[0] = null;
+		return node;
+	}
+	
+}
@@ -0,0 +1,454 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.primitives.Primitives;
+import com.noorq.casser.support.CasserException;
+
+/**
+ *  Writes the class file of the entity implementation.
+ *
+ *  Generated class extends AbstractGeneratedEntity, implements the mapping interface,
+ *  copies the values from the source map to the final fields in the constructor and
+ *  returns them from the getters. The code has no branches, therefore the class does
+ *  not need the stack map frames.
+ *
+ */
+
+final class EntityClassWriter {
+
+	private static final int VERSION = 52;
+	
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PRIVATE = 0x0002;
+	private static final int ACC_PROTECTED = 0x0004;
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+	
+	private static final int ICONST_0 = 0x03;
+	private static final int BIPUSH = 0x10;
+	private static final int SIPUSH = 0x11;
+	private static final int LDC = 0x12;
+	private static final int LDC_W = 0x13;
+	private static final int ALOAD_0 = 0x2a;
+	private static final int ALOAD_1 = 0x2b;
+	private static final int AASTORE = 0x53;
+	private static final int DUP = 0x59;
+	private static final int IRETURN = 0xac;
+	private static final int LRETURN = 0xad;
+	private static final int FRETURN = 0xae;
+	private static final int DRETURN = 0xaf;
+	private static final int ARETURN = 0xb0;
+	private static final int RETURN = 0xb1;
+	private static final int GETSTATIC = 0xb2;
+	private static final int PUTSTATIC = 0xb3;
+	private static final int GETFIELD = 0xb4;
+	private static final int PUTFIELD = 0xb5;
+	private static final int INVOKESPECIAL = 0xb7;
+	private static final int INVOKESTATIC = 0xb8;
+	private static final int INVOKEINTERFACE = 0xb9;
+	private static final int ANEWARRAY = 0xbd;
+	private static final int CHECKCAST = 0xc0;
+	
+	private static final String BASE = internalName(AbstractGeneratedEntity.class);
+	private static final String NAMES = "NAMES";
+	private static final String NAMES_DESC = "[Ljava/lang/String;";
+	
+	private final String className;
+	private final Class<?> iface;
+	private final List<Method> getters;
+	
+	private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+	private final DataOutputStream pool = new DataOutputStream(poolBytes);
+	private final Map<String, Integer> constants = new HashMap<String, Integer>();
+	private int poolSize = 1;
+	
+	EntityClassWriter(String className, Class<?> iface, List<Method> getters) {
+		this.className = internalName(className);
+		this.iface = iface;
+		this.getters = getters;
+	}
+	
+	byte[] write() {
+		try {
+			return doWrite();
+		} catch (IOException e) {
+			throw new CasserException(e);
+		}
+	}
+	
+	private byte[] doWrite() throws IOException {
+		
+		ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+		DataOutputStream body = new DataOutputStream(bodyBytes);
+		
+		body.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+		body.writeShort(classRef(className));
+		body.writeShort(classRef(BASE));
+		body.writeShort(1);
+		body.writeShort(classRef(internalName(iface)));
+		
+		body.writeShort(getters.size() + 1);
+		writeField(body, ACC_PRIVATE | ACC_STATIC | ACC_FINAL, NAMES, NAMES_DESC);
+		for (Method getter : getters) {
+			writeField(body, ACC_PRIVATE | ACC_FINAL, getter.getName(), descriptor(getter.getReturnType()));
+		}
+		
+		body.writeShort(getters.size() + 3);
+		writeMethod(body, ACC_STATIC, "<clinit>", "()V", 4, 0, staticInitializer());
+		writeMethod(body, ACC_PUBLIC, "<init>", "(Ljava/util/Map;)V", 4, 2, constructor());
+		writeMethod(body, ACC_PROTECTED, "casserValues", "()[Ljava/lang/Object;", 5, 1, values());
+		for (Method getter : getters) {
+			writeMethod(body, ACC_PUBLIC, getter.getName(), "()" + descriptor(getter.getReturnType()), 2, 1, getter(getter));
+		}
+		
+		body.writeShort(0);
+		body.flush();
+		
+		pool.flush();
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream(8 + poolBytes.size() + bodyBytes.size());
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(0xCAFEBABE);
+		data.writeShort(0);
+		data.writeShort(VERSION);
+		data.writeShort(poolSize);
+		poolBytes.writeTo(data);
+		bodyBytes.writeTo(data);
+		data.flush();
+		
+		return out.toByteArray();
+	}
+	
+	private byte[] staticInitializer() throws IOException {
+		
+		Code code = new Code();
+		
+		code.pushInt(getters.size());
+		code.op(ANEWARRAY).u2(classRef("java/lang/String"));
+		
+		for (int i = 0; i != getters.size(); ++i) {
+			code.op(DUP);
+			code.pushInt(i);
+			code.ldc(stringRef(getters.get(i).getName()));
+			code.op(AASTORE);
+		}
+		
+		code.op(PUTSTATIC).u2(fieldRef(className, NAMES, NAMES_DESC));
+		code.op(RETURN);
+		
+		return code.toByteArray();
+	}
+	
+	private byte[] constructor() throws IOException {
+		
+		Code code = new Code();
+		
+		code.op(ALOAD_0);
+		code.ldc(classRef(internalName(iface)));
+		code.op(GETSTATIC).u2(fieldRef(className, NAMES, NAMES_DESC));
+		code.op(INVOKESPECIAL).u2(methodRef(BASE, "<init>", "(Ljava/lang/Class;[Ljava/lang/String;)V", false));
+		
+		for (Method getter : getters) {
+			
+			Class<?> type = getter.getReturnType();
+			
+			code.op(ALOAD_0);
+			code.op(ALOAD_1);
+			code.ldc(stringRef(getter.getName()));
+			code.op(INVOKEINTERFACE).u2(methodRef("java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", true)).u1(2).u1(0);
+			
+			if (type.isPrimitive()) {
+				code.op(INVOKESTATIC).u2(methodRef(BASE, type.getName() + "Value", "(Ljava/lang/Object;)" + descriptor(type), false));
+			}
+			else if (type != Object.class) {
+				code.op(CHECKCAST).u2(classRef(internalName(type)));
+			}
+			
+			code.op(PUTFIELD).u2(fieldRef(className, getter.getName(), descriptor(type)));
+		}
+		
+		code.op(RETURN);
+		
+		return code.toByteArray();
+	}
+	
+	private byte[] values() throws IOException {
+		
+		Code code = new Code();
+		
+		code.pushInt(getters.size());
+		code.op(ANEWARRAY).u2(classRef("java/lang/Object"));
+		
+		for (int i = 0; i != getters.size(); ++i) {
+			
+			Class<?> type = getters.get(i).getReturnType();
+			
+			code.op(DUP);
+			code.pushInt(i);
+			code.op(ALOAD_0);
+			code.op(GETFIELD).u2(fieldRef(className, getters.get(i).getName(), descriptor(type)));
+			
+			if (type.isPrimitive()) {
+				String wrapper = internalName(Primitives.wrap(type));
+				code.op(INVOKESTATIC).u2(methodRef(wrapper, "valueOf", "(" + descriptor(type) + ")L" + wrapper + ";", false));
+			}
+			
+			code.op(AASTORE);
+		}
+		
+		code.op(ARETURN);
+		
+		return code.toByteArray();
+	}
+	
+	private byte[] getter(Method getter) throws IOException {
+		
+		Class<?> type = getter.getReturnType();
+		
+		Code code = new Code();
+		
+		code.op(ALOAD_0);
+		code.op(GETFIELD).u2(fieldRef(className, getter.getName(), descriptor(type)));
+		code.op(returnOpcode(type));
+		
+		return code.toByteArray();
+	}
+	
+	private void writeField(DataOutputStream out, int access, String name, String descriptor) throws IOException {
+		out.writeShort(access);
+		out.writeShort(utf8(name));
+		out.writeShort(utf8(descriptor));
+		out.writeShort(0);
+	}
+	
+	private void writeMethod(DataOutputStream out, int access, String name, String descriptor, 
+			int maxStack, int maxLocals, byte[] code) throws IOException {
+		
+		out.writeShort(access);
+		out.writeShort(utf8(name));
+		out.writeShort(utf8(descriptor));
+		out.writeShort(1);
+		
+		out.writeShort(utf8("Code"));
+		out.writeInt(12 + code.length);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+	
+	private int utf8(String value) throws IOException {
+		
+		String key = "utf8:" + value;
+		Integer index = constants.get(key);
+		
+		if (index == null) {
+			pool.writeByte(1);
+			pool.writeUTF(value);
+			index = add(key);
+		}
+		
+		return index;
+	}
+	
+	private int classRef(String internalName) throws IOException {
+		
+		String key = "class:" + internalName;
+		Integer index = constants.get(key);
+		
+		if (index == null) {
+			int name = utf8(internalName);
+			pool.writeByte(7);
+			pool.writeShort(name);
+			index = add(key);
+		}
+		
+		return index;
+	}
+	
+	private int stringRef(String value) throws IOException {
+		
+		String key = "string:" + value;
+		Integer index = constants.get(key);
+		
+		if (index == null) {
+			int utf = utf8(value);
+			pool.writeByte(8);
+			pool.writeShort(utf);
+			index = add(key);
+		}
+		
+		return index;
+	}
+	
+	private int nameAndType(String name, String descriptor) throws IOException {
+		
+		String key = "nat:" + name + ":" + descriptor;
+		Integer index = constants.get(key);
+		
+		if (index == null) {
+			int n = utf8(name);
+			int d = utf8(descriptor);
+			pool.writeByte(12);
+			pool.writeShort(n);
+			pool.writeShort(d);
+			index = add(key);
+		}
+		
+		return index;
+	}
+	
+	private int fieldRef(String owner, String name, String descriptor) throws IOException {
+		return memberRef(9, owner, name, descriptor);
+	}
+	
+	private int methodRef(String owner, String name, String descriptor, boolean isInterface) throws IOException {
+		return memberRef(isInterface ? 11 : 10, owner, name, descriptor);
+	}
+	
+	private int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+		
+		String key = "member" + tag + ":" + owner + "." + name + ":" + descriptor;
+		Integer index = constants.get(key);
+		
+		if (index == null) {
+			int c = classRef(owner);
+			int nat = nameAndType(name, descriptor);
+			pool.writeByte(tag);
+			pool.writeShort(c);
+			pool.writeShort(nat);
+			index = add(key);
+		}
+		
+		return index;
+	}
+	
+	private Integer add(String key) {
+		
+		if (poolSize == 0xFFFF) {
+			throw new CasserException("too many constants in the generated class " + className);
+		}
+		
+		Integer index = poolSize++;
+		constants.put(key, index);
+		return index;
+	}
+	
+	private static int returnOpcode(Class<?> type) {
+		
+		if (!type.isPrimitive()) {
+			return ARETURN;
+		}
+		else if (type == long.class) {
+			return LRETURN;
+		}
+		else if (type == float.class) {
+			return FRETURN;
+		}
+		else if (type == double.class) {
+			return DRETURN;
+		}
+		
+		return IRETURN;
+	}
+	
+	static String internalName(Class<?> type) {
+		return internalName(type.getName());
+	}
+	
+	static String internalName(String className) {
+		return className.replace('.', '/');
+	}
+	
+	static String descriptor(Class<?> type) {
+		
+		if (type.isPrimitive()) {
+			
+			if (type == boolean.class) return "Z";
+			if (type == byte.class) return "B";
+			if (type == char.class) return "C";
+			if (type == short.class) return "S";
+			if (type == int.class) return "I";
+			if (type == long.class) return "J";
+			if (type == float.class) return "F";
+			if (type == double.class) return "D";
+			
+			return "V";
+		}
+		
+		if (type.isArray()) {
+			return internalName(type);
+		}
+		
+		return "L" + internalName(type) + ";";
+	}
+	
+	private static final class Code {
+		
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		
+		Code op(int opcode) {
+			bytes.write(opcode);
+			return this;
+		}
+		
+		Code u1(int value) {
+			bytes.write(value);
+			return this;
+		}
+		
+		Code u2(int value) {
+			bytes.write(value >>> 8);
+			bytes.write(value);
+			return this;
+		}
+		
+		Code ldc(int index) {
+			if (index < 256) {
+				return op(LDC).u1(index);
+			}
+			return op(LDC_W).u2(index);
+		}
+		
+		Code pushInt(int value) {
+			if (value <= 5) {
+				return op(ICONST_0 + value);
+			}
+			else if (value <= Byte.MAX_VALUE) {
+				return op(BIPUSH).u1(value);
+			}
+			return op(SIPUSH).u2(value);
+		}
+		
+		byte[] toByteArray() {
+			return bytes.toByteArray();
+		}
+		
+	}
+	
+}
@@ -0,0 +1,187 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.noorq.casser.core.MapperInstantiator;
+
+/**
+ *  Instantiates the mapped entities as objects of the classes generated once per mapping
+ *  interface. The values are copied from the source map at construction, getters read the
+ *  fields directly, equals and hashCode compare the values.
+ *
+ *  Classes generated at compile time by casser-processor are used when present.
+ *  Interfaces that can not be implemented by the generated class (not public, with methods
+ *  that have parameters, return void or a type that is not public) are mapped by 
+ *  ReflectionMapperInstantiator. The generated class is defined by its own class loader, 
+ *  therefore it does not share the runtime package with the interface.
+ *
+ */
+
+public enum GeneratedMapperInstantiator implements MapperInstantiator {
+
+	INSTANCE;
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Map.class);
+	private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, Map.class);
+	
+	private final ClassValue<Optional<MethodHandle>> factories = new ClassValue<Optional<MethodHandle>>() {
+
+		@Override
+		protected Optional<MethodHandle> computeValue(Class<?> iface) {
+			return generate(iface);
+		}
+		
+	};
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public <E> E instantiate(Class<E> iface, Map<String, Object> src,
+			ClassLoader classLoader) {
+		
+		Optional<MethodHandle> factory = factories.get(iface);
+		
+		if (!factory.isPresent()) {
+			return ReflectionMapperInstantiator.INSTANCE.instantiate(iface, src, classLoader);
+		}
+		
+		return (E) PrecompiledMappers.instantiate(factory.get(), src);
+	}
+	
+	private static Optional<MethodHandle> generate(Class<?> iface) {
+		
+		Optional<MethodHandle> precompiled = PrecompiledMappers.factoryOf(iface);
+		
+		if (precompiled.isPresent()) {
+			return precompiled;
+		}
+		
+		if (!iface.isInterface() || !Modifier.isPublic(iface.getModifiers()) || iface.getClassLoader() == null) {
+			return Optional.empty();
+		}
+		
+		List<Method> getters = getters(iface);
+		
+		if (getters == null) {
+			return Optional.empty();
+		}
+		
+		String className = iface.getName() + PrecompiledMappers.CLASS_SUFFIX;
+		byte[] bytes = new EntityClassWriter(className, iface, getters).write();
+		
+		try {
+			Class<?> implClass = new EntityClassLoader(iface.getClassLoader()).define(className, bytes);
+			Class.forName(className, true, implClass.getClassLoader());
+			
+			MethodHandle constructor = MethodHandles.publicLookup().findConstructor(implClass, CONSTRUCTOR_TYPE);
+			return Optional.of(constructor.asType(FACTORY_TYPE));
+		}
+		catch(LinkageError | ReflectiveOperationException e) {
+			return Optional.empty();
+		}
+	}
+	
+	private static List<Method> getters(Class<?> iface) {
+		
+		Map<String, Method> getters = new LinkedHashMap<String, Method>();
+		
+		for (Method method : iface.getMethods()) {
+			
+			if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			
+			if (isImplementedByBase(method)) {
+				continue;
+			}
+			
+			if (method.getParameterCount() != 0 || method.getReturnType() == void.class 
+					|| "casserValues".equals(method.getName())) {
+				return null;
+			}
+			
+			if (!isAccessible(method.getReturnType(), iface.getClassLoader())) {
+				return null;
+			}
+			
+			Method existing = getters.putIfAbsent(method.getName(), method);
+			
+			if (existing != null && existing.getReturnType() != method.getReturnType()) {
+				return null;
+			}
+		}
+		
+		return new ArrayList<Method>(getters.values());
+	}
+	
+	private static boolean isAccessible(Class<?> type, ClassLoader classLoader) {
+		
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		
+		if (type.isPrimitive()) {
+			return true;
+		}
+		
+		if (!Modifier.isPublic(type.getModifiers())) {
+			return false;
+		}
+		
+		try {
+			return Class.forName(type.getName(), false, classLoader) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+	
+	private static boolean isImplementedByBase(Method method) {
+		try {
+			Method base = AbstractGeneratedEntity.class.getMethod(method.getName(), method.getParameterTypes());
+			return !Modifier.isStatic(base.getModifiers()) && method.getReturnType().isAssignableFrom(base.getReturnType());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	private static final class EntityClassLoader extends ClassLoader {
+		
+		EntityClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+		
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			return Class.forName(name, false, AbstractGeneratedEntity.class.getClassLoader());
+		}
+		
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+		
+	}
+	
+}
@@ -23,7 +23,6 @@ import java.util.Optional;
 
 import com.noorq.casser.mapping.CasserProperty;
 import com.noorq.casser.support.CasserMappingException;
-import com.noorq.casser.support.DslPropertyException;
 
 public final class ListDsl<V> implements List<V> {
 
@@ -40,7 +39,8 @@ public final class ListDsl<V> implements List<V> {
 	@Override
 	public V get(int index) {
 		CasserProperty prop = new CasserNamedProperty(Integer.toString(index));
-		throw new DslPropertyException(new CasserPropertyNode(prop, Optional.of(parent)));
+		DslPropertyRecorder.record(new CasserPropertyNode(prop, Optional.of(parent)));
+		return null;
 	}
 
 	@Override
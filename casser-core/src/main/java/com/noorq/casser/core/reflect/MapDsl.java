@@ -22,7 +22,6 @@ import java.util.Set;
 
 import com.noorq.casser.mapping.CasserProperty;
 import com.noorq.casser.support.CasserMappingException;
-import com.noorq.casser.support.DslPropertyException;
 
 public final class MapDsl<K, V> implements Map<K, V> {
 
@@ -39,7 +38,8 @@ public final class MapDsl<K, V> implements Map<K, V> {
 	@Override
 	public V get(Object key) {
 		CasserProperty prop = new CasserNamedProperty(key.toString());
-		throw new DslPropertyException(new CasserPropertyNode(prop, Optional.of(parent)));
+		DslPropertyRecorder.record(new CasserPropertyNode(prop, Optional.of(parent)));
+		return null;
 	}
 	
 	@Override
@@ -0,0 +1,92 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.core.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+
+import com.noorq.casser.support.CasserException;
+
+/**
+ *  DSL implementations of the mapping interfaces generated at compile time by casser-processor.
+ *
+ *  Generated class has the binary name of the interface with the $$CasserDsl suffix
+ *  and a public constructor that takes the class loader and the parent node.
+ *
+ */
+
+final class PrecompiledDsls {
+	
+	static final String CLASS_SUFFIX = "$$CasserDsl";
+	
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, ClassLoader.class, Optional.class);
+	private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, ClassLoader.class, Optional.class);
+	
+	private static final ClassValue<Optional<MethodHandle>> factories = new ClassValue<Optional<MethodHandle>>() {
+		
+		@Override
+		protected Optional<MethodHandle> computeValue(Class<?> iface) {
+			return lookup(iface);
+		}
+	
+	};
+	
+	private PrecompiledDsls() {
+	}
+	
+	static Optional<MethodHandle> factoryOf(Class<?> iface) {
+		return factories.get(iface);
+	}
+	
+	static Object instantiate(MethodHandle factory, ClassLoader classLoader, Optional<CasserPropertyNode> parent) {
+		try {
+			return (Object) factory.invokeExact(classLoader, parent);
+		}
+		catch(RuntimeException | Error e) {
+			throw e;
+		}
+		catch(Throwable t) {
+			throw new CasserException(t);
+		}
+	}
+	
+	private static Optional<MethodHandle> lookup(Class<?> iface) {
+		
+		ClassLoader classLoader = iface.getClassLoader();
+		
+		if (classLoader == null) {
+			return Optional.empty();
+		}
+		
+		try {
+			
+			Class<?> implClass = Class.forName(iface.getName() + CLASS_SUFFIX, true, classLoader);
+			
+			if (!iface.isAssignableFrom(implClass) || !AbstractGeneratedDsl.class.isAssignableFrom(implClass)) {
+				return Optional.empty();
+			}
+			
+			MethodHandle constructor = MethodHandles.publicLookup().findConstructor(implClass, CONSTRUCTOR_TYPE);
+			return Optional.of(constructor.asType(FACTORY_TYPE));
+		
+		} catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | LinkageError e) {
+			return Optional.empty();
+		}
+	}
+
+}
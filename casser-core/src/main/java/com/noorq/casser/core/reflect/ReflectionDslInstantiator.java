@@ -15,18 +15,37 @@
  */
 package com.noorq.casser.core.reflect;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Proxy;
 import java.util.Optional;
 
+import com.noorq.casser.config.GetterMethodDetector;
+import com.noorq.casser.core.Casser;
 import com.noorq.casser.core.DslInstantiator;
 
-public enum ReflectionDslInstantiator implements DslInstantiator {
+/**
+ *  Instantiates the DSL objects as proxies of the mapping interfaces.
+ *
+ *  Classes generated at compile time by casser-processor are used when present, unless
+ *  the settings have their own getter method detector, since the generated classes
+ *  implement the getters found by the default one.
+ *
+ */
 
+public enum ReflectionDslInstantiator implements DslInstantiator {
+	
 	INSTANCE;
 	
 	@Override
 	@SuppressWarnings("unchecked")
 	public <E> E instantiate(Class<E> iface, ClassLoader classLoader, Optional<CasserPropertyNode> parent) {
+		
+		Optional<MethodHandle> precompiled = PrecompiledDsls.factoryOf(iface);
+		
+		if (precompiled.isPresent() && Casser.settings().getGetterMethodDetector() == GetterMethodDetector.INSTANCE) {
+			return (E) PrecompiledDsls.instantiate(precompiled.get(), classLoader, parent);
+		}
+		
 		DslInvocationHandler<E> handler = new DslInvocationHandler<E>(iface, classLoader, parent);
 		E proxy = (E) Proxy.newProxyInstance(
 		                            classLoader,
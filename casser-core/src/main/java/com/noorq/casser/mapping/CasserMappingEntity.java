@@ -82,6 +82,43 @@ public final class CasserMappingEntity implements CasserEntity {
 
 		validateOrdinals();
 	}
+	
+	/**
+	 * Builds the entity from the metadata generated by casser-processor instead of the annotations
+	 */
+	
+	public CasserMappingEntity(GeneratedEntityMetadata metadata) {
+		
+		this.iface = metadata.getMappingInterface();
+		this.type = metadata.getType();
+		this.name = metadata.resolveName();
+		
+		List<CasserProperty> propsLocal = new ArrayList<CasserProperty>();
+		ImmutableMap.Builder<String, CasserProperty> propsBuilder = ImmutableMap.builder();
+		
+		for (GeneratedPropertyMetadata pm : metadata.getProperties()) {
+			
+			Method getter;
+			
+			try {
+				getter = iface.getDeclaredMethod(pm.getName());
+			} catch (NoSuchMethodException e) {
+				throw new CasserMappingException("getter " + pm.getName() + " of the generated metadata not found in " + iface);
+			}
+			
+			CasserProperty prop = new CasserMappingProperty(this, getter, pm);
+			
+			propsBuilder.put(prop.getPropertyName(), prop);
+			propsLocal.add(prop);
+		}
+		
+		this.props = propsBuilder.build();
+		
+		Collections.sort(propsLocal, TypeAndOrdinalColumnComparator.INSTANCE);
+		this.orderedProps = ImmutableList.copyOf(propsLocal);
+
+		validateOrdinals();
+	}
 
 	@Override
 	public CasserEntityType getType() {
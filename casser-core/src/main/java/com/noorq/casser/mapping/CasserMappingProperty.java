@@ -66,6 +66,38 @@ public final class CasserMappingProperty implements CasserProperty {
 		this.validators = MappingUtil.getValidators(getter);
 	}
 	
+	CasserMappingProperty(CasserMappingEntity entity, Method getter, GeneratedPropertyMetadata metadata) {
+		this.entity = entity;
+		this.getter = getter;
+		
+		this.propertyName = metadata.getName();
+		
+		String indexName = metadata.getIndexName();
+		
+		if (indexName != null) {
+			this.indexName = Optional.of(new IdentityName(indexName.isEmpty() ? MappingUtil.getDefaultColumnName(getter) : indexName, 
+					metadata.isIndexForceQuote()));
+		}
+		else {
+			this.indexName = Optional.empty();
+		}
+		
+		this.columnInfo = new ColumnInformation(getter, metadata);
+		
+		this.genericJavaType = getter.getGenericReturnType();
+		this.javaType = getter.getReturnType();
+		this.abstractJavaType = MappingJavaTypes.resolveJavaType(this.javaType);
+
+		this.dataType = abstractJavaType.resolveDataType(this.getter, this.genericJavaType, this.columnInfo.getColumnType());
+		
+		this.validators = metadata.isValidated() ? MappingUtil.getValidators(getter) : MappingUtil.EMPTY_VALIDATORS;
+		
+		if (metadata.getReadConverter() != null) {
+			this.readConverter = Optional.of(metadata.getReadConverter());
+			this.writeConverter = Optional.of(metadata.getWriteConverter());
+		}
+	}
+	
 	@Override
 	public CasserEntity getEntity() {
 		return entity;
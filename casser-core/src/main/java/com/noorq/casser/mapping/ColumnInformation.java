@@ -86,6 +86,20 @@ public final class ColumnInformation {
 		this.ordering = orderingLocal;
 	}
 	
+	ColumnInformation(Method getter, GeneratedPropertyMetadata metadata) {
+		
+		String columnName = metadata.getColumnName();
+		
+		if (columnName.isEmpty()) {
+			columnName = MappingUtil.getDefaultColumnName(getter);
+		}
+		
+		this.columnName = new IdentityName(columnName, metadata.isForceQuote());
+		this.columnType = metadata.getColumnType();
+		this.ordinal = metadata.getOrdinal();
+		this.ordering = metadata.getOrdering();
+	}
+	
 	public IdentityName getColumnName() {
 		return columnName;
 	}
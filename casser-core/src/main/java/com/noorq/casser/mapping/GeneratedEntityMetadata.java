@@ -0,0 +1,79 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ *  Metadata of the mapping interface generated at compile time by casser-processor.
+ *
+ *  It keeps the values of the mapping annotations of the interface and of its getters,
+ *  so CasserMappingEntity does not read them at runtime. Empty names are resolved by
+ *  the property to column converter of the settings, as for the annotations.
+ *
+ */
+
+public final class GeneratedEntityMetadata {
+	
+	private final Class<?> iface;
+	private final CasserEntityType type;
+	
+	private String name = "";
+	private boolean forceQuote = false;
+	
+	private final List<GeneratedPropertyMetadata> properties = new ArrayList<GeneratedPropertyMetadata>();
+	
+	public GeneratedEntityMetadata(Class<?> iface, CasserEntityType type) {
+		this.iface = Objects.requireNonNull(iface, "iface is empty");
+		this.type = Objects.requireNonNull(type, "type is empty");
+	}
+	
+	public GeneratedEntityMetadata name(String name, boolean forceQuote) {
+		this.name = Objects.requireNonNull(name, "name is empty");
+		this.forceQuote = forceQuote;
+		return this;
+	}
+	
+	public GeneratedEntityMetadata add(GeneratedPropertyMetadata property) {
+		properties.add(Objects.requireNonNull(property, "property is empty"));
+		return this;
+	}
+	
+	public Class<?> getMappingInterface() {
+		return iface;
+	}
+	
+	public CasserEntityType getType() {
+		return type;
+	}
+	
+	public List<GeneratedPropertyMetadata> getProperties() {
+		return Collections.unmodifiableList(properties);
+	}
+	
+	IdentityName resolveName() {
+		
+		if (type == CasserEntityType.TUPLE) {
+			return IdentityName.of(MappingUtil.getDefaultEntityName(iface), false);
+		}
+		
+		return new IdentityName(name.isEmpty() ? MappingUtil.getDefaultEntityName(iface) : name, forceQuote);
+	}
+
+}
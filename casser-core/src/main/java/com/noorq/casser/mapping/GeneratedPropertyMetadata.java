@@ -0,0 +1,122 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.mapping;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ *  Metadata of the getter generated at compile time by casser-processor.
+ *
+ *  Validators are read from the getter only if it has annotations other than the mapping ones,
+ *  converters given here replace the ones resolved by the java type of the property.
+ *
+ */
+
+public final class GeneratedPropertyMetadata {
+	
+	private final String name;
+	
+	private ColumnType columnType = ColumnType.COLUMN;
+	private String columnName = "";
+	private boolean forceQuote = false;
+	private int ordinal = 0;
+	private OrderingDirection ordering = OrderingDirection.ASC;
+	
+	private String indexName = null;
+	private boolean indexForceQuote = false;
+	
+	private boolean validated = false;
+	
+	private Function<Object, Object> readConverter = null;
+	private Function<Object, Object> writeConverter = null;
+	
+	public GeneratedPropertyMetadata(String name) {
+		this.name = Objects.requireNonNull(name, "name is empty");
+	}
+	
+	public GeneratedPropertyMetadata column(ColumnType columnType, String columnName, boolean forceQuote,
+			int ordinal, OrderingDirection ordering) {
+		this.columnType = Objects.requireNonNull(columnType, "columnType is empty");
+		this.columnName = Objects.requireNonNull(columnName, "columnName is empty");
+		this.forceQuote = forceQuote;
+		this.ordinal = ordinal;
+		this.ordering = Objects.requireNonNull(ordering, "ordering is empty");
+		return this;
+	}
+	
+	public GeneratedPropertyMetadata index(String indexName, boolean forceQuote) {
+		this.indexName = Objects.requireNonNull(indexName, "indexName is empty");
+		this.indexForceQuote = forceQuote;
+		return this;
+	}
+	
+	public GeneratedPropertyMetadata validated() {
+		this.validated = true;
+		return this;
+	}
+	
+	public GeneratedPropertyMetadata converters(Function<Object, Object> readConverter, Function<Object, Object> writeConverter) {
+		this.readConverter = Objects.requireNonNull(readConverter, "readConverter is empty");
+		this.writeConverter = Objects.requireNonNull(writeConverter, "writeConverter is empty");
+		return this;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	ColumnType getColumnType() {
+		return columnType;
+	}
+	
+	String getColumnName() {
+		return columnName;
+	}
+	
+	boolean isForceQuote() {
+		return forceQuote;
+	}
+	
+	int getOrdinal() {
+		return ordinal;
+	}
+	
+	OrderingDirection getOrdering() {
+		return ordering;
+	}
+	
+	String getIndexName() {
+		return indexName;
+	}
+	
+	boolean isIndexForceQuote() {
+		return indexForceQuote;
+	}
+	
+	boolean isValidated() {
+		return validated;
+	}
+	
+	Function<Object, Object> getReadConverter() {
+		return readConverter;
+	}
+	
+	Function<Object, Object> getWriteConverter() {
+		return writeConverter;
+	}
+
+}
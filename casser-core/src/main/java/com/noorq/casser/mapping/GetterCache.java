@@ -0,0 +1,175 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.noorq.casser.core.Getter;
+import com.noorq.casser.core.reflect.CasserPropertyNode;
+import com.noorq.casser.core.reflect.DslExportable;
+import com.noorq.casser.core.reflect.ListDsl;
+import com.noorq.casser.core.reflect.MapDsl;
+import com.noorq.casser.core.reflect.SetDsl;
+import com.noorq.casser.support.CasserMappingException;
+
+/**
+ *  Resolved property nodes of the getter lambdas.
+ *
+ *  The node is memoized per lambda class together with the captured values, a lambda
+ *  capturing other DSL objects than the cached ones is resolved again. Lambdas that
+ *  capture anything else than DSL objects are not cached.
+ *
+ */
+
+final class GetterCache {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	
+	private static final ClassValue<GetterCache> caches = new ClassValue<GetterCache>() {
+
+		@Override
+		protected GetterCache computeValue(Class<?> type) {
+			return new GetterCache(type);
+		}
+		
+	};
+	
+	private final MethodHandle[] captured;
+	private volatile Resolved last = null;
+	
+	private GetterCache(Class<?> type) {
+		this.captured = capturedFields(type);
+	}
+	
+	static GetterCache of(Getter<?> getter) {
+		return caches.get(getter.getClass());
+	}
+	
+	/**
+	 * Returns the memoized node or null
+	 */
+	
+	CasserPropertyNode get(Getter<?> getter) {
+		
+		Resolved resolved = last;
+		
+		if (resolved == null) {
+			return null;
+		}
+		
+		Object[] values = resolved.values;
+		
+		for (int i = 0; i != values.length; ++i) {
+			if (read(i, getter) != values[i]) {
+				return null;
+			}
+		}
+		
+		return resolved.node;
+	}
+	
+	void put(Getter<?> getter, CasserPropertyNode node) {
+		
+		if (captured == null) {
+			return;
+		}
+		
+		Object[] values = new Object[captured.length];
+		
+		for (int i = 0; i != values.length; ++i) {
+			
+			Object value = read(i, getter);
+			
+			if (!isDsl(value)) {
+				return;
+			}
+			
+			values[i] = value;
+		}
+		
+		last = new Resolved(values, node);
+	}
+	
+	private Object read(int index, Getter<?> getter) {
+		try {
+			return (Object) captured[index].invokeExact((Object) getter);
+		}
+		catch(RuntimeException | Error e) {
+			throw e;
+		}
+		catch(Throwable t) {
+			throw new CasserMappingException(t);
+		}
+	}
+	
+	private static boolean isDsl(Object value) {
+		return value instanceof DslExportable 
+				|| value instanceof MapDsl
+				|| value instanceof ListDsl
+				|| value instanceof SetDsl;
+	}
+	
+	private static MethodHandle[] capturedFields(Class<?> type) {
+		
+		if (!type.isSynthetic() || type.getSuperclass() != Object.class) {
+			return null;
+		}
+		
+		List<MethodHandle> handles = new ArrayList<MethodHandle>();
+		
+		try {
+			
+			for (Field field : type.getDeclaredFields()) {
+				
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				
+				if (field.getType().isPrimitive()) {
+					return null;
+				}
+				
+				field.setAccessible(true);
+				handles.add(MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE));
+			}
+			
+		}
+		catch(RuntimeException | IllegalAccessException e) {
+			return null;
+		}
+		
+		return handles.toArray(new MethodHandle[handles.size()]);
+	}
+	
+	private static final class Resolved {
+		
+		final Object[] values;
+		final CasserPropertyNode node;
+		
+		Resolved(Object[] values, CasserPropertyNode node) {
+			this.values = values;
+			this.node = node;
+		}
+		
+	}
+	
+}
@@ -28,6 +28,7 @@ import com.noorq.casser.core.Casser;
 import com.noorq.casser.core.Getter;
 import com.noorq.casser.core.reflect.CasserPropertyNode;
 import com.noorq.casser.core.reflect.DslExportable;
+import com.noorq.casser.core.reflect.DslPropertyRecorder;
 import com.noorq.casser.core.reflect.ListDsl;
 import com.noorq.casser.core.reflect.MapDsl;
 import com.noorq.casser.core.reflect.MapExportable;
@@ -38,7 +39,6 @@ import com.noorq.casser.mapping.annotation.Table;
 import com.noorq.casser.mapping.annotation.Tuple;
 import com.noorq.casser.mapping.annotation.UDT;
 import com.noorq.casser.support.CasserMappingException;
-import com.noorq.casser.support.DslPropertyException;
 
 
 public final class MappingUtil {
@@ -259,36 +259,52 @@ public final class MappingUtil {
 	public static CasserPropertyNode resolveMappingProperty(
 			Getter<?> getter) {
 
-		try {
-			Object childDsl = getter.get();
-			
-			if (childDsl instanceof DslExportable) {
-				DslExportable e = (DslExportable) childDsl;
-				return e.getParentDslCasserPropertyNode();
-			}
-			
-			else if (childDsl instanceof MapDsl) {
-				MapDsl mapDsl = (MapDsl) childDsl;
-				return mapDsl.getParent();
-			}
-
-			else if (childDsl instanceof ListDsl) {
-				ListDsl listDsl = (ListDsl) childDsl;
-				return listDsl.getParent();
-			}
+		GetterCache cache = GetterCache.of(getter);
+		
+		CasserPropertyNode node = cache.get(getter);
+		
+		if (node == null) {
+			node = resolveUncached(getter);
+			cache.put(getter, node);
+		}
+		
+		return node;
+	}
+	
+	private static CasserPropertyNode resolveUncached(Getter<?> getter) {
+		
+		DslPropertyRecorder.clear();
+		
+		Object childDsl = getter.get();
+		
+		CasserPropertyNode recorded = DslPropertyRecorder.take();
+		
+		if (childDsl instanceof DslExportable) {
+			DslExportable e = (DslExportable) childDsl;
+			return e.getParentDslCasserPropertyNode();
+		}
+		
+		else if (childDsl instanceof MapDsl) {
+			MapDsl mapDsl = (MapDsl) childDsl;
+			return mapDsl.getParent();
+		}
 
-			else if (childDsl instanceof SetDsl) {
-				SetDsl setDsl = (SetDsl) childDsl;
-				return setDsl.getParent();
-			}
+		else if (childDsl instanceof ListDsl) {
+			ListDsl listDsl = (ListDsl) childDsl;
+			return listDsl.getParent();
+		}
 
-			throw new CasserMappingException(
-					"getter must reference to the dsl object " + getter);
-			
-		} catch (DslPropertyException e) {
-			return e.getPropertyNode();
+		else if (childDsl instanceof SetDsl) {
+			SetDsl setDsl = (SetDsl) childDsl;
+			return setDsl.getParent();
+		}
+		
+		else if (recorded != null) {
+			return recorded;
 		}
 
+		throw new CasserMappingException(
+				"getter must reference to the dsl object " + getter);
 	}
 
 
@@ -42,20 +42,12 @@ public abstract class AbstractEntityValueWriter<V> {
 			
 			Map<String, Object> propertyToValueMap = exportable.toMap();
 			
-			for (Map.Entry<String, Object> entry : propertyToValueMap.entrySet()) {
-				
-				Object value = entry.getValue();
-				
-				if (value == null) {
-					continue;
-				}
+			for (CasserProperty prop : entity.getOrderedProperties()) {
 				
-				CasserProperty prop = entity.getProperty(entry.getKey());
+				Object value = propertyToValueMap.get(prop.getPropertyName());
 				
-				if (prop != null) {
-					
+				if (value != null) {
 					writeColumn(outValue, value, prop);
-					
 				}
 				
 			}
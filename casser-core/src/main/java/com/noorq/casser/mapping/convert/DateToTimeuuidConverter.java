@@ -19,7 +19,7 @@ import java.util.Date;
 import java.util.UUID;
 import java.util.function.Function;
 
-import com.noorq.casser.support.Timeuuid;
+import com.noorq.casser.support.TimeuuidGenerator;
 
 /**
  * Simple Date to TimeUUID Converter
@@ -33,7 +33,7 @@ public enum DateToTimeuuidConverter implements Function<Date, UUID> {
 	@Override
 	public UUID apply(Date source) {
 		long milliseconds = source.getTime();
-		return Timeuuid.of(milliseconds);
+		return TimeuuidGenerator.INSTANCE.of(milliseconds);
 	}
 
 }
@@ -21,6 +21,7 @@ import java.util.function.Function;
 import com.noorq.casser.core.Casser;
 import com.noorq.casser.mapping.CasserEntity;
 import com.noorq.casser.mapping.value.ColumnValueProvider;
+import com.noorq.casser.mapping.value.Materialization;
 import com.noorq.casser.mapping.value.ValueProviderMap;
 
 public class ProxyValueReader<T> implements Function<T, Object> {
@@ -40,7 +41,8 @@ public class ProxyValueReader<T> implements Function<T, Object> {
 		if (source != null) {
 			Map<String, Object> map = new ValueProviderMap(source, 
 					valueProvider,
-					entity);
+					entity,
+					Materialization.MEMOIZED);
 			
 			return Casser.map(iface, map);
 		}
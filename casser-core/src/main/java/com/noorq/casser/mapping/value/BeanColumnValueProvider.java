@@ -0,0 +1,189 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.mapping.value;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import com.google.common.primitives.Primitives;
+import com.noorq.casser.core.reflect.AbstractGeneratedEntity;
+import com.noorq.casser.core.reflect.DefaultPrimitiveTypes;
+import com.noorq.casser.core.reflect.MapExportable;
+import com.noorq.casser.mapping.CasserProperty;
+import com.noorq.casser.support.CasserMappingException;
+
+public enum BeanColumnValueProvider implements ColumnValueProvider {
+
+	INSTANCE;
+	
+	private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+	
+	private static final ClassValue<ConcurrentMap<Method, Function<Object, Object>>> accessors = 
+			new ClassValue<ConcurrentMap<Method, Function<Object, Object>>>() {
+
+		@Override
+		protected ConcurrentMap<Method, Function<Object, Object>> computeValue(Class<?> declaringClass) {
+			return new ConcurrentHashMap<Method, Function<Object, Object>>();
+		}
+		
+	};
+	
+	@Override
+	public <V> V getColumnValue(Object bean, int columnIndexUnused,
+			CasserProperty property) {
+
+		if (bean instanceof MapExportable && !(bean instanceof AbstractGeneratedEntity)) {
+			return (V) getMapValue(((MapExportable) bean).toMap(), property);
+		}
+		
+		Method getter = property.getGetterMethod();
+		
+		ConcurrentMap<Method, Function<Object, Object>> classAccessors = accessors.get(getter.getDeclaringClass());
+		
+		Function<Object, Object> accessor = classAccessors.get(getter);
+		
+		if (accessor == null) {
+			accessor = compile(getter);
+			Function<Object, Object> existing = classAccessors.putIfAbsent(getter, accessor);
+			if (existing != null) {
+				accessor = existing;
+			}
+		}
+		
+		try {
+			return (V) accessor.apply(bean);
+		} catch (ClassCastException e) {
+			throw new CasserMappingException("invalid getter " + getter, e);
+		}
+		
+	}
+	
+	/**
+	 * Returns the value of the property from the backing map of the mapped entity, 
+	 * absent values of the primitive properties are the default values
+	 */
+	
+	public Object getMapValue(Map<String, Object> map, CasserProperty property) {
+		
+		Object value = map.get(property.getPropertyName());
+		
+		if (value == null) {
+			
+			Class<?> returnType = property.getGetterMethod().getReturnType();
+			
+			if (returnType.isPrimitive()) {
+				
+				DefaultPrimitiveTypes type = DefaultPrimitiveTypes.lookup(returnType);
+				if (type == null) {
+					throw new CasserMappingException("unknown primitive type " + returnType);
+				}
+				
+				return type.getDefaultValue();
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Compiles the getter to the lambda, falls back to the method handle and to the reflective
+	 * call if the getter is not accessible or the lambda can not be linked from casser's class loader
+	 */
+	
+	private static Function<Object, Object> compile(Method getter) {
+		
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		
+		if (isVisible(getter.getDeclaringClass()) && isVisible(getter.getReturnType())) {
+			
+			try {
+				
+				MethodHandle impl = lookup.unreflect(getter);
+				
+				CallSite site = LambdaMetafactory.metafactory(lookup, "apply", 
+						MethodType.methodType(Function.class),
+						ACCESSOR_TYPE,
+						impl,
+						MethodType.methodType(Primitives.wrap(getter.getReturnType()), getter.getDeclaringClass()));
+				
+				return (Function<Object, Object>) site.getTarget().invoke();
+				
+			} catch (ReflectiveOperationException | LambdaConversionException | LinkageError | RuntimeException e) {
+				// not accessible from here or the lambda can not be linked, try the method handle
+			} catch (Throwable t) {
+				throw new CasserMappingException("fail to compile getter " + getter, t);
+			}
+			
+		}
+		
+		try {
+			
+			getter.setAccessible(true);
+			MethodHandle handle = lookup.unreflect(getter).asType(ACCESSOR_TYPE);
+			
+			return bean -> {
+				try {
+					return (Object) handle.invokeExact(bean);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable t) {
+					throw new CasserMappingException("fail to call getter " + getter, t);
+				}
+			};
+			
+		} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+			// fall back to the reflective call
+		}
+		
+		return bean -> {
+			try {
+				return getter.invoke(bean, new Object[] {});
+			} catch (ReflectiveOperationException e) {
+				throw new CasserMappingException("fail to call getter " + getter, e);
+			} catch (IllegalArgumentException e) {
+				throw new CasserMappingException("invalid getter " + getter, e);
+			}
+		};
+	}
+	
+	/**
+	 * The lambda class is defined in casser's class loader, it resolves the type by name 
+	 * on the first call
+	 */
+	
+	private static boolean isVisible(Class<?> type) {
+		
+		if (type.isPrimitive()) {
+			return true;
+		}
+		
+		try {
+			return Class.forName(type.getName(), false, BeanColumnValueProvider.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.mapping.value;
+
+/**
+ *  Defines how often the column values of the mapped entity are decoded from the source 
+ *
+ */
+
+public enum Materialization {
+
+	/**
+	 * Decodes the column on every getter call
+	 */
+	
+	LAZY,
+	
+	/**
+	 * Decodes the column on the first getter call and keeps the value
+	 */
+	
+	MEMOIZED,
+	
+	/**
+	 * Decodes all columns when the entity is created
+	 */
+	
+	EAGER;
+	
+}
@@ -61,6 +61,14 @@ public final class RowColumnValueProvider implements ColumnValueProvider {
 		return (V) value;
 	}
 
+	/**
+	 * Compiles the reader of the given properties from the rows with the given column definitions
+	 */
+	
+	public RowReader compile(ColumnDefinitions definitions, CasserProperty[] props) {
+		return new RowReader(definitions, props, this, repository);
+	}
+	
 	private Object readValueByIndex(Row source, int columnIndex) {
 		
 		if (source.isNull(columnIndex)) {
@@ -0,0 +1,207 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.mapping.value;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.Row;
+import com.noorq.casser.core.SessionRepository;
+import com.noorq.casser.mapping.CasserProperty;
+
+/**
+ *  Reader of the property values from the rows with the given column definitions.
+ *
+ *  Column indexes, data types, collection element classes and read converters are resolved
+ *  once when the reader is compiled, every cell is read by index.
+ *
+ */
+
+public final class RowReader {
+
+	private static final int SET = 1;
+	private static final int LIST = 2;
+	private static final int MAP = 3;
+
+	private final ColumnDefinitions definitions;
+	private final ColumnValueProvider fallback;
+	private final CasserProperty[] props;
+	private final Column[] columns;
+
+	RowReader(ColumnDefinitions definitions, CasserProperty[] props,
+			ColumnValueProvider fallback, SessionRepository repository) {
+
+		this.definitions = definitions;
+		this.fallback = fallback;
+		this.props = props;
+		this.columns = new Column[props.length];
+
+		for (int i = 0; i != props.length; ++i) {
+
+			int index = definitions.getIndexOf(props[i].getColumnName().getName());
+
+			if (index >= 0) {
+				columns[i] = new Column(index, definitions.getType(index), props[i].getReadConverter(repository));
+			}
+		}
+	}
+
+	public boolean accepts(Row row, ColumnValueProvider provider) {
+		return row.getColumnDefinitions() == definitions && provider == fallback;
+	}
+
+	/**
+	 * Reads the value of the property with the given position in the compiled properties
+	 */
+
+	public Object read(Row row, int i) {
+
+		Column column = columns[i];
+
+		if (column == null) {
+			return fallback.getColumnValue(row, -1, props[i]);
+		}
+
+		return column.read(row);
+	}
+
+	private static final class Column {
+
+		final int index;
+		final DataType type;
+		final int kind;
+		final Class<?> first;
+		final Class<?> second;
+		final Function<Object, Object> converter;
+
+		Column(int index, DataType type, Optional<Function<Object, Object>> converter) {
+
+			this.index = index;
+			this.type = type;
+			this.converter = converter.orElse(null);
+
+			List<DataType> typeArguments = type.getTypeArguments();
+
+			switch(type.getName()) {
+
+			case SET:
+				this.kind = SET;
+				this.first = typeArguments.get(0).asJavaClass();
+				this.second = null;
+				break;
+
+			case LIST:
+				this.kind = LIST;
+				this.first = typeArguments.get(0).asJavaClass();
+				this.second = null;
+				break;
+
+			case MAP:
+				this.kind = MAP;
+				this.first = typeArguments.get(0).asJavaClass();
+				this.second = typeArguments.get(1).asJavaClass();
+				break;
+
+			default:
+				this.kind = 0;
+				this.first = null;
+				this.second = null;
+				break;
+			}
+		}
+
+		Object read(Row row) {
+
+			if (row.isNull(index)) {
+				return null;
+			}
+
+			Object value;
+
+			switch(kind) {
+
+			case SET:
+				value = row.getSet(index, first);
+				break;
+
+			case LIST:
+				value = row.getList(index, first);
+				break;
+
+			case MAP:
+				value = row.getMap(index, first, second);
+				break;
+
+			default:
+				ByteBuffer bytes = row.getBytesUnsafe(index);
+				value = type.deserialize(bytes, ProtocolVersion.NEWEST_SUPPORTED);
+				break;
+			}
+
+			if (value != null && converter != null) {
+				value = converter.apply(value);
+			}
+
+			return value;
+		}
+
+	}
+
+	/**
+	 *  Keeps the readers of the recently seen column definitions, so that several result
+	 *  sets of the same properties can be read concurrently.
+	 *
+	 */
+
+	public static final class Cache {
+
+		private static final int SIZE = 8;
+
+		private final CasserProperty[] props;
+		private final AtomicReferenceArray<RowReader> readers = new AtomicReferenceArray<RowReader>(SIZE);
+		private final AtomicInteger next = new AtomicInteger();
+
+		public Cache(CasserProperty[] props) {
+			this.props = props;
+		}
+
+		public RowReader readerOf(Row row, RowColumnValueProvider provider) {
+
+			for (int i = 0; i != SIZE; ++i) {
+
+				RowReader reader = readers.get(i);
+
+				if (reader != null && reader.accepts(row, provider)) {
+					return reader;
+				}
+			}
+
+			RowReader reader = provider.compile(row.getColumnDefinitions(), props);
+			readers.set(next.getAndIncrement() & (SIZE - 1), reader);
+
+			return reader;
+		}
+
+	}
+
+}
@@ -0,0 +1,233 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.mapping.value;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.datastax.driver.core.Row;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserProperty;
+import com.noorq.casser.support.CasserMappingException;
+
+public final class ValueProviderMap implements Map<String, Object> {
+
+	private static final Object NOT_DECODED = new Object();
+	
+	private static final ClassValue<ConcurrentMap<CasserEntity, Layout>> layouts = new ClassValue<ConcurrentMap<CasserEntity, Layout>>() {
+
+		@Override
+		protected ConcurrentMap<CasserEntity, Layout> computeValue(Class<?> iface) {
+			return new ConcurrentHashMap<CasserEntity, Layout>();
+		}
+		
+	};
+	
+	private final Object source;
+	private final ColumnValueProvider valueProvider;
+	private final Layout layout;
+	private final Object[] slots;
+	private final RowReader reader;
+	
+	public ValueProviderMap(Object source, ColumnValueProvider valueProvider, CasserEntity entity) {
+		this(source, valueProvider, entity, Materialization.LAZY);
+	}
+	
+	public ValueProviderMap(Object source, ColumnValueProvider valueProvider, CasserEntity entity, Materialization materialization) {
+		this.source = source;
+		this.valueProvider = valueProvider;
+		this.layout = layoutOf(entity);
+		
+		if (source instanceof Row && valueProvider instanceof RowColumnValueProvider) {
+			this.reader = layout.readers.readerOf((Row) source, (RowColumnValueProvider) valueProvider);
+		}
+		else {
+			this.reader = null;
+		}
+		
+		switch(materialization) {
+		
+		case EAGER:
+			this.slots = new Object[layout.props.length];
+			for (int i = 0; i != slots.length; ++i) {
+				slots[i] = decode(i);
+			}
+			break;
+			
+		case MEMOIZED:
+			this.slots = new Object[layout.props.length];
+			Arrays.fill(slots, NOT_DECODED);
+			break;
+			
+		default:
+			this.slots = null;
+			break;
+		}
+		
+	}
+	
+	@Override
+	public Object get(Object key) {
+		if (key instanceof String) {
+			
+			Integer index = layout.index.get(key);
+			
+			if (index != null) {
+				
+				int i = index.intValue();
+				
+				if (slots == null) {
+					return decode(i);
+				}
+				
+				Object value = slots[i];
+				
+				if (value == NOT_DECODED) {
+					value = decode(i);
+					slots[i] = value;
+				}
+				
+				return value;
+			}
+		}
+		return null;
+	}
+	
+	private Object decode(int i) {
+		
+		if (reader != null) {
+			return reader.read((Row) source, i);
+		}
+		
+		return valueProvider.getColumnValue(source, -1, layout.props[i]);
+	}
+	
+	@Override
+	public Set<String> keySet() {
+		return layout.keySet;
+	}
+	
+	@Override
+	public int size() {
+		return layout.props.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return layout.props.length == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return layout.index.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		throwShouldNeverCall();
+		return false;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		throwShouldNeverCall();
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		throwShouldNeverCall();
+		return null;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		throwShouldNeverCall();
+	}
+
+	@Override
+	public void clear() {
+		throwShouldNeverCall();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		throwShouldNeverCall();
+		return null;
+	}
+
+	@Override
+	public Set<java.util.Map.Entry<String, Object>> entrySet() {
+		throwShouldNeverCall();
+		return null;
+	}
+
+	private void throwShouldNeverCall() {
+		throw new CasserMappingException("should never be called");
+	}
+
+	@Override
+	public String toString() {
+		return source.toString();
+	}
+	
+	private static Layout layoutOf(CasserEntity entity) {
+		
+		ConcurrentMap<CasserEntity, Layout> entityLayouts = layouts.get(entity.getMappingInterface());
+		
+		Layout layout = entityLayouts.get(entity);
+		
+		if (layout == null) {
+			layout = new Layout(entity);
+			Layout existing = entityLayouts.putIfAbsent(entity, layout);
+			if (existing != null) {
+				layout = existing;
+			}
+		}
+		
+		return layout;
+	}
+	
+	private static final class Layout {
+		
+		final CasserProperty[] props;
+		final Map<String, Integer> index;
+		final Set<String> keySet;
+		final RowReader.Cache readers;
+		
+		Layout(CasserEntity entity) {
+			
+			this.props = entity.getOrderedProperties().toArray(new CasserProperty[0]);
+			
+			Map<String, Integer> map = new HashMap<String, Integer>();
+			for (int i = 0; i != props.length; ++i) {
+				map.put(props[i].getPropertyName(), i);
+			}
+			
+			this.index = map;
+			this.keySet = Collections.unmodifiableSet(map.keySet());
+			this.readers = new RowReader.Cache(props);
+		}
+		
+	}
+	
+}
@@ -17,6 +17,11 @@ package com.noorq.casser.support;
 
 import com.noorq.casser.core.reflect.CasserPropertyNode;
 
+/**
+ * @deprecated getter lambdas are resolved without throwing, the exception is never thrown
+ */
+
+@Deprecated
 public final class DslPropertyException extends CasserException {
 
 	private static final long serialVersionUID = -2745598205929757758L;
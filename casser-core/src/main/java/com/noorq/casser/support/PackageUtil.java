@@ -15,13 +15,17 @@
  */
 package com.noorq.casser.support;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -35,6 +39,8 @@ public class PackageUtil {
 	private static final Logger log = LoggerFactory.getLogger(PackageUtil.class);
 
 	public static final String JAR_URL_SEPARATOR = "!/";
+	
+	public static final String INDEX_RESOURCE = "META-INF/casser/entities.index";
 
 	private static void doFetchInPath(Set<Class<?>> classes, File directory,
 			String packageName, ClassLoader classLoader)
@@ -128,6 +134,92 @@ public class PackageUtil {
 		return classes;
 	}
 
+	/**
+	 * Returns the classes of the package and its sub-packages listed in the entity indexes generated
+	 * by casser-processor, the set is empty if no index lists the package. The indexes are complete 
+	 * only if isIndexed returns true for the package
+	 */
+	
+	public static Set<Class<?>> getIndexedClasses(String packagePath)
+			throws ClassNotFoundException {
+		ClassLoader classLoader = Thread.currentThread()
+				.getContextClassLoader();
+		if (classLoader == null) {
+			throw new ClassNotFoundException(
+					"class loader not found for current thread");
+		}
+		Set<String> names = new LinkedHashSet<String>();
+		String prefix = packagePath + ".";
+		try {
+			Enumeration<URL> resources = classLoader.getResources(INDEX_RESOURCE);
+			while (resources.hasMoreElements()) {
+				URL url = resources.nextElement();
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+						url.openStream(), StandardCharsets.UTF_8))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						line = line.trim();
+						if (line.startsWith(prefix)) {
+							names.add(line);
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new ClassNotFoundException("fail to read entity index", e);
+		}
+		Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+		for (String name : names) {
+			classes.add(classLoader.loadClass(name));
+		}
+		return classes;
+	}
+
+	/**
+	 * Returns true if every classpath root that contains the package has an entity index
+	 */
+	
+	public static boolean isIndexed(String packagePath)
+			throws ClassNotFoundException {
+		ClassLoader classLoader = Thread.currentThread()
+				.getContextClassLoader();
+		if (classLoader == null) {
+			throw new ClassNotFoundException(
+					"class loader not found for current thread");
+		}
+		String packageDir = packagePath.replace('.', '/');
+		try {
+			Set<String> indexedRoots = new HashSet<String>();
+			Enumeration<URL> indexes = classLoader.getResources(INDEX_RESOURCE);
+			while (indexes.hasMoreElements()) {
+				indexedRoots.add(rootOf(indexes.nextElement(), INDEX_RESOURCE));
+			}
+			boolean found = false;
+			Enumeration<URL> resources = classLoader.getResources(packageDir);
+			while (resources.hasMoreElements()) {
+				if (!indexedRoots.contains(rootOf(resources.nextElement(), packageDir))) {
+					return false;
+				}
+				found = true;
+			}
+			return found;
+		} catch (IOException e) {
+			throw new ClassNotFoundException("invalid package " + packagePath,
+					e);
+		}
+	}
+	
+	private static String rootOf(URL url, String path) {
+		String location = url.toString();
+		if (location.endsWith("/")) {
+			location = location.substring(0, location.length() - 1);
+		}
+		if (location.endsWith(path)) {
+			location = location.substring(0, location.length() - path.length());
+		}
+		return location;
+	}
+
 	public static String fastReplace(String inString, String oldPattern,
 			String newPattern) {
 		if (inString == null) {
@@ -37,14 +37,22 @@ public final class Timeuuid {
 		return of(date.getTime(), clockSequence, node);
 	}
 
+	/**
+	 * Returns the unique UUID of the given millisecond with the node of this process
+	 */
+	
 	public static UUID of(long timestampMillis) {
-		return of(timestampMillis, randomClockSequence(), randomNode());
+		return TimeuuidGenerator.INSTANCE.of(timestampMillis);
 	}
 
 	public static UUID of(Date date) {
 		return of(date.getTime());
 	}
 
+	public static UUID now() {
+		return TimeuuidGenerator.INSTANCE.next();
+	}
+
 	public static UUID minOf(long timestampMillis) {
 		return new UuidBuilder().addVersion(1).addTimestampMillis(timestampMillis).setMinClockSeqAndNode().build();
 	}
@@ -0,0 +1,140 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.support;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Lock-free generator of unique time-based UUIDs and of monotonic client timestamps.
+ *
+ *  The node and the clock sequence are random and fixed for the process, UUIDs of the current time 
+ *  take the next 100ns tick of an atomic clock, so they are unique and increasing.
+ *  UUIDs of the given millisecond use the sub-millisecond ticks and the clock sequence as a counter,
+ *  the counter is bounded by the millisecond and every time it wraps the UUIDs take another node.
+ *  
+ *  UUIDs of the current time have clock sequences in the lower half of the range and UUIDs of 
+ *  the given millisecond in the upper half, so the two never collide.
+ *
+ */
+
+public enum TimeuuidGenerator {
+
+	INSTANCE;
+	
+	private static final long VARIANT = 0x8000000000000000L;
+	private static final long MULTICAST = 0x010000000000L;
+	private static final int SEQUENCE_MASK = 0x1fff;
+	private static final int OF_SEQUENCE = 0x2000;
+	private static final long NODE_ROUND_MASK = 0xffffffffffL;
+	
+	private final long node;
+	private final int clockSequence;
+	private final long leastSigBits;
+	
+	private final AtomicLong last100Nanos = new AtomicLong();
+	private final AtomicLong lastMicros = new AtomicLong();
+	private final AtomicLong counter = new AtomicLong();
+	
+	private TimeuuidGenerator() {
+		
+		SecureRandom random = new SecureRandom();
+		
+		this.node = (random.nextLong() & 0xffffffffffffL) | MULTICAST;
+		this.clockSequence = random.nextInt(OF_SEQUENCE);
+		this.leastSigBits = VARIANT | ((long) clockSequence << 48) | node;
+	}
+	
+	public long getNode() {
+		return node;
+	}
+	
+	public int getClockSequence() {
+		return clockSequence;
+	}
+	
+	/**
+	 * Returns the UUID of the current time, every returned UUID is greater than the previous one
+	 */
+	
+	public UUID next() {
+		return new UUID(mostSigBits(next100Nanos()), leastSigBits);
+	}
+	
+	/**
+	 * Returns the unique UUID of the given millisecond
+	 */
+	
+	public UUID of(long timestampMillis) {
+		
+		long n = counter.getAndIncrement();
+		long tick = n % UuidBuilder.NUM_100NS_IN_MILLISECOND;
+		long round = n / UuidBuilder.NUM_100NS_IN_MILLISECOND;
+		long sequence = OF_SEQUENCE | ((clockSequence + round) & SEQUENCE_MASK);
+		
+		// ticks and sequences of the millisecond are used up, the multicast bit is kept
+		long ofNode = node ^ ((round / OF_SEQUENCE) & NODE_ROUND_MASK);
+		
+		long uuid100Nanos = timestampMillis * UuidBuilder.NUM_100NS_IN_MILLISECOND + UuidBuilder.NUM_100NS_SINCE_UUID_EPOCH + tick;
+		
+		return new UUID(mostSigBits(uuid100Nanos), VARIANT | (sequence << 48) | ofNode);
+	}
+	
+	/**
+	 * Returns the client timestamp in microseconds, every returned value is greater than the previous one
+	 */
+	
+	public long nextTimestampMicros() {
+		
+		long now = System.currentTimeMillis() * 1000L;
+		
+		while (true) {
+			
+			long last = lastMicros.get();
+			long next = now > last ? now : last + 1;
+			
+			if (lastMicros.compareAndSet(last, next)) {
+				return next;
+			}
+		}
+	}
+	
+	private long next100Nanos() {
+		
+		long now = System.currentTimeMillis() * UuidBuilder.NUM_100NS_IN_MILLISECOND + UuidBuilder.NUM_100NS_SINCE_UUID_EPOCH;
+		
+		while (true) {
+			
+			long last = last100Nanos.get();
+			long next = now > last ? now : last + 1;
+			
+			if (last100Nanos.compareAndSet(last, next)) {
+				return next;
+			}
+		}
+	}
+	
+	private static long mostSigBits(long uuid100Nanos) {
+		
+		long timeLow = uuid100Nanos & 0xffffffffL;
+		long timeMid = uuid100Nanos & 0xffff00000000L;
+		long timeHi = uuid100Nanos & 0xfff000000000000L;
+		
+		return (timeLow << 32) | (timeMid >> 16) | (timeHi >> 48) | (1L << 12);
+	}
+	
+}
@@ -0,0 +1,98 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core;
+
+import static com.noorq.casser.core.Query.eq;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.SimpleStatement;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.operation.AbstractStatementOperation;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+import com.noorq.casser.test.integration.core.prepared.Car;
+import com.noorq.casser.test.integration.core.simple.User;
+
+public class RoutingKeyTest extends AbstractEmbeddedCassandraTest {
+
+	static User user = Casser.dsl(User.class);
+	
+	static Car car = Casser.dsl(Car.class);
+	
+	static CasserSession session;
+	
+	@BeforeClass
+	public static void beforeTest() {
+		session = Casser.init(getSession()).add(User.class).add(Car.class).autoCreate().get();
+	}
+	
+	@Test
+	public void testSingleColumnPartitionKey() throws Exception {
+		
+		ByteBuffer expected = DataType.bigint().serialize(500L, ProtocolVersion.NEWEST_SUPPORTED);
+		
+		assertRoutingKey(expected, session.select(User.class).where(user::id, eq(500L)));
+		assertRoutingKey(expected, session.insert().value(user::id, 500L).value(user::name, "routing"));
+		assertRoutingKey(expected, session.update().set(user::age, 50).where(user::id, eq(500L)));
+		assertRoutingKey(expected, session.delete().where(user::id, eq(500L)));
+	}
+	
+	@Test
+	public void testCompositePartitionKey() throws Exception {
+		
+		ByteBuffer expected = new SimpleStatement("")
+				.setRoutingKey(
+						DataType.text().serialize("bmw", ProtocolVersion.NEWEST_SUPPORTED), 
+						DataType.text().serialize("x5", ProtocolVersion.NEWEST_SUPPORTED))
+				.getRoutingKey();
+		
+		assertRoutingKey(expected, session.select(Car.class).where(car::make, eq("bmw")).and(car::model, eq("x5")));
+		assertRoutingKey(expected, session.insert().value(car::make, "bmw").value(car::model, "x5").value(car::year, 2015));
+		assertRoutingKey(expected, session.update().set(car::year, 2016).where(car::make, eq("bmw")).and(car::model, eq("x5")));
+		assertRoutingKey(expected, session.delete().where(car::make, eq("bmw")).and(car::model, eq("x5")));
+		
+		// the partition key is not restricted
+		assertRoutingKey(null, session.select(Car.class).where(car::make, eq("bmw")));
+	}
+	
+	@Test
+	public void testValuesOfRoutedStatement() throws Exception {
+		
+		ByteBuffer expected = DataType.bigint().serialize(501L, ProtocolVersion.NEWEST_SUPPORTED);
+		
+		// '?' in the literal is not a bind marker
+		assertRoutingKey(expected, session.insert().value(user::id, 501L).value(user::name, "who?"));
+		
+		session.insert().value(user::id, 501L).value(user::name, "who?").value(user::age, 51).sync();
+		
+		User found = session.select(User.class).where(user::id, eq(501L)).sync().findFirst().get();
+		
+		Assert.assertEquals("who?", found.name());
+		Assert.assertEquals(Integer.valueOf(51), found.age());
+	}
+	
+	private static void assertRoutingKey(ByteBuffer expected, AbstractStatementOperation<?, ?> operation) {
+		Assert.assertEquals(expected, operation.executableStatement().getRoutingKey());
+	}
+	
+}
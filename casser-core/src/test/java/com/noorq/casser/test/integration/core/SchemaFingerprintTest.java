@@ -0,0 +1,152 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.datastax.driver.core.Row;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.support.CasserException;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+import com.noorq.casser.test.integration.core.simple.User;
+
+public class SchemaFingerprintTest extends AbstractEmbeddedCassandraTest {
+
+	// one test, the steps share the table and the stored fingerprints
+	
+	@Test
+	public void test() throws Exception {
+		testValidateIsReadOnly();
+		reset();
+		testMatch();
+		reset();
+		testMetadataChange();
+		reset();
+		testModelChange();
+	}
+	
+	private void reset() {
+		Casser.init(getSession()).add(User.class).autoUpdate().get();
+		getSession().execute("DROP TABLE IF EXISTS casser_schema");
+	}
+	
+	private void testValidateIsReadOnly() throws Exception {
+		
+		Casser.init(getSession()).add(User.class).autoCreate().get();
+		Casser.init(getSession()).add(User.class).autoValidate().withSchemaFingerprint().get();
+		
+		Assert.assertNull(getCluster().getMetadata().getKeyspace(getKeyspace()).getTable("casser_schema"));
+		
+		Casser.init(getSession()).add(User.class).autoUpdate().withSchemaFingerprint().get();
+		
+		Map<String, Date> stored = stored();
+		Assert.assertEquals(1, stored.size());
+		
+		getSession().execute("ALTER TABLE simple_users ADD extra text");
+		
+		Thread.sleep(10);
+		
+		// the entities are compared, nothing is written
+		Casser.init(getSession()).add(User.class).autoValidate().withSchemaFingerprint().get();
+		
+		Assert.assertEquals(stored, stored());
+		
+		getSession().execute("ALTER TABLE simple_users DROP extra");
+	}
+	
+	private void testMatch() throws Exception {
+
+		Casser.init(getSession()).add(User.class).autoUpdate().withSchemaFingerprint().get();
+		
+		Map<String, Date> stored = stored();
+		Assert.assertEquals(1, stored.size());
+		
+		Thread.sleep(10);
+		
+		Casser.init(getSession()).add(User.class).autoValidate().withSchemaFingerprint().get();
+		Casser.init(getSession()).add(User.class).autoUpdate().withSchemaFingerprint().get();
+		
+		// the fingerprint is written only after the entities were compared
+		Assert.assertEquals(stored, stored());
+	}
+	
+	private void testMetadataChange() throws Exception {
+		
+		Casser.init(getSession()).add(User.class).autoUpdate().withSchemaFingerprint().get();
+		
+		Map<String, Date> stored = stored();
+		
+		getSession().execute("ALTER TABLE simple_users DROP age");
+		
+		try {
+			Casser.init(getSession()).add(User.class).autoValidate().withSchemaFingerprint().get();
+			Assert.fail("the validation is skipped");
+		}
+		catch(CasserException e) {
+		}
+		
+		Thread.sleep(10);
+		
+		Casser.init(getSession()).add(User.class).autoUpdate().withSchemaFingerprint().get();
+		
+		Assert.assertNotNull(getCluster().getMetadata().getKeyspace(getKeyspace()).getTable("simple_users").getColumn("age"));
+		
+		Map<String, Date> updated = stored();
+		Assert.assertEquals(stored.keySet(), updated.keySet());
+		
+		String model = stored.keySet().iterator().next();
+		Assert.assertTrue(updated.get(model).after(stored.get(model)));
+		
+		Casser.init(getSession()).add(User.class).autoValidate().withSchemaFingerprint().get();
+	}
+	
+	private void testModelChange() throws Exception {
+		
+		Casser.init(getSession()).add(User.class).autoUpdate().withSchemaFingerprint().get();
+		
+		Map<String, Date> stored = stored();
+		
+		getSession().execute("ALTER TABLE simple_users ADD extra text");
+		Casser.init(getSession()).add(User.class).autoUpdate().withSchemaFingerprint().get();
+		
+		Assert.assertNotNull(getCluster().getMetadata().getKeyspace(getKeyspace()).getTable("simple_users").getColumn("extra"));
+		
+		Casser.init(getSession()).add(User.class).autoUpdate().dropUnusedColumns(true).withSchemaFingerprint().get();
+		
+		Assert.assertNull(getCluster().getMetadata().getKeyspace(getKeyspace()).getTable("simple_users").getColumn("extra"));
+		
+		Map<String, Date> updated = stored();
+		Assert.assertEquals(2, updated.size());
+		Assert.assertTrue(updated.keySet().containsAll(stored.keySet()));
+	}
+	
+	private Map<String, Date> stored() {
+		
+		Map<String, Date> stored = new HashMap<String, Date>();
+		
+		for (Row row : getSession().execute("SELECT model, updated FROM casser_schema")) {
+			stored.put(row.getString(0), row.getDate(1));
+		}
+		
+		return stored;
+	}
+	
+}
@@ -0,0 +1,184 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core.batch;
+
+import static com.noorq.casser.core.Query.eq;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Statement;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.operation.BatchOperation;
+import com.noorq.casser.support.CasserException;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+
+public class BatchTest extends AbstractEmbeddedCassandraTest {
+
+	static Event event;
+	
+	static CasserSession session;
+	
+	@BeforeClass
+	public static void beforeTest() {
+		
+		event = Casser.dsl(Event.class);
+		
+		session = Casser.init(getSession()).showCql().add(Event.class).autoCreateDrop().get();
+	}
+	
+	@Test
+	public void testPartitionGrouping() throws Exception {
+		
+		UUID device1 = UUID.randomUUID();
+		UUID device2 = UUID.randomUUID();
+		
+		BatchOperation batch = session.batch();
+		
+		for (int i = 0; i != 3; ++i) {
+			batch.add(session.upsert().value(event::deviceId, device1).value(event::time, new Date(i)).value(event::payload, "a" + i));
+			batch.add(session.upsert().value(event::deviceId, device2).value(event::time, new Date(i)).value(event::payload, "b" + i));
+		}
+		
+		List<Statement> statements = batch.buildStatements();
+		Assert.assertEquals(2, statements.size());
+		
+		for (Statement statement : statements) {
+			Assert.assertTrue(statement instanceof BatchStatement);
+			Assert.assertEquals(3, ((BatchStatement) statement).size());
+		}
+		
+		batch.sync();
+		
+		Assert.assertEquals(3, session.select(event::payload).where(event::deviceId, eq(device1)).sync().count());
+		Assert.assertEquals(3, session.select(event::payload).where(event::deviceId, eq(device2)).sync().count());
+		
+		session.batch(session.delete().where(event::deviceId, eq(device1)),
+				session.delete().where(event::deviceId, eq(device2)))
+				.logged()
+				.sync();
+		
+		Assert.assertEquals(0, session.select(event::payload).where(event::deviceId, eq(device1)).sync().count());
+		Assert.assertEquals(0, session.select(event::payload).where(event::deviceId, eq(device2)).sync().count());
+		
+	}
+	
+	@Test
+	public void testSplit() throws Exception {
+		
+		UUID device = UUID.randomUUID();
+		
+		BatchOperation batch = session.batch().maxBatchSize(200);
+		
+		for (int i = 0; i != 10; ++i) {
+			batch.add(session.upsert().value(event::deviceId, device).value(event::time, new Date(i)).value(event::payload, "payload" + i));
+		}
+		
+		Assert.assertTrue(batch.buildStatements().size() > 1);
+		
+		batch.sync();
+		
+		Assert.assertEquals(10, session.select(event::payload).where(event::deviceId, eq(device)).sync().count());
+	}
+	
+	@Test
+	public void testSplitByValues() throws Exception {
+		
+		// values are not inlined in the query without showCql
+		CasserSession session = Casser.init(getSession()).add(Event.class).get();
+		
+		UUID device = UUID.randomUUID();
+		
+		char[] payload = new char[400];
+		Arrays.fill(payload, 'v');
+		
+		BatchOperation batch = session.batch().maxBatchSize(1000);
+		
+		for (int i = 0; i != 4; ++i) {
+			batch.add(session.upsert().value(event::deviceId, device).value(event::time, new Date(i)).value(event::payload, new String(payload)));
+		}
+		
+		Assert.assertTrue(batch.buildStatements().size() > 1);
+		
+		batch.sync();
+		
+		Assert.assertEquals(4, session.select(event::payload).where(event::deviceId, eq(device)).sync().count());
+	}
+	
+	@Test
+	public void testLoggedIsNotSplit() throws Exception {
+		
+		UUID device = UUID.randomUUID();
+		
+		BatchOperation batch = session.batch().logged().maxBatchSize(200);
+		
+		for (int i = 0; i != 10; ++i) {
+			batch.add(session.upsert().value(event::deviceId, device).value(event::time, new Date(i)).value(event::payload, "payload" + i));
+		}
+		
+		List<Statement> statements = batch.buildStatements();
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals(10, ((BatchStatement) statements.get(0)).size());
+		
+		batch.sync();
+		
+		Assert.assertEquals(10, session.select(event::payload).where(event::deviceId, eq(device)).sync().count());
+	}
+	
+	@Test
+	public void testConditionalAndOptions() throws Exception {
+		
+		UUID device = UUID.randomUUID();
+		
+		BatchOperation batch = session.batch()
+				.add(session.upsert().value(event::deviceId, device).value(event::time, new Date(0)).value(event::payload, "a").consistencyQuorum())
+				.add(session.insert().value(event::deviceId, device).value(event::time, new Date(1)).value(event::payload, "b").ifNotExists());
+		
+		List<Statement> statements = batch.buildStatements();
+		Assert.assertEquals(2, statements.size());
+		
+		for (Statement statement : statements) {
+			Assert.assertFalse(statement instanceof BatchStatement);
+		}
+		
+		Assert.assertEquals(ConsistencyLevel.QUORUM, statements.get(1).getConsistencyLevel());
+		
+		batch.sync();
+		
+		Assert.assertEquals(2, session.select(event::payload).where(event::deviceId, eq(device)).sync().count());
+	}
+	
+	@Test(expected=CasserException.class)
+	public void testConflictingOptions() throws Exception {
+		
+		UUID device = UUID.randomUUID();
+		
+		session.batch()
+				.add(session.upsert().value(event::deviceId, device).value(event::time, new Date(0)).value(event::payload, "a").consistencyQuorum())
+				.add(session.upsert().value(event::deviceId, device).value(event::time, new Date(1)).value(event::payload, "b").consistencyOne())
+				.sync();
+	}
+	
+}
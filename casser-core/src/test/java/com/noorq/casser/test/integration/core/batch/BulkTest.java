@@ -0,0 +1,134 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core.batch;
+
+import static com.noorq.casser.core.Query.eq;
+import static com.noorq.casser.core.Query.in;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.operation.BulkExecution;
+import com.noorq.casser.core.operation.ScanOperation;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+
+public class BulkTest extends AbstractEmbeddedCassandraTest {
+
+	static Event event;
+	
+	static CasserSession session;
+	
+	@BeforeClass
+	public static void beforeTest() {
+		
+		event = Casser.dsl(Event.class);
+		
+		session = Casser.init(getSession()).add(Event.class).autoCreate().get();
+	}
+	
+	@Test
+	public void testExecuteAll() throws Exception {
+		
+		UUID device = UUID.randomUUID();
+		AtomicLong progress = new AtomicLong();
+		
+		BulkExecution bulk = session.bulk(8)
+				.onProgress(100, b -> progress.incrementAndGet())
+				.execute(IntStream.range(0, 1000).mapToObj(i -> session.upsert()
+						.value(event::deviceId, device)
+						.value(event::time, new Date(i))
+						.value(event::payload, "p" + i)));
+		
+		Assert.assertTrue(bulk.isSuccess());
+		Assert.assertEquals(1000, bulk.getSubmitted());
+		Assert.assertEquals(1000, bulk.getSucceeded());
+		Assert.assertEquals(0, bulk.getInFlight());
+		Assert.assertEquals(10, progress.get());
+		
+		Assert.assertEquals(1000, session.select(event::payload).where(event::deviceId, eq(device)).sync().count());
+		
+	}
+	
+	@Test
+	public void testScan() throws Exception {
+		
+		Set<UUID> devices = IntStream.range(0, 200).mapToObj(i -> UUID.randomUUID()).collect(Collectors.toSet());
+		
+		BulkExecution bulk = session.executeAll(devices.stream().map(d -> session.upsert()
+				.value(event::deviceId, d)
+				.value(event::time, new Date())
+				.value(event::payload, "scan")), 16);
+		
+		Assert.assertTrue(bulk.isSuccess());
+		
+		AtomicLong progress = new AtomicLong();
+		
+		ScanOperation<Event> scan = session.scan(Event.class)
+				.splits(16)
+				.parallelism(4)
+				.fetchSize(50)
+				.onProgress(s -> progress.incrementAndGet());
+		
+		long found = scan.sync().filter(e -> devices.contains(e.deviceId())).count();
+		
+		Assert.assertEquals(200, found);
+		Assert.assertEquals(scan.getTotalSplits(), scan.getCompletedSplits());
+		Assert.assertEquals(scan.getTotalSplits(), progress.get());
+		
+	}
+	
+	@Test
+	public void testFanOut() throws Exception {
+		
+		UUID[] devices = IntStream.range(0, 50).mapToObj(i -> UUID.randomUUID()).toArray(UUID[]::new);
+		
+		BulkExecution bulk = session.executeAll(Arrays.stream(devices).map(d -> session.upsert()
+				.value(event::deviceId, d)
+				.value(event::time, new Date())
+				.value(event::payload, d.toString())), 16);
+		
+		Assert.assertTrue(bulk.isSuccess());
+		
+		List<String> payloads = session.select(event::payload)
+				.where(event::deviceId, in(devices))
+				.fanOut(8, true)
+				.sync()
+				.map(t -> t._1)
+				.collect(Collectors.toList());
+		
+		Assert.assertEquals(Arrays.stream(devices).map(UUID::toString).collect(Collectors.toList()), payloads);
+		
+		Assert.assertEquals(50, session.select(event::payload)
+				.where(event::deviceId, in(devices))
+				.fanOut(8)
+				.sync()
+				.count());
+		
+	}
+	
+}
@@ -0,0 +1,171 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core.compound;
+
+import static com.noorq.casser.core.Query.eq;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.operation.Page;
+import com.noorq.casser.support.Fun;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+
+public class PagingTest extends AbstractEmbeddedCassandraTest {
+
+	static Timeline timeline = Casser.dsl(Timeline.class);
+	
+	static CasserSession session;
+	
+	@BeforeClass
+	public static void beforeTest() {
+		session = Casser.init(getSession()).showCql().add(Timeline.class).autoCreate().get();
+	}
+	
+	@Test
+	public void testPages() throws Exception {
+		
+		UUID userId = UUID.randomUUID();
+		long postTime = System.currentTimeMillis() - 100000L;
+		
+		for (int i = 0; i != 25; ++i) {
+			session.upsert()
+			.value(timeline::userId, userId)
+			.value(timeline::timestamp, new Date(postTime + 1000L * i))
+			.value(timeline::text, "hello" + i)
+			.sync();
+		}
+		
+		Set<String> texts = new HashSet<String>();
+		String pageToken = null;
+		int pages = 0;
+		
+		do {
+			
+			Page<Fun.Tuple1<String>> page = session.select(timeline::text)
+					.where(timeline::userId, eq(userId))
+					.page(10, pageToken);
+			
+			Assert.assertTrue(page.size() <= 10);
+			page.forEach(t -> texts.add(t._1));
+			
+			pageToken = page.getNextPageToken();
+			pages++;
+			
+		} while (pageToken != null);
+		
+		Assert.assertEquals(25, texts.size());
+		Assert.assertTrue(pages >= 3);
+		
+	}
+	
+	@Test
+	public void testPrefetch() throws Exception {
+		
+		UUID userId = UUID.randomUUID();
+		long postTime = System.currentTimeMillis() - 100000L;
+		
+		for (int i = 0; i != 25; ++i) {
+			session.upsert()
+			.value(timeline::userId, userId)
+			.value(timeline::timestamp, new Date(postTime + 1000L * i))
+			.value(timeline::text, "hello" + i)
+			.sync();
+		}
+		
+		long count = session.select(timeline::text)
+				.where(timeline::userId, eq(userId))
+				.prefetch()
+				.fetchSize(10)
+				.sync()
+				.count();
+		
+		Assert.assertEquals(25L, count);
+		
+	}
+	
+	@Test
+	public void testPublisher() throws Exception {
+		
+		UUID userId = UUID.randomUUID();
+		long postTime = System.currentTimeMillis() - 100000L;
+		
+		for (int i = 0; i != 25; ++i) {
+			session.upsert()
+			.value(timeline::userId, userId)
+			.value(timeline::timestamp, new Date(postTime + 1000L * i))
+			.value(timeline::text, "hello" + i)
+			.sync();
+		}
+		
+		Publisher<Fun.Tuple1<String>> publisher = session.select(timeline::text)
+				.where(timeline::userId, eq(userId))
+				.fetchSize(10)
+				.publisher();
+		
+		Set<String> texts = Collections.synchronizedSet(new HashSet<String>());
+		CountDownLatch completed = new CountDownLatch(1);
+		
+		publisher.subscribe(new Subscriber<Fun.Tuple1<String>>() {
+
+			Subscription subscription;
+			
+			@Override
+			public void onSubscribe(Subscription s) {
+				subscription = s;
+				subscription.request(3);
+			}
+
+			@Override
+			public void onNext(Fun.Tuple1<String> t) {
+				texts.add(t._1);
+				if (texts.size() % 3 == 0) {
+					subscription.request(3);
+				}
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				completed.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				completed.countDown();
+			}
+			
+		});
+		
+		Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(25, texts.size());
+		
+	}
+	
+}
@@ -61,4 +61,15 @@ public class CounterTest extends AbstractEmbeddedCassandraTest {
 		
 	}
 	
+	@Test
+	public void testIdempotence() {
+		
+		Assert.assertTrue(session.select(page::hits).where(page::alias, eq("index")).isIdempotent());
+		Assert.assertTrue(session.count().where(page::alias, eq("index")).isIdempotent());
+		
+		Assert.assertFalse(session.update().increment(page::hits).where(page::alias, eq("index")).usingTimestamp(1L).isIdempotent());
+		Assert.assertTrue(session.update().increment(page::hits).where(page::alias, eq("index")).idempotent(true).isIdempotent());
+		
+	}
+	
 }
@@ -0,0 +1,121 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core.prepared;
+
+import static com.noorq.casser.core.Query.eq;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.SimpleStatement;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.PreparedStatementCache;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+
+public class StatementCacheTest extends AbstractEmbeddedCassandraTest {
+
+	static Car car;
+	
+	static CasserSession session;
+	
+	@BeforeClass
+	public static void beforeTest() {
+
+		car = Casser.dsl(Car.class);
+		
+		session = Casser.init(getSession()).showCql().add(Car.class).autoCreate().withStatementCache(10).get();
+		
+	}
+	
+	@Test
+	public void testCRUID() throws Exception {
+		
+		PreparedStatementCache cache = session.getStatementCache();
+		Assert.assertNotNull(cache);
+		
+		for (int i = 0; i != 10; ++i) {
+			
+			String model = "Corolla" + i;
+			
+			session.insert()
+			.value(car::make, "Toyota")
+			.value(car::model, model)
+			.value(car::year, 2000 + i)
+			.sync();
+			
+			session.update()
+			.set(car::price, BigDecimal.valueOf(1000.0 * i))
+			.where(car::make, eq("Toyota"))
+			.and(car::model, eq(model))
+			.sync();
+			
+			Car actual = session.select(Car.class)
+					.where(car::make, eq("Toyota"))
+					.and(car::model, eq(model))
+					.sync().findFirst().get();
+			
+			Assert.assertEquals(model, actual.model());
+			Assert.assertEquals(2000 + i, actual.year());
+			Assert.assertEquals(BigDecimal.valueOf(1000.0 * i), actual.price());
+			
+			Long cnt = session.count()
+					.where(car::make, eq("Toyota"))
+					.and(car::model, eq(model))
+					.sync();
+			Assert.assertEquals(Long.valueOf(1), cnt);
+			
+			session.delete()
+			.where(car::make, eq("Toyota"))
+			.and(car::model, eq(model))
+			.sync();
+			
+		}
+		
+		Assert.assertEquals(5, cache.size());
+		Assert.assertTrue(cache.getHitCount() > 0);
+		
+	}
+	
+	@Test
+	public void testFailedPrepareIsNotCached() throws Exception {
+		
+		PreparedStatementCache cache = new PreparedStatementCache(session, 10);
+		
+		List<Object> shape = Arrays.asList("select", "no_such_table");
+		Supplier<RegularStatement> template = () -> new SimpleStatement("SELECT * FROM no_such_table WHERE id=?");
+		
+		Assert.assertNull(cache.bind(shape, new Object[] { 1 }, template));
+		
+		for (int i = 0; i != 100 && cache.size() != 0; ++i) {
+			Thread.sleep(10);
+		}
+		
+		Assert.assertEquals(0, cache.size());
+		
+		// prepared again
+		Assert.assertNull(cache.bind(shape, new Object[] { 1 }, template));
+		Assert.assertEquals(2, cache.getMissCount());
+	}
+	
+}
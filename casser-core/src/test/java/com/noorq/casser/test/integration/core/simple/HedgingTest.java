@@ -0,0 +1,83 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core.simple;
+
+import static com.noorq.casser.core.Query.eq;
+
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.HedgingPolicy;
+import com.noorq.casser.support.Fun;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+
+public class HedgingTest extends AbstractEmbeddedCassandraTest {
+
+	static User user = Casser.dsl(User.class);
+	
+	static CasserSession session;
+	
+	@BeforeClass
+	public static void beforeTest() {
+		session = Casser.init(getSession()).add(User.class).autoCreate().get();
+	}
+	
+	@Test
+	public void testHedgedReads() throws Exception {
+		
+		session.upsert()
+		.value(user::id, 300L)
+		.value(user::name, "hedged")
+		.value(user::age, 30)
+		.sync();
+		
+		HedgingPolicy policy = HedgingPolicy.percentile(0.5);
+		session.hedging(policy);
+		
+		try {
+			
+			for (int i = 0; i != 256; ++i) {
+				
+				Optional<Fun.Tuple1<String>> name = session.select(user::name)
+						.where(user::id, eq(300L))
+						.single()
+						.sync();
+				
+				Assert.assertEquals("hedged", name.get()._1);
+				
+				long count = session.count()
+						.where(user::id, eq(300L))
+						.hedging(policy)
+						.sync();
+				
+				Assert.assertEquals(1L, count);
+			}
+			
+			Assert.assertTrue(policy.getDelayNanos() >= 0);
+			
+		}
+		finally {
+			session.hedging(null);
+		}
+		
+	}
+	
+}
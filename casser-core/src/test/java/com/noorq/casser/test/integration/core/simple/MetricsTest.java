@@ -0,0 +1,186 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core.simple;
+
+import static com.noorq.casser.core.Query.eq;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.datastax.driver.core.SimpleStatement;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.SlowQueryLog;
+import com.noorq.casser.core.metrics.CasserMetrics;
+import com.noorq.casser.core.metrics.OperationStats;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+
+public class MetricsTest extends AbstractEmbeddedCassandraTest {
+
+	static User user = Casser.dsl(User.class);
+	
+	static CasserSession session;
+	
+	@BeforeClass
+	public static void beforeTest() {
+		session = Casser.init(getSession()).add(User.class).autoCreate().withMetrics().get();
+	}
+	
+	@Test
+	public void testOperationStats() throws Exception {
+		
+		for (long i = 0; i != 10; ++i) {
+			session.upsert()
+			.value(user::id, 400L + i)
+			.value(user::name, "metrics" + i)
+			.value(user::age, 40)
+			.sync();
+		}
+		
+		long rows = session.select(User.class)
+				.where(user::id, eq(401L))
+				.sync()
+				.count();
+		
+		Assert.assertEquals(1L, rows);
+		
+		CasserMetrics metrics = session.metrics();
+		
+		await(() -> metrics.get("insert", "simple_users").map(OperationStats::getCount).orElse(0L) >= 10L);
+		await(() -> metrics.get("select", "simple_users").map(OperationStats::getCount).orElse(0L) >= 1L);
+		
+		Optional<OperationStats> upserts = metrics.get("insert", "simple_users");
+		Assert.assertTrue(upserts.isPresent());
+		Assert.assertTrue(upserts.get().getCount() >= 10L);
+		
+		Optional<OperationStats> selects = metrics.get("select", "simple_users");
+		Assert.assertTrue(selects.isPresent());
+		Assert.assertTrue(selects.get().getCount() >= 1L);
+		Assert.assertTrue(selects.get().getRows() >= 1L);
+		Assert.assertTrue(selects.get().getExecutionP99Micros() > 0.0);
+		
+		Assert.assertFalse(ManagementFactory.getPlatformMBeanServer()
+				.queryNames(new ObjectName(CasserMetrics.JMX_DOMAIN + ":type=Operation,*"), null).isEmpty());
+		
+	}
+	
+	@Test
+	public void testBatchAndPageStats() throws Exception {
+		
+		session.batch()
+				.add(session.upsert().value(user::id, 420L).value(user::name, "batch").value(user::age, 42))
+				.sync();
+		
+		session.select(User.class).where(user::id, eq(420L)).page(10, null);
+		
+		CasserMetrics metrics = session.metrics();
+		
+		await(() -> metrics.get("batch", "none").map(OperationStats::getCount).orElse(0L) >= 1L);
+		
+		Assert.assertTrue(metrics.get("batch", "none").isPresent());
+		Assert.assertTrue(metrics.get("select", "simple_users").get().getCount() >= 1L);
+		
+	}
+	
+	@Test
+	public void testSlowQueryLog() throws Exception {
+		
+		// own session, the other test methods run in parallel and would be logged as well
+		CasserSession session = Casser.init(getSession()).add(User.class).get();
+		
+		SlowQueryLog slowQueryLog = new SlowQueryLog(0, TimeUnit.MILLISECONDS).sampleRate(1.0);
+		session.slowQueryLog(slowQueryLog);
+		
+		try {
+			
+			for (long i = 0; i != 20; ++i) {
+				session.select(user::name).where(user::id, eq(400L + i % 5)).sync().count();
+			}
+			
+			await(() -> slowQueryLog.getSlowCount() == 20L);
+			
+			Assert.assertEquals(20L, slowQueryLog.getSlowCount());
+			
+			List<SlowQueryLog.Shape> top = slowQueryLog.topByTotalTime(1);
+			Assert.assertEquals(1, top.size());
+			Assert.assertEquals(20L, top.get(0).getCount());
+			Assert.assertTrue(top.get(0).getCql().contains("?"));
+			
+			session.batch()
+					.add(session.upsert().value(user::id, 421L).value(user::name, "slow").value(user::age, 42))
+					.sync();
+			
+			await(() -> slowQueryLog.getSlowCount() == 21L);
+			
+			Assert.assertEquals(21L, slowQueryLog.getSlowCount());
+		}
+		finally {
+			session.slowQueryLog(null);
+		}
+		
+	}
+	
+	@Test
+	public void testSlowQueryLogWindow() throws Exception {
+		
+		SlowQueryLog slowQueryLog = new SlowQueryLog(1, TimeUnit.HOURS)
+				.sampleRate(1.0)
+				.window(2, TimeUnit.SECONDS);
+		
+		try {
+			
+			slowQueryLog.record(new SimpleStatement("SELECT * FROM simple_users WHERE id=1"), 100L);
+			
+			Thread.sleep(2100);
+			
+			slowQueryLog.record(new SimpleStatement("SELECT * FROM simple_users WHERE id=2"), 100L);
+			
+			List<SlowQueryLog.Shape> top = slowQueryLog.topByTotalTime(1);
+			Assert.assertEquals(1, top.size());
+			Assert.assertEquals(2L, top.get(0).getCount());
+			Assert.assertEquals(200L, top.get(0).getTotalNanos());
+			
+			Thread.sleep(4100);
+			
+			slowQueryLog.record(new SimpleStatement("SELECT * FROM simple_users WHERE id=3"), 100L);
+			
+			top = slowQueryLog.topByTotalTime(1);
+			Assert.assertEquals(1L, top.get(0).getCount());
+		}
+		finally {
+			slowQueryLog.close();
+		}
+		
+	}
+	
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		
+		// execution timings are recorded by the future listener after the caller is released
+		for (int i = 0; i != 100 && !condition.getAsBoolean(); ++i) {
+			Thread.sleep(10);
+		}
+	}
+	
+}
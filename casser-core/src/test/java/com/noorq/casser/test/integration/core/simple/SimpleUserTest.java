@@ -24,7 +24,12 @@ import org.junit.Test;
 
 import com.noorq.casser.core.Casser;
 import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.core.Filter;
 import com.noorq.casser.core.Operator;
+import com.noorq.casser.core.operation.SelectPrimitiveOperation.LongChunks;
+import com.noorq.casser.core.operation.SelectStream;
+import com.noorq.casser.mapping.value.Materialization;
+import com.noorq.casser.support.CasserException;
 import com.noorq.casser.support.Fun;
 import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
 
@@ -138,6 +143,66 @@ public class SimpleUserTest extends AbstractEmbeddedCassandraTest {
 		
 		Assert.assertEquals(newUser.name(), name);
 		
+		// filter and limit of the stream in the query
+		
+		SelectStream<User> stream = (SelectStream<User>) session.select(User.class)
+				.sync()
+				.filter(Filter.equal(user::id, 100L));
+		
+		Assert.assertTrue(stream.buildStatement().toString().contains("id=100"));
+		
+		SelectStream<User> limited = stream.limit(5);
+		
+		Assert.assertTrue(limited.buildStatement().toString().contains("LIMIT 5"));
+		
+		actual = limited.findFirst().get();
+		
+		assertUsers(newUser, actual);
+		
+		try {
+			stream.count();
+			Assert.fail("stream is reused");
+		}
+		catch(IllegalStateException e) {
+		}
+		
+		Assert.assertTrue(session.select(User.class).sync().limit(10).findFirst().isPresent());
+		
+		// not indexed column is evaluated on the entities
+		Assert.assertEquals(1L, session.select(User.class).sync().filter(Filter.equal(user::age, 34)).count());
+		
+		try {
+			session.select(user::name).sync().filter(Filter.equal(user::age, 34));
+			Assert.fail("filter of not indexed column is evaluated on the tuples");
+		}
+		catch(CasserException e) {
+		}
+		
+		Assert.assertTrue(session.select(user::name).sync().filter(Filter.equal(user::id, 100L)).findFirst().isPresent());
+		
+		// select primitive columns
+		
+		long id = session.selectLong(user::id)
+				.where(user::id, eq(100L))
+				.sync().findFirst().getAsLong();
+		
+		Assert.assertEquals(100L, id);
+		
+		int age = session.selectInt(user::age)
+				.where(user::id, eq(100L))
+				.sync().sum();
+		
+		Assert.assertEquals(newUser.age().intValue(), age);
+		
+		LongChunks chunks = session.selectLongs(user::id)
+				.where(user::id, eq(100L))
+				.sync();
+		
+		long[] chunk = new long[16];
+		Assert.assertEquals(1, chunks.read(chunk));
+		Assert.assertEquals(100L, chunk[0]);
+		Assert.assertEquals(0, chunks.read(chunk));
+		
 		// UPDATE
 		
 		session.update(user::name, "albert")
@@ -162,6 +227,16 @@ public class SimpleUserTest extends AbstractEmbeddedCassandraTest {
 		Assert.assertEquals("albert", u.name());
 		Assert.assertEquals(Integer.valueOf(35), u.age());
 		
+		for (Materialization materialization : Materialization.values()) {
+			
+			u = session.select(User.class).materialization(materialization)
+					.where(user::id, eq(100L)).sync().findFirst().get();
+			
+			Assert.assertEquals("albert", u.name());
+			Assert.assertEquals("albert", u.name());
+			Assert.assertEquals(Integer.valueOf(35), u.age());
+		}
+		
 		// INSERT
 		
 		session.update()
@@ -0,0 +1,113 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.integration.core.usertype;
+
+import static com.noorq.casser.core.Query.eq;
+
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.CasserSession;
+import com.noorq.casser.mapping.annotation.UDT;
+import com.noorq.casser.support.CasserMappingException;
+import com.noorq.casser.test.integration.build.AbstractEmbeddedCassandraTest;
+
+public class SchemaSynchronizationTest extends AbstractEmbeddedCassandraTest {
+
+	static Customer customer = Casser.dsl(Customer.class);
+	
+	@UDT("cyclic_left")
+	public interface Left {
+		
+		Right right();
+		
+	}
+	
+	@UDT("cyclic_right")
+	public interface Right {
+		
+		Left left();
+		
+	}
+	
+	// the steps create the same user types and tables, they can not run in parallel
+	
+	@Test
+	public void test() throws Exception {
+		testParallel();
+		testAsync();
+	}
+	
+	private void testParallel() throws Exception {
+		
+		Casser.init(getSession())
+			.add(Customer.class)
+			.add(Account.class)
+			.autoCreate()
+			.withSchemaParallelism(4)
+			.get();
+		
+		KeyspaceMetadata km = getCluster().getMetadata().getKeyspace(getKeyspace());
+		
+		Assert.assertNotNull(km.getUserType("address"));
+		Assert.assertNotNull(km.getUserType("address_information"));
+		Assert.assertNotNull(km.getTable("customer"));
+		Assert.assertNotNull(km.getTable("account"));
+	}
+	
+	private void testAsync() throws Exception {
+		
+		ListenableFuture<CasserSession> future = Casser.init(getSession())
+			.add(Customer.class)
+			.autoUpdate()
+			.withSchemaParallelism(2)
+			.getAsync();
+		
+		CasserSession session = future.get();
+		
+		UUID id = UUID.randomUUID();
+		
+		session.insert().value(customer::id, id).sync();
+		
+		Assert.assertEquals(Long.valueOf(1), session.count().where(customer::id, eq(id)).sync());
+	}
+	
+	@Test(expected = CasserMappingException.class)
+	public void testCyclicDependency() throws Exception {
+		
+		Casser.init(getSession())
+			.add(Left.class)
+			.autoCreate()
+			.withSchemaParallelism(4)
+			.get();
+	}
+	
+	@Test(expected = CasserMappingException.class)
+	public void testCyclicDependencyAsync() throws Exception {
+		
+		// the cycle is reported before any DDL is sent
+		Casser.init(getSession())
+			.add(Left.class)
+			.autoCreate()
+			.getAsync();
+	}
+	
+}
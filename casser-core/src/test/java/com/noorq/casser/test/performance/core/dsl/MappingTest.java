@@ -21,6 +21,7 @@ import java.util.Map;
 import org.junit.Test;
 
 import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.reflect.GeneratedMapperInstantiator;
 
 public class MappingTest {
 
@@ -65,6 +66,38 @@ public class MappingTest {
 		System.out.println("ReflectionAccess = " + t1);
 	}
 	
+	@Test
+	public void testGeneratedConstructor() {
+		
+		long t0 = System.currentTimeMillis();
+		
+		for (int i = 0; i != 100000; ++i) {
+			GeneratedMapperInstantiator.INSTANCE.instantiate(Elevator.class, fixture, Elevator.class.getClassLoader());
+		}
+		
+		long t1 = System.currentTimeMillis() - t0;
+		
+		System.out.println("GeneratedConstructor = " + t1);
+	}
+	
+	@Test
+	public void testGeneratedAccess() {
+		
+		long t0 = System.currentTimeMillis();
+
+		Elevator elevator = GeneratedMapperInstantiator.INSTANCE.instantiate(Elevator.class, fixture, Elevator.class.getClassLoader());
+
+		for (int i = 0; i != 100000; ++i) {
+			elevator.height();
+			elevator.price();
+			elevator.name();
+		}
+		
+		long t1 = System.currentTimeMillis() - t0;
+		
+		System.out.println("GeneratedAccess = " + t1);
+	}
+	
 	@Test
 	public void testJavaAccess() {
 
@@ -24,8 +24,7 @@ import org.junit.Test;
 import com.noorq.casser.core.Casser;
 import com.noorq.casser.core.Getter;
 import com.noorq.casser.core.Query;
-import com.noorq.casser.core.reflect.CasserPropertyNode;
-import com.noorq.casser.support.DslPropertyException;
+import com.noorq.casser.mapping.MappingUtil;
 
 public class CollectionsDlsTest {
 
@@ -44,19 +43,9 @@ public class CollectionsDlsTest {
 	@Test
 	public void testMapGet() {
 		
-		String columnName = null;
-		
 		Getter<String> getter = Query.get(account::properties, "key1");
 		
-		try {
-			getter.get();
-		}
-		catch(DslPropertyException e) {
-			
-			CasserPropertyNode node = e.getPropertyNode();
-			columnName = node.getColumnName();
-			
-		}
+		String columnName = MappingUtil.resolveMappingProperty(getter).getColumnName();
 		
 		Assert.assertEquals("\"properties\"[\"key1\"]", columnName);
 		
@@ -65,20 +54,9 @@ public class CollectionsDlsTest {
 	@Test
 	public void testListGet() {
 		
-		String columnName = null;
-		
 		Getter<String> getter = Query.getIdx(account::name, 2);
 		
-		try {
-			getter.get();
-		}
-		catch(DslPropertyException e) {
-			
-			CasserPropertyNode node = e.getPropertyNode();
-
-			columnName = node.getColumnName();
-			
-		}
+		String columnName = MappingUtil.resolveMappingProperty(getter).getColumnName();
 		
 		Assert.assertEquals("\"name\"[\"2\"]", columnName);
 		
@@ -15,11 +15,13 @@
  */
 package com.noorq.casser.test.unit.core.dsl;
 
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.noorq.casser.core.Casser;
-import com.noorq.casser.support.DslPropertyException;
+import com.noorq.casser.core.reflect.CasserPropertyNode;
+import com.noorq.casser.mapping.MappingUtil;
 
 public class DslTest {
 
@@ -35,9 +37,22 @@ public class DslTest {
 		System.out.println(account);
 	}
 	
-	@Test(expected=DslPropertyException.class)
+	@Test
 	public void test() throws Exception {
-		account.id();
+		Assert.assertNull(account.id());
+		Assert.assertFalse(account.active());
+	}
+	
+	@Test
+	public void testResolve() throws Exception {
+		
+		CasserPropertyNode node = MappingUtil.resolveMappingProperty(account::id);
+		
+		Assert.assertEquals("id", node.getProperty().getPropertyName());
+		Assert.assertSame(node, MappingUtil.resolveMappingProperty(account::id));
+		
+		Assert.assertEquals("active", MappingUtil.resolveMappingProperty(account::active).getProperty().getPropertyName());
+		
 	}
 	
 }
@@ -15,6 +15,7 @@
  */
 package com.noorq.casser.test.unit.core.dsl;
 
+import java.lang.reflect.Proxy;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,6 +23,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.reflect.GeneratedMapperInstantiator;
+import com.noorq.casser.core.reflect.MapExportable;
 import com.noorq.casser.support.CasserException;
 
 public class WrapperTest {
@@ -55,6 +58,46 @@ public class WrapperTest {
 				
 	}
 	
+	@Test
+	public void testGenerated() throws Exception {
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		
+		map.put("id", 123L);
+		
+		Account account = GeneratedMapperInstantiator.INSTANCE.instantiate(Account.class, map, Account.class.getClassLoader());
+		
+		Assert.assertFalse(Proxy.isProxyClass(account.getClass()));
+		Assert.assertEquals(Long.valueOf(123L), account.id());
+		Assert.assertNull(account.time());
+		Assert.assertFalse(account.active());
+		
+		Map<String, Object> exported = ((MapExportable) account).toMap();
+		Assert.assertEquals(Long.valueOf(123L), exported.get("id"));
+		Assert.assertEquals(Boolean.FALSE, exported.get("active"));
+		
+		Account other = GeneratedMapperInstantiator.INSTANCE.instantiate(Account.class, map, Account.class.getClassLoader());
+		Assert.assertEquals(account, other);
+		Assert.assertEquals(account.hashCode(), other.hashCode());
+		
+		map.put("active", Boolean.TRUE);
+		
+		other = GeneratedMapperInstantiator.INSTANCE.instantiate(Account.class, map, Account.class.getClassLoader());
+		Assert.assertTrue(other.active());
+		Assert.assertNotEquals(account, other);
+		
+	}
+	
+	@Test(expected=CasserException.class)
+	public void testGeneratedWrongMethods() throws Exception {
+		
+		WrongAccount wrongAccount = GeneratedMapperInstantiator.INSTANCE.instantiate(WrongAccount.class, 
+				new HashMap<String, Object>(), WrongAccount.class.getClassLoader());
+		
+		wrongAccount.id();
+
+	}
+	
 	@Test(expected=CasserException.class)
 	public void testWrongMethods() throws Exception {
 		
@@ -0,0 +1,208 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.unit.core.reflect;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.noorq.casser.core.reflect.AbstractGeneratedEntity;
+import com.noorq.casser.core.reflect.GeneratedMapperInstantiator;
+import com.noorq.casser.core.reflect.MapExportable;
+
+public class GeneratedMapperInstantiatorTest {
+
+	public interface PrimitiveTypes {
+		
+		boolean booleanValue();
+		byte byteValue();
+		char charValue();
+		short shortValue();
+		int intValue();
+		long longValue();
+		float floatValue();
+		double doubleValue();
+		
+	}
+	
+	public interface ArrayTypes {
+		
+		boolean[] booleans();
+		byte[] bytes();
+		char[] chars();
+		short[] shorts();
+		int[] ints();
+		long[] longs();
+		float[] floats();
+		double[] doubles();
+		String[] strings();
+		long[][] matrix();
+		Object[] objects();
+		
+	}
+	
+	static final class Hidden {
+	}
+	
+	public interface WithHiddenType {
+		
+		Long id();
+		Hidden hidden();
+		
+	}
+	
+	public interface WithHiddenArray {
+		
+		Long id();
+		Hidden[][] hidden();
+		
+	}
+	
+	@Test
+	public void testPrimitives() throws Exception {
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		
+		map.put("booleanValue", Boolean.TRUE);
+		map.put("byteValue", Byte.MIN_VALUE);
+		map.put("charValue", Character.MAX_VALUE);
+		map.put("shortValue", Short.MIN_VALUE);
+		map.put("intValue", Integer.MAX_VALUE);
+		map.put("longValue", Long.MIN_VALUE);
+		map.put("floatValue", Float.MAX_VALUE);
+		map.put("doubleValue", Double.MIN_VALUE);
+		
+		PrimitiveTypes p = instantiate(PrimitiveTypes.class, map);
+		
+		Assert.assertTrue(p instanceof AbstractGeneratedEntity);
+		
+		Assert.assertTrue(p.booleanValue());
+		Assert.assertEquals(Byte.MIN_VALUE, p.byteValue());
+		Assert.assertEquals(Character.MAX_VALUE, p.charValue());
+		Assert.assertEquals(Short.MIN_VALUE, p.shortValue());
+		Assert.assertEquals(Integer.MAX_VALUE, p.intValue());
+		Assert.assertEquals(Long.MIN_VALUE, p.longValue());
+		Assert.assertEquals(Float.MAX_VALUE, p.floatValue(), 0.0f);
+		Assert.assertEquals(Double.MIN_VALUE, p.doubleValue(), 0.0);
+		
+		Assert.assertEquals(map, ((MapExportable) p).toMap());
+		
+		Assert.assertEquals(p, instantiate(PrimitiveTypes.class, map));
+		Assert.assertEquals(p.hashCode(), instantiate(PrimitiveTypes.class, map).hashCode());
+	}
+	
+	@Test
+	public void testPrimitiveDefaults() throws Exception {
+		
+		PrimitiveTypes p = instantiate(PrimitiveTypes.class, new HashMap<String, Object>());
+		
+		Assert.assertTrue(p instanceof AbstractGeneratedEntity);
+		
+		Assert.assertFalse(p.booleanValue());
+		Assert.assertEquals(0, p.byteValue());
+		Assert.assertEquals(0, p.charValue());
+		Assert.assertEquals(0, p.shortValue());
+		Assert.assertEquals(0, p.intValue());
+		Assert.assertEquals(0L, p.longValue());
+		Assert.assertEquals(0.0f, p.floatValue(), 0.0f);
+		Assert.assertEquals(0.0, p.doubleValue(), 0.0);
+	}
+	
+	@Test
+	public void testArrays() throws Exception {
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		
+		map.put("booleans", new boolean[] { true, false });
+		map.put("bytes", new byte[] { 1, 2 });
+		map.put("chars", new char[] { 'a', 'b' });
+		map.put("shorts", new short[] { 3, 4 });
+		map.put("ints", new int[] { 5, 6 });
+		map.put("longs", new long[] { 7L, 8L });
+		map.put("floats", new float[] { 9.0f });
+		map.put("doubles", new double[] { 10.0 });
+		map.put("strings", new String[] { "a", null });
+		map.put("matrix", new long[][] { { 1L }, { 2L, 3L } });
+		map.put("objects", new Object[] { "b", 11 });
+		
+		ArrayTypes a = instantiate(ArrayTypes.class, map);
+		
+		Assert.assertTrue(a instanceof AbstractGeneratedEntity);
+		
+		Assert.assertSame(map.get("booleans"), a.booleans());
+		Assert.assertSame(map.get("bytes"), a.bytes());
+		Assert.assertSame(map.get("chars"), a.chars());
+		Assert.assertSame(map.get("shorts"), a.shorts());
+		Assert.assertSame(map.get("ints"), a.ints());
+		Assert.assertSame(map.get("longs"), a.longs());
+		Assert.assertSame(map.get("floats"), a.floats());
+		Assert.assertSame(map.get("doubles"), a.doubles());
+		Assert.assertSame(map.get("strings"), a.strings());
+		Assert.assertSame(map.get("matrix"), a.matrix());
+		Assert.assertSame(map.get("objects"), a.objects());
+		
+		Assert.assertEquals(map, ((MapExportable) a).toMap());
+		
+		ArrayTypes empty = instantiate(ArrayTypes.class, new HashMap<String, Object>());
+		
+		Assert.assertNull(empty.ints());
+		Assert.assertNull(empty.matrix());
+	}
+	
+	@Test(expected = ClassCastException.class)
+	public void testWrongArrayType() throws Exception {
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("ints", new long[] { 1L });
+		
+		instantiate(ArrayTypes.class, map);
+	}
+	
+	@Test
+	public void testNotPublicType() throws Exception {
+		
+		Hidden hidden = new Hidden();
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("id", 123L);
+		map.put("hidden", hidden);
+		
+		// the generated class is in other runtime package, the interface is mapped by the proxy
+		
+		WithHiddenType e = instantiate(WithHiddenType.class, map);
+		
+		Assert.assertTrue(Proxy.isProxyClass(e.getClass()));
+		Assert.assertEquals(Long.valueOf(123L), e.id());
+		Assert.assertSame(hidden, ((MapExportable) e).toMap().get("hidden"));
+		
+		Hidden[][] array = new Hidden[][] { { hidden } };
+		map.put("hidden", array);
+		
+		WithHiddenArray a = instantiate(WithHiddenArray.class, map);
+		
+		Assert.assertTrue(Proxy.isProxyClass(a.getClass()));
+		Assert.assertEquals(Long.valueOf(123L), a.id());
+		Assert.assertSame(array, ((MapExportable) a).toMap().get("hidden"));
+	}
+	
+	private static <E> E instantiate(Class<E> iface, Map<String, Object> map) {
+		return GeneratedMapperInstantiator.INSTANCE.instantiate(iface, map, iface.getClassLoader());
+	}
+	
+}
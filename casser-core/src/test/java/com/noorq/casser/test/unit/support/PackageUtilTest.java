@@ -0,0 +1,80 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.unit.support;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.noorq.casser.support.PackageUtil;
+
+public class PackageUtilTest {
+
+	public interface Indexed {
+	}
+	
+	@Test
+	public void testIndexedPackage() throws Exception {
+		
+		Path root = Files.createTempDirectory("casser-index");
+		Files.createDirectories(root.resolve("com/noorq/casser/test/unit/support/indexed"));
+		Files.createDirectories(root.resolve("META-INF/casser"));
+		Files.write(root.resolve(PackageUtil.INDEX_RESOURCE), 
+				Collections.singletonList(Indexed.class.getName()), StandardCharsets.UTF_8);
+		
+		Thread thread = Thread.currentThread();
+		ClassLoader classLoader = thread.getContextClassLoader();
+		
+		try (URLClassLoader indexedLoader = new URLClassLoader(new URL[] { root.toUri().toURL() }, classLoader)) {
+			
+			thread.setContextClassLoader(indexedLoader);
+			
+			String packageName = PackageUtilTest.class.getPackage().getName();
+			
+			Set<Class<?>> classes = PackageUtil.getIndexedClasses(packageName);
+			
+			Assert.assertEquals(1, classes.size());
+			Assert.assertEquals(Indexed.class, classes.iterator().next());
+			
+			// the test classes contain the package without an index
+			Assert.assertFalse(PackageUtil.isIndexed(packageName));
+			
+			Assert.assertTrue(PackageUtil.isIndexed(packageName + ".indexed"));
+			Assert.assertTrue(PackageUtil.getIndexedClasses(packageName + ".indexed").isEmpty());
+		}
+		finally {
+			thread.setContextClassLoader(classLoader);
+		}
+	}
+	
+	@Test
+	public void testNotIndexedPackage() throws Exception {
+		
+		Assert.assertTrue(PackageUtil.getIndexedClasses("com.noorq.casser.test.unit.core").isEmpty());
+		Assert.assertTrue(PackageUtil.getIndexedClasses("com.noorq.casser.test.unit.supp").isEmpty());
+		
+		Assert.assertFalse(PackageUtil.isIndexed("com.noorq.casser.test.unit.core"));
+		Assert.assertFalse(PackageUtil.isIndexed("com.noorq.casser.test.unit.supp"));
+	}
+	
+}
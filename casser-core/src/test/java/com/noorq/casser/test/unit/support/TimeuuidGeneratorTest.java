@@ -0,0 +1,96 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.unit.support;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.noorq.casser.support.Timeuuid;
+import com.noorq.casser.support.TimeuuidGenerator;
+
+public class TimeuuidGeneratorTest {
+
+	@Test
+	public void testSameMillisecond() {
+		
+		long timestamp = System.currentTimeMillis();
+		Set<UUID> set = new HashSet<UUID>();
+		
+		for (int i = 0; i != 100000; ++i) {
+			
+			UUID uuid = Timeuuid.of(timestamp);
+			
+			Assert.assertEquals(1, uuid.version());
+			Assert.assertEquals(2, uuid.variant());
+			Assert.assertEquals(timestamp, Timeuuid.getTimestampMillis(uuid));
+			Assert.assertTrue(set.add(uuid));
+		}
+	}
+	
+	@Test
+	public void testSameMillisecondAfterWrap() {
+		
+		long timestamp = System.currentTimeMillis();
+		UUID first = Timeuuid.of(timestamp);
+		
+		// ticks times sequences of the millisecond and a margin for the other tests
+		long capacity = 10000L * 0x2000;
+		
+		for (long i = 0; i != capacity + 100000; ++i) {
+			Assert.assertNotEquals(first, Timeuuid.of(timestamp));
+		}
+	}
+	
+	@Test
+	public void testMonotonic() {
+		
+		UUID prev = Timeuuid.now();
+		long prevMicros = TimeuuidGenerator.INSTANCE.nextTimestampMicros();
+		
+		for (int i = 0; i != 100000; ++i) {
+			
+			UUID next = Timeuuid.now();
+			Assert.assertTrue(next.timestamp() > prev.timestamp());
+			Assert.assertEquals(TimeuuidGenerator.INSTANCE.getNode(), next.node());
+			prev = next;
+			
+			long nextMicros = TimeuuidGenerator.INSTANCE.nextTimestampMicros();
+			Assert.assertTrue(nextMicros > prevMicros);
+			prevMicros = nextMicros;
+		}
+	}
+	
+	@Test
+	public void testNowAndOfSameMillisecond() {
+		
+		Set<UUID> set = new HashSet<UUID>();
+		
+		for (int i = 0; i != 100000; ++i) {
+			
+			UUID now = Timeuuid.now();
+			UUID of = Timeuuid.of(Timeuuid.getTimestampMillis(now));
+			
+			Assert.assertNotEquals(now.clockSequence(), of.clockSequence());
+			Assert.assertTrue(set.add(now));
+			Assert.assertTrue(set.add(of));
+		}
+	}
+	
+}
@@ -0,0 +1,642 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ *  Generates at compile time the implementations of the mapping interfaces annotated
+ *  with Table, UDT or Tuple.
+ *
+ *  Generated class has the binary name of the interface with the $$CasserMapper suffix,
+ *  GeneratedMapperInstantiator uses it instead of the class generated at runtime.
+ *
+ *  Class with the $$CasserDsl suffix is the DSL implementation of the interface with the
+ *  metadata of its mapping annotations and the converters of its enum properties, 
+ *  ReflectionDslInstantiator uses it instead of the proxy and the entity built by reflection.
+ *  It is not generated for the interfaces that extend other interfaces, declare default or
+ *  static methods, or getters that the runtime mapping rejects, those are mapped at runtime.
+ *
+ *  Binary names of all annotated interfaces are listed in the META-INF/casser/entities.index
+ *  resource, it is used by addPackage instead of the classpath scanning. The entries of the 
+ *  index left by the previous compilation are kept while their interfaces are still annotated, 
+ *  so incremental compilations do not drop them.
+ *
+ */
+
+public class CasserProcessor extends AbstractProcessor {
+
+	public static final String CLASS_SUFFIX = "$$CasserMapper";
+	
+	public static final String DSL_CLASS_SUFFIX = "$$CasserDsl";
+	
+	public static final String INDEX_RESOURCE = "META-INF/casser/entities.index";
+	
+	private static final String ANNOTATION_PACKAGE = "com.noorq.casser.mapping.annotation.";
+	
+	private static final Set<String> ANNOTATIONS = new HashSet<String>(Arrays.asList(
+			ANNOTATION_PACKAGE + "Table", 
+			ANNOTATION_PACKAGE + "UDT", 
+			ANNOTATION_PACKAGE + "Tuple"));
+	
+	private static final String BASE_CLASS = "com.noorq.casser.core.reflect.AbstractGeneratedEntity";
+	private static final String MAP_EXPORTABLE = "com.noorq.casser.core.reflect.MapExportable";
+	
+	private static final String DSL_BASE_CLASS = "com.noorq.casser.core.reflect.AbstractGeneratedDsl";
+	private static final String NODE_CLASS = "com.noorq.casser.core.reflect.CasserPropertyNode";
+	
+	private static final String MAPPING_PACKAGE = "com.noorq.casser.mapping.";
+	private static final String ENTITY_METADATA = MAPPING_PACKAGE + "GeneratedEntityMetadata";
+	private static final String PROPERTY_METADATA = MAPPING_PACKAGE + "GeneratedPropertyMetadata";
+	private static final String TYPED_CONVERTER = MAPPING_PACKAGE + "convert.TypedConverter";
+	
+	private static final String[][] COLUMN_ANNOTATIONS = {
+			{ ANNOTATION_PACKAGE + "PartitionKey", "PARTITION_KEY" },
+			{ ANNOTATION_PACKAGE + "ClusteringColumn", "CLUSTERING_COLUMN" },
+			{ ANNOTATION_PACKAGE + "StaticColumn", "STATIC_COLUMN" },
+			{ ANNOTATION_PACKAGE + "Column", "COLUMN" } };
+	
+	private static final String INDEX_ANNOTATION = ANNOTATION_PACKAGE + "Index";
+	private static final String TYPES_ANNOTATION_PREFIX = ANNOTATION_PACKAGE + "Types.";
+	
+	private static final Set<String> DSL_METHODS = new HashSet<String>(Arrays.asList(
+			"toString", "hashCode", "getCasserMappingEntity", "getParentDslCasserPropertyNode", "casserChild"));
+	
+	private static final String[] GENERATED_ANNOTATIONS = { 
+			"javax.annotation.processing.Generated", 
+			"javax.annotation.Generated" };
+	
+	private static final Set<String> BASE_METHODS = new HashSet<String>(Arrays.asList(
+			"toMap", "toString", "hashCode", "casserValues"));
+	
+	private final Set<String> indexed = new TreeSet<String>();
+	private final List<Element> indexedElements = new ArrayList<Element>();
+	
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return ANNOTATIONS;
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		
+		for (TypeElement annotation : annotations) {
+			
+			for (TypeElement iface : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+				
+				if (iface.getKind() != ElementKind.INTERFACE) {
+					continue;
+				}
+				
+				index(iface);
+				generate(iface);
+			}
+			
+		}
+		
+		if (roundEnv.processingOver() && !indexed.isEmpty()) {
+			writeIndex();
+		}
+		
+		return false;
+	}
+	
+	private void index(TypeElement iface) {
+		
+		if (indexed.add(processingEnv.getElementUtils().getBinaryName(iface).toString())) {
+			indexedElements.add(iface);
+		}
+	}
+	
+	private void writeIndex() {
+		
+		Set<String> entries = new TreeSet<String>(indexed);
+		
+		for (String name : readIndex()) {
+			if (isAnnotated(name)) {
+				entries.add(name);
+			}
+		}
+		
+		try {
+			
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE, 
+					indexedElements.toArray(new Element[indexedElements.size()]));
+			
+			try (PrintWriter out = new PrintWriter(file.openWriter())) {
+				entries.forEach(out::println);
+			}
+			
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "fail to write entity index " + e.getMessage());
+		}
+	}
+	
+	private List<String> readIndex() {
+		
+		List<String> names = new ArrayList<String>();
+		
+		try {
+			
+			FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+			
+			try (BufferedReader reader = new BufferedReader(file.openReader(true))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					line = line.trim();
+					if (!line.isEmpty()) {
+						names.add(line);
+					}
+				}
+			}
+			
+		} catch (IOException | IllegalArgumentException e) {
+			// no index left by the previous compilation
+		}
+		
+		return names;
+	}
+	
+	private boolean isAnnotated(String binaryName) {
+		
+		TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+		
+		if (type == null || type.getKind() != ElementKind.INTERFACE) {
+			return false;
+		}
+		
+		return type.getAnnotationMirrors().stream()
+				.anyMatch(a -> ANNOTATIONS.contains(a.getAnnotationType().toString()));
+	}
+	
+	private void generate(TypeElement iface) {
+		
+		if (iface.getModifiers().contains(Modifier.PRIVATE) || !iface.getTypeParameters().isEmpty()) {
+			note(iface, "mapper and dsl are not generated for private or generic interface");
+			return;
+		}
+		
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(iface);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(iface).toString();
+		String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+		String ifaceName = iface.getQualifiedName().toString();
+		
+		Map<String, ExecutableElement> getters = getters(iface);
+		
+		if (getters != null) {
+			
+			try {
+				
+				JavaFileObject file = processingEnv.getFiler().createSourceFile(binaryName + CLASS_SUFFIX, iface);
+				
+				try (PrintWriter out = new PrintWriter(file.openWriter())) {
+					write(out, packageName, simpleName + CLASS_SUFFIX, ifaceName, getters);
+				}
+				
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "fail to generate mapper " + e.getMessage(), iface);
+			}
+		}
+		
+		List<ExecutableElement> dslGetters = dslGetters(iface);
+		
+		if (dslGetters != null) {
+			
+			try {
+				
+				JavaFileObject file = processingEnv.getFiler().createSourceFile(binaryName + DSL_CLASS_SUFFIX, iface);
+				
+				try (PrintWriter out = new PrintWriter(file.openWriter())) {
+					writeDsl(out, packageName, simpleName + DSL_CLASS_SUFFIX, iface, dslGetters);
+				}
+				
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "fail to generate dsl " + e.getMessage(), iface);
+			}
+		}
+	}
+	
+	private Map<String, ExecutableElement> getters(TypeElement iface) {
+		
+		Map<String, ExecutableElement> getters = new LinkedHashMap<String, ExecutableElement>();
+		
+		List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(iface));
+		
+		for (ExecutableElement method : methods) {
+			
+			Set<Modifier> modifiers = method.getModifiers();
+			
+			if (!modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.STATIC)) {
+				continue;
+			}
+			
+			String name = method.getSimpleName().toString();
+			
+			if (method.getParameters().isEmpty() && BASE_METHODS.contains(name)) {
+				continue;
+			}
+			
+			if ("equals".equals(name) && method.getParameters().size() == 1) {
+				continue;
+			}
+			
+			if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID
+					|| !method.getTypeParameters().isEmpty()) {
+				note(iface, "mapper is not generated, method is not a getter " + method);
+				return null;
+			}
+			
+			ExecutableElement existing = getters.putIfAbsent(name, method);
+			
+			if (existing != null && !processingEnv.getTypeUtils().isSameType(existing.getReturnType(), method.getReturnType())) {
+				note(iface, "mapper is not generated, ambiguous return type of " + name);
+				return null;
+			}
+		}
+		
+		return getters;
+	}
+	
+	/**
+	 * Returns the getters declared by the interface in the order of declaration or null if
+	 * the interface has methods that the DSL class can not implement as the runtime does 
+	 */
+	
+	private List<ExecutableElement> dslGetters(TypeElement iface) {
+		
+		if (!iface.getInterfaces().isEmpty()) {
+			note(iface, "dsl is not generated for interface that extends other interfaces");
+			return null;
+		}
+		
+		List<ExecutableElement> getters = new ArrayList<ExecutableElement>();
+		
+		for (ExecutableElement method : ElementFilter.methodsIn(iface.getEnclosedElements())) {
+			
+			if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+				note(iface, "dsl is not generated, method is not abstract " + method);
+				return null;
+			}
+			
+			if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID
+					|| !method.getTypeParameters().isEmpty()) {
+				note(iface, "dsl is not generated, method is not a getter " + method);
+				return null;
+			}
+			
+			if (DSL_METHODS.contains(method.getSimpleName().toString())) {
+				note(iface, "dsl is not generated, name of the getter is reserved " + method);
+				return null;
+			}
+			
+			int columnAnnotations = 0;
+			for (String[] columnAnnotation : COLUMN_ANNOTATIONS) {
+				if (annotation(method, columnAnnotation[0]) != null) {
+					++columnAnnotations;
+				}
+			}
+			
+			if (columnAnnotations > 1) {
+				note(iface, "dsl is not generated, more than one column annotation on " + method);
+				return null;
+			}
+			
+			getters.add(method);
+		}
+		
+		return getters;
+	}
+	
+	private void writeDsl(PrintWriter out, String packageName, String simpleName, TypeElement iface, 
+			List<ExecutableElement> getters) {
+		
+		String ifaceName = iface.getQualifiedName().toString();
+		
+		if (!packageName.isEmpty()) {
+			out.println("package " + packageName + ";");
+			out.println();
+		}
+		
+		String generated = generatedAnnotation();
+		if (generated != null) {
+			out.println(generated);
+		}
+		out.println("@SuppressWarnings(\"unchecked\")");
+		out.println("public final class " + simpleName + " extends " + DSL_BASE_CLASS + " implements " + ifaceName + " {");
+		out.println();
+		
+		writeMetadata(out, iface, getters);
+		
+		out.println("\tpublic " + simpleName + "(ClassLoader classLoader, java.util.Optional<" + NODE_CLASS + "> parent) {");
+		out.println("\t\tsuper(METADATA, classLoader, parent);");
+		out.println("\t}");
+		out.println();
+		
+		for (int i = 0; i != getters.size(); ++i) {
+			
+			ExecutableElement getter = getters.get(i);
+			TypeMirror type = getter.getReturnType();
+			
+			out.println("\t@Override");
+			out.println("\tpublic " + type(type) + " " + getter.getSimpleName() + "() {");
+			if (type.getKind().isPrimitive()) {
+				out.println("\t\tcasserChild(" + i + ");");
+				out.println("\t\treturn " + defaultValue(type.getKind()) + ";");
+			}
+			else {
+				out.println("\t\treturn (" + type(type) + ") casserChild(" + i + ");");
+			}
+			out.println("\t}");
+			out.println();
+		}
+		
+		out.println("}");
+	}
+	
+	private void writeMetadata(PrintWriter out, TypeElement iface, List<ExecutableElement> getters) {
+		
+		String entityType;
+		AnnotationMirror named = null;
+		
+		if ((named = annotation(iface, ANNOTATION_PACKAGE + "Table")) != null) {
+			entityType = "TABLE";
+		}
+		else if (annotation(iface, ANNOTATION_PACKAGE + "Tuple") != null) {
+			entityType = "TUPLE";
+		}
+		else {
+			named = annotation(iface, ANNOTATION_PACKAGE + "UDT");
+			entityType = "UDT";
+		}
+		
+		out.println("\tprivate static final " + ENTITY_METADATA + " METADATA = new " + ENTITY_METADATA + "(");
+		out.print("\t\t\t" + iface.getQualifiedName() + ".class, " + MAPPING_PACKAGE + "CasserEntityType." + entityType + ")");
+		
+		if (named != null) {
+			out.println();
+			out.print("\t\t\t.name(" + literal((String) value(named, "value")) + ", " + value(named, "forceQuote") + ")");
+		}
+		
+		for (ExecutableElement getter : getters) {
+			
+			out.println();
+			out.print("\t\t\t.add(new " + PROPERTY_METADATA + "(" + literal(getter.getSimpleName().toString()) + ")");
+			
+			for (String[] columnAnnotation : COLUMN_ANNOTATIONS) {
+				
+				AnnotationMirror column = annotation(getter, columnAnnotation[0]);
+				
+				if (column != null) {
+					Object ordering = value(column, "ordering");
+					out.println();
+					out.print("\t\t\t\t\t.column(" + MAPPING_PACKAGE + "ColumnType." + columnAnnotation[1] 
+							+ ", " + literal((String) value(column, "value")) 
+							+ ", " + value(column, "forceQuote") 
+							+ ", " + value(column, "ordinal") 
+							+ ", " + MAPPING_PACKAGE + "OrderingDirection." + (ordering != null ? ((Element) ordering).getSimpleName() : "ASC") + ")");
+				}
+			}
+			
+			AnnotationMirror index = annotation(getter, INDEX_ANNOTATION);
+			
+			if (index != null) {
+				out.println();
+				out.print("\t\t\t\t\t.index(" + literal((String) value(index, "value")) + ", " + value(index, "forceQuote") + ")");
+			}
+			
+			if (hasOtherAnnotations(getter)) {
+				out.println();
+				out.print("\t\t\t\t\t.validated()");
+			}
+			
+			TypeMirror type = getter.getReturnType();
+			
+			if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+				String enumName = type(processingEnv.getTypeUtils().erasure(type));
+				out.println();
+				out.print("\t\t\t\t\t.converters(" + TYPED_CONVERTER + ".create(java.lang.String.class, " + enumName + ".class, " + enumName + "::valueOf), ");
+				out.print(TYPED_CONVERTER + ".create(" + enumName + ".class, java.lang.String.class, " + enumName + "::name))");
+			}
+			
+			out.print(")");
+		}
+		
+		out.println(";");
+		out.println();
+	}
+	
+	/**
+	 * Returns true if the getter has annotations other than the mapping ones, they may be constraints
+	 */
+	
+	private boolean hasOtherAnnotations(ExecutableElement getter) {
+		
+		for (AnnotationMirror annotation : getter.getAnnotationMirrors()) {
+			
+			String name = annotationName(annotation);
+			
+			if (name.equals(INDEX_ANNOTATION) || name.startsWith(TYPES_ANNOTATION_PREFIX)) {
+				continue;
+			}
+			
+			if (Arrays.stream(COLUMN_ANNOTATIONS).noneMatch(c -> c[0].equals(name))) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static AnnotationMirror annotation(Element element, String name) {
+		
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (annotationName(annotation).equals(name)) {
+				return annotation;
+			}
+		}
+		
+		return null;
+	}
+	
+	private static String annotationName(AnnotationMirror annotation) {
+		return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+	}
+	
+	private Object value(AnnotationMirror annotation, String name) {
+		
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e 
+				: processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+			
+			if (e.getKey().getSimpleName().contentEquals(name)) {
+				return e.getValue().getValue();
+			}
+		}
+		
+		return null;
+	}
+	
+	private static String defaultValue(TypeKind kind) {
+		
+		switch(kind) {
+		
+		case BOOLEAN:
+			return "false";
+			
+		case LONG:
+			return "0L";
+			
+		case FLOAT:
+			return "0.0f";
+			
+		case DOUBLE:
+			return "0.0";
+			
+		case INT:
+			return "0";
+			
+		default:
+			return "(" + kind.name().toLowerCase() + ") 0";
+		}
+	}
+	
+	private void write(PrintWriter out, String packageName, String simpleName, String ifaceName, 
+			Map<String, ExecutableElement> getters) {
+		
+		List<String> names = new ArrayList<String>(getters.keySet());
+		
+		if (!packageName.isEmpty()) {
+			out.println("package " + packageName + ";");
+			out.println();
+		}
+		
+		String generated = generatedAnnotation();
+		if (generated != null) {
+			out.println(generated);
+		}
+		out.println("@SuppressWarnings(\"unchecked\")");
+		out.println("public final class " + simpleName + " extends " + BASE_CLASS + " implements " + ifaceName + ", " + MAP_EXPORTABLE + " {");
+		out.println();
+		
+		out.print("\tprivate static final String[] NAMES = {");
+		for (int i = 0; i != names.size(); ++i) {
+			out.print(i == 0 ? " " : ", ");
+			out.print(literal(names.get(i)));
+		}
+		out.println(" };");
+		out.println();
+		
+		for (String name : names) {
+			out.println("\tprivate final " + type(getters.get(name).getReturnType()) + " " + name + ";");
+		}
+		out.println();
+		
+		out.println("\tpublic " + simpleName + "(java.util.Map<String, Object> src) {");
+		out.println("\t\tsuper(" + ifaceName + ".class, NAMES);");
+		for (String name : names) {
+			TypeMirror type = getters.get(name).getReturnType();
+			String value = "src.get(" + literal(name) + ")";
+			if (type.getKind().isPrimitive()) {
+				out.println("\t\tthis." + name + " = " + type.getKind().name().toLowerCase() + "Value(" + value + ");");
+			}
+			else {
+				out.println("\t\tthis." + name + " = (" + type(type) + ") " + value + ";");
+			}
+		}
+		out.println("\t}");
+		out.println();
+		
+		for (String name : names) {
+			out.println("\t@Override");
+			out.println("\tpublic " + type(getters.get(name).getReturnType()) + " " + name + "() {");
+			out.println("\t\treturn " + name + ";");
+			out.println("\t}");
+			out.println();
+		}
+		
+		out.println("\t@Override");
+		out.println("\tprotected Object[] casserValues() {");
+		out.print("\t\treturn new Object[] {");
+		for (int i = 0; i != names.size(); ++i) {
+			out.print(i == 0 ? " " : ", ");
+			out.print(names.get(i));
+		}
+		out.println(" };");
+		out.println("\t}");
+		out.println();
+		
+		out.println("}");
+	}
+	
+	private static String type(TypeMirror type) {
+		return type.toString();
+	}
+	
+	private String generatedAnnotation() {
+		
+		for (String name : GENERATED_ANNOTATIONS) {
+			if (processingEnv.getElementUtils().getTypeElement(name) != null) {
+				return "@" + name + "(\"" + CasserProcessor.class.getName() + "\")";
+			}
+		}
+		
+		return null;
+	}
+	
+	private static String literal(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+	
+	private void note(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+	}
+	
+}
@@ -0,0 +1,424 @@
+/*
+ *      Copyright (C) 2015 Noorq, Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.noorq.casser.test.unit.processor;
+
+import static com.google.testing.compile.Compiler.javac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import com.noorq.casser.core.Casser;
+import com.noorq.casser.core.reflect.DslExportable;
+import com.noorq.casser.core.reflect.DslPropertyRecorder;
+import com.noorq.casser.core.reflect.ListDsl;
+import com.noorq.casser.core.reflect.MapExportable;
+import com.noorq.casser.mapping.CasserEntity;
+import com.noorq.casser.mapping.CasserMappingEntity;
+import com.noorq.casser.mapping.CasserProperty;
+import com.noorq.casser.processor.CasserProcessor;
+
+public class CasserProcessorTest {
+
+	static final JavaFileObject USER = JavaFileObjects.forSourceLines("test.User", 
+			"package test;",
+			"",
+			"import java.util.List;",
+			"",
+			"import com.noorq.casser.mapping.annotation.PartitionKey;",
+			"import com.noorq.casser.mapping.annotation.Table;",
+			"",
+			"@Table",
+			"public interface User {",
+			"",
+			"	@PartitionKey",
+			"	long id();",
+			"	String name();",
+			"	boolean active();",
+			"	byte b();",
+			"	char c();",
+			"	short s();",
+			"	int i();",
+			"	float f();",
+			"	double d();",
+			"	byte[] data();",
+			"	int[] numbers();",
+			"	String[] names();",
+			"	List<String> tags();",
+			"}");
+	
+	static final JavaFileObject MODEL = JavaFileObjects.forSourceLines("test.Model", 
+			"package test;",
+			"",
+			"import com.noorq.casser.mapping.annotation.UDT;",
+			"",
+			"public class Model {",
+			"",
+			"	@UDT",
+			"	public interface Address {",
+			"		String street();",
+			"		int zip();",
+			"	}",
+			"}");
+	
+	static final JavaFileObject PAIR = JavaFileObjects.forSourceLines("test.Pair", 
+			"package test;",
+			"",
+			"import com.noorq.casser.mapping.annotation.Tuple;",
+			"",
+			"@Tuple",
+			"public interface Pair<T> {",
+			"	T first();",
+			"	T second();",
+			"}");
+	
+	static final JavaFileObject COUNTER = JavaFileObjects.forSourceLines("test.Counter", 
+			"package test;",
+			"",
+			"import com.noorq.casser.mapping.annotation.Table;",
+			"",
+			"@Table",
+			"public interface Counter {",
+			"	long value();",
+			"	void reset();",
+			"}");
+	
+	static final JavaFileObject ACCOUNT = JavaFileObjects.forSourceLines("test.Account", 
+			"package test;",
+			"",
+			"import java.util.Date;",
+			"import java.util.List;",
+			"",
+			"import com.noorq.casser.mapping.OrderingDirection;",
+			"import com.noorq.casser.mapping.annotation.ClusteringColumn;",
+			"import com.noorq.casser.mapping.annotation.Column;",
+			"import com.noorq.casser.mapping.annotation.Constraints;",
+			"import com.noorq.casser.mapping.annotation.Index;",
+			"import com.noorq.casser.mapping.annotation.PartitionKey;",
+			"import com.noorq.casser.mapping.annotation.StaticColumn;",
+			"import com.noorq.casser.mapping.annotation.Table;",
+			"import com.noorq.casser.mapping.annotation.UDT;",
+			"",
+			"@Table(\"accounts\")",
+			"public interface Account {",
+			"",
+			"	enum Role { ADMIN, USER }",
+			"",
+			"	@UDT",
+			"	interface Address {",
+			"		String street();",
+			"	}",
+			"",
+			"	@PartitionKey",
+			"	long id();",
+			"	@ClusteringColumn(value = \"created_at\", ordering = OrderingDirection.DESC)",
+			"	Date createdAt();",
+			"	@ClusteringColumn(ordinal = 1)",
+			"	String region();",
+			"	@Index",
+			"	@Column(forceQuote = true)",
+			"	String email();",
+			"	@StaticColumn",
+			"	int balance();",
+			"	@Constraints.NotNull",
+			"	String ownerName();",
+			"	Role role();",
+			"	List<String> tags();",
+			"	Address address();",
+			"}");
+	
+	static final JavaFileObject AUDITED = JavaFileObjects.forSourceLines("test.Audited", 
+			"package test;",
+			"",
+			"import com.noorq.casser.mapping.annotation.Table;",
+			"",
+			"@Table",
+			"public interface Audited {",
+			"	long id();",
+			"	default String source() {",
+			"		return \"audit\";",
+			"	}",
+			"}");
+	
+	@Test
+	public void testGeneratedMapper() throws Exception {
+		
+		Compilation compilation = compile(USER);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		Assert.assertTrue(generatedFile(compilation, "test/User$$CasserMapper.java").isPresent());
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("id", 123L);
+		map.put("name", "user");
+		map.put("c", 'x');
+		map.put("d", 1.5);
+		map.put("data", new byte[] { 1, 2 });
+		map.put("numbers", new int[] { 3, 4 });
+		map.put("names", new String[] { "a", "b" });
+		map.put("tags", Arrays.asList("t"));
+		
+		ClassLoader classLoader = new CompilationClassLoader(compilation);
+		
+		Object user = instantiate(classLoader, "test.User", map);
+		Class<?> iface = user.getClass().getInterfaces()[0];
+		
+		Assert.assertEquals("test.User", iface.getName());
+		Assert.assertTrue(user instanceof MapExportable);
+		
+		Assert.assertEquals(123L, iface.getMethod("id").invoke(user));
+		Assert.assertEquals("user", iface.getMethod("name").invoke(user));
+		Assert.assertEquals('x', iface.getMethod("c").invoke(user));
+		Assert.assertEquals(1.5, iface.getMethod("d").invoke(user));
+		Assert.assertArrayEquals(new byte[] { 1, 2 }, (byte[]) iface.getMethod("data").invoke(user));
+		Assert.assertArrayEquals(new int[] { 3, 4 }, (int[]) iface.getMethod("numbers").invoke(user));
+		Assert.assertArrayEquals(new String[] { "a", "b" }, (String[]) iface.getMethod("names").invoke(user));
+		Assert.assertEquals(Arrays.asList("t"), iface.getMethod("tags").invoke(user));
+		
+		// absent primitives have the default values
+		Assert.assertEquals(false, iface.getMethod("active").invoke(user));
+		Assert.assertEquals((byte) 0, iface.getMethod("b").invoke(user));
+		Assert.assertEquals((short) 0, iface.getMethod("s").invoke(user));
+		Assert.assertEquals(0, iface.getMethod("i").invoke(user));
+		Assert.assertEquals(0.0f, iface.getMethod("f").invoke(user));
+		
+		Assert.assertEquals("user", ((MapExportable) user).toMap().get("name"));
+		Assert.assertEquals(user, instantiate(classLoader, "test.User", map));
+	}
+	
+	@Test
+	public void testNestedInterface() throws Exception {
+		
+		Compilation compilation = compile(MODEL);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		Assert.assertTrue(generatedFile(compilation, "test/Model$Address$$CasserMapper.java").isPresent());
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("street", "main");
+		
+		Object address = instantiate(new CompilationClassLoader(compilation), "test.Model$Address", map);
+		Class<?> iface = address.getClass().getInterfaces()[0];
+		
+		Assert.assertEquals("test.Model$Address", iface.getName());
+		Assert.assertEquals("main", iface.getMethod("street").invoke(address));
+		Assert.assertEquals(0, iface.getMethod("zip").invoke(address));
+	}
+	
+	@Test
+	public void testGenericInterface() throws Exception {
+		
+		Compilation compilation = compile(PAIR);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		Assert.assertFalse(generatedFile(compilation, "test/Pair$$CasserMapper.java").isPresent());
+		Assert.assertTrue(hasNote(compilation, "generic"));
+	}
+	
+	@Test
+	public void testNotGetter() throws Exception {
+		
+		Compilation compilation = compile(COUNTER);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		Assert.assertFalse(generatedFile(compilation, "test/Counter$$CasserMapper.java").isPresent());
+		Assert.assertTrue(hasNote(compilation, "not a getter"));
+	}
+	
+	@Test
+	public void testGeneratedMetadata() throws Exception {
+		
+		Compilation compilation = compile(ACCOUNT);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		Assert.assertTrue(generatedFile(compilation, "test/Account$$CasserDsl.java").isPresent());
+		Assert.assertTrue(generatedFile(compilation, "test/Account$Address$$CasserDsl.java").isPresent());
+		
+		Class<?> iface = new CompilationClassLoader(compilation).loadClass("test.Account");
+		
+		Object dsl = Casser.dsl(iface);
+		Assert.assertEquals("test.Account" + CasserProcessor.DSL_CLASS_SUFFIX, dsl.getClass().getName());
+		
+		CasserEntity generated = Casser.entity(iface);
+		CasserEntity reflected = new CasserMappingEntity(iface);
+		
+		Assert.assertEquals(reflected.getName().toCql(), generated.getName().toCql());
+		Assert.assertEquals(reflected.getType(), generated.getType());
+		Assert.assertEquals(lines(reflected), lines(generated));
+		Assert.assertEquals(columns(reflected), columns(generated));
+		
+		for (CasserProperty prop : reflected.getOrderedProperties()) {
+			CasserProperty generatedProp = generated.getProperty(prop.getPropertyName());
+			Assert.assertEquals(prop.getColumnName().toCql(), generatedProp.getColumnName().toCql());
+			Assert.assertEquals(prop.getGetterMethod(), generatedProp.getGetterMethod());
+			Assert.assertEquals(prop.getValidators().length, generatedProp.getValidators().length);
+		}
+		
+		Assert.assertEquals(1, generated.getProperty("ownerName").getValidators().length);
+		
+		Object admin = generated.getProperty("role").getJavaType().getEnumConstants()[0];
+		
+		Assert.assertEquals(admin, generated.getProperty("role").getReadConverter(null).get().apply("ADMIN"));
+		Assert.assertEquals("ADMIN", generated.getProperty("role").getWriteConverter(null).get().apply(admin));
+		Assert.assertEquals(admin, reflected.getProperty("role").getReadConverter(null).get().apply("ADMIN"));
+	}
+	
+	@Test
+	public void testGeneratedDsl() throws Exception {
+		
+		Compilation compilation = compile(ACCOUNT);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		
+		Class<?> iface = new CompilationClassLoader(compilation).loadClass("test.Account");
+		
+		Object dsl = Casser.dsl(iface);
+		
+		DslPropertyRecorder.clear();
+		Assert.assertNull(iface.getMethod("email").invoke(dsl));
+		Assert.assertEquals("\"email\"", DslPropertyRecorder.take().getColumnName());
+		
+		Assert.assertEquals(0, iface.getMethod("balance").invoke(dsl));
+		Assert.assertEquals("balance", DslPropertyRecorder.take().getColumnName());
+		
+		Assert.assertTrue(iface.getMethod("tags").invoke(dsl) instanceof ListDsl);
+		Assert.assertNull(DslPropertyRecorder.take());
+		
+		Object address = iface.getMethod("address").invoke(dsl);
+		
+		Assert.assertEquals("test.Account$Address" + CasserProcessor.DSL_CLASS_SUFFIX, address.getClass().getName());
+		Assert.assertEquals("address", ((DslExportable) address).getParentDslCasserPropertyNode().getColumnName());
+		
+		Assert.assertNull(address.getClass().getMethod("street").invoke(address));
+		Assert.assertEquals("\"address\".\"street\"", DslPropertyRecorder.take().getColumnName());
+	}
+	
+	@Test
+	public void testDslFallback() throws Exception {
+		
+		Compilation compilation = compile(AUDITED);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		Assert.assertFalse(generatedFile(compilation, "test/Audited$$CasserDsl.java").isPresent());
+		Assert.assertTrue(hasNote(compilation, "not abstract"));
+		
+		Class<?> iface = new CompilationClassLoader(compilation).loadClass("test.Audited");
+		
+		Assert.assertTrue(Proxy.isProxyClass(Casser.dsl(iface).getClass()));
+	}
+	
+	@Test
+	public void testIndex() throws Exception {
+		
+		Compilation compilation = compile(USER, MODEL, PAIR, COUNTER);
+		
+		Assert.assertEquals(Compilation.Status.SUCCESS, compilation.status());
+		
+		Optional<JavaFileObject> index = generatedFile(compilation, CasserProcessor.INDEX_RESOURCE);
+		
+		Assert.assertTrue(index.isPresent());
+		Assert.assertEquals(Arrays.asList("test.Counter", "test.Model$Address", "test.Pair", "test.User"), 
+				Arrays.asList(index.get().getCharContent(true).toString().trim().split("\\s+")));
+	}
+	
+	private static Compilation compile(JavaFileObject... sources) {
+		return javac().withProcessors(new CasserProcessor()).compile(sources);
+	}
+	
+	private static Set<String> lines(CasserEntity entity) {
+		return entity.getOrderedProperties()
+				.stream()
+				.map(CasserProperty::toString)
+				.collect(Collectors.toSet());
+	}
+	
+	private static List<String> columns(CasserEntity entity) {
+		return entity.getOrderedProperties()
+				.stream()
+				.map(p -> p.getColumnType() + ":" + p.getOrdinal())
+				.collect(Collectors.toList());
+	}
+	
+	private static Optional<JavaFileObject> generatedFile(Compilation compilation, String path) {
+		return compilation.generatedFiles()
+				.stream()
+				.filter(f -> f.toUri().getPath().endsWith("/" + path))
+				.findFirst();
+	}
+	
+	private static boolean hasNote(Compilation compilation, String text) {
+		return compilation.notes()
+				.stream()
+				.map(d -> d.getMessage(null))
+				.anyMatch(m -> m.contains(text));
+	}
+	
+	private static Object instantiate(ClassLoader classLoader, String ifaceName, Map<String, Object> src) throws Exception {
+		
+		Class<?> implClass = classLoader.loadClass(ifaceName + CasserProcessor.CLASS_SUFFIX);
+		
+		return implClass.getConstructor(Map.class).newInstance(src);
+	}
+	
+	private static final class CompilationClassLoader extends ClassLoader {
+		
+		private final Compilation compilation;
+		
+		CompilationClassLoader(Compilation compilation) {
+			super(CasserProcessorTest.class.getClassLoader());
+			this.compilation = compilation;
+		}
+		
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			
+			JavaFileObject file = generatedFile(compilation, name.replace('.', '/') + ".class")
+					.orElseThrow(() -> new ClassNotFoundException(name));
+			
+			try (InputStream in = file.openInputStream()) {
+				
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+					out.write(buffer, 0, n);
+				}
+				
+				byte[] bytes = out.toByteArray();
+				return defineClass(name, bytes, 0, bytes.length);
+				
+			} catch (IOException e) {
+				throw new ClassNotFoundException(name, e);
+			}
+		}
+		
+	}
+	
+}
@@ -1,3 +1,3 @@
 #!/bin/bash
 
-mvn clean jar:jar javadoc:jar source:jar deploy -Prelease 
+mvn clean deploy -Prelease 
@@ -1,3 +1,3 @@
 #!/bin/bash
 
-mvn clean jar:jar javadoc:jar source:jar install -Prelease
+mvn clean install -Prelease